@@ -0,0 +1,85 @@
+package client_server_host;
+
+import elevatorsystem.Doors;
+import elevatorsystem.Fault;
+import elevatorsystem.MovementState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import requests.ApproachEvent;
+import requests.ElevatorMonitor;
+import requests.ElevatorRequest;
+import requests.SystemEvent;
+import systemwide.Direction;
+import systemwide.Origin;
+
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MessageTransferBenchmark measures the throughput and allocation of encoding
+ * and decoding the events that are sent between the systems.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageTransferBenchmark {
+
+    @Param({"ELEVATOR_REQUEST", "APPROACH_EVENT", "ELEVATOR_MONITOR", "ELEVATOR_MONITOR_DELTA"})
+    private String eventType;
+
+    private MessageTransfer messageTransfer;
+    private SystemEvent event;
+    private byte[] encodedEvent;
+
+    @Setup
+    public void setUp() {
+        // any free port; the benchmark does not send or receive packets
+        messageTransfer = new MessageTransfer(0);
+        LocalTime time = LocalTime.of(12, 30, 15, 123456789);
+        event = switch (eventType) {
+            case "ELEVATOR_REQUEST" -> new ElevatorRequest(time, 7, Direction.UP, 15, Origin.FLOOR_SYSTEM);
+            case "APPROACH_EVENT" -> new ApproachEvent(time, 8, Direction.UP, 3, Origin.ELEVATOR_SYSTEM);
+            case "ELEVATOR_MONITOR" -> new ElevatorMonitor(3, 8, Direction.UP, MovementState.ACTIVE, Direction.UP,
+                    Doors.State.CLOSED, Fault.NONE, false, 42.5);
+            case "ELEVATOR_MONITOR_DELTA" -> {
+                // the elevator has only moved to the next floor since its previous ElevatorMonitor
+                ElevatorMonitor delta = new ElevatorMonitor(3, 9, Direction.UP, MovementState.ACTIVE, Direction.UP,
+                        Doors.State.CLOSED, Fault.NONE, false, 42.5);
+                delta.setChangedFields(ElevatorMonitor.CURRENT_FLOOR);
+                yield delta;
+            }
+            default -> throw new IllegalArgumentException("Error: Unknown event type " + eventType + ".");
+        };
+        encodedEvent = messageTransfer.encodeObject(event);
+    }
+
+    @TearDown
+    public void tearDown() {
+        messageTransfer.closeSocket();
+    }
+
+    @Benchmark
+    public byte[] encodeObject() {
+        return messageTransfer.encodeObject(event);
+    }
+
+    @Benchmark
+    public Object decodeObject() {
+        return messageTransfer.decodeObject(encodedEvent);
+    }
+}
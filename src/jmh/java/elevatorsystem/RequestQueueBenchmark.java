@@ -0,0 +1,100 @@
+package elevatorsystem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import requests.ServiceRequest;
+import systemwide.Direction;
+import systemwide.Origin;
+
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RequestQueueBenchmark measures the throughput and allocation of the RequestQueue
+ * operations used by an Elevator. A cycle fills a queue with requests, as the
+ * Scheduler would assign them, and drains it, as an Elevator would serve them.
+ * Requests for a floor that already has a request in the same queue are merged,
+ * so deep queues in small buildings hold fewer requests than their depth.
+ *
+ * @author Julian, Liam Tripp
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestQueueBenchmark {
+
+    @Param({"TREE", "BITSET"})
+    private String queueBackend;
+
+    @Param({"20", "100", "1000"})
+    private int numberOfFloors;
+
+    @Param({"4", "32", "256"})
+    private int queueDepth;
+
+    private ServiceRequest[] requests;
+    private int elevatorFloor;
+    private RequestQueue cycledQueue;
+    private RequestQueue filledQueue;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        requests = new ServiceRequest[queueDepth];
+        for (int i = 0; i < queueDepth; i++) {
+            Direction direction = random.nextBoolean() ? Direction.UP : Direction.DOWN;
+            requests[i] = new ServiceRequest(LocalTime.NOON, 1 + random.nextInt(numberOfFloors), direction, Origin.FLOOR_SYSTEM);
+        }
+        // requests are spread across the current, opposite and missed queues
+        elevatorFloor = numberOfFloors / 2;
+        cycledQueue = createRequestQueue();
+        filledQueue = createRequestQueue();
+        for (ServiceRequest request : requests) {
+            filledQueue.addRequest(elevatorFloor, Direction.UP, request);
+        }
+    }
+
+    /**
+     * Creates an empty RequestQueue with the benchmark's backend.
+     *
+     * @return an empty RequestQueue
+     */
+    private RequestQueue createRequestQueue() {
+        return queueBackend.equals("BITSET") ? new RequestQueue(numberOfFloors) : new RequestQueue();
+    }
+
+    @Benchmark
+    public int fillAndDrain() {
+        for (ServiceRequest request : requests) {
+            cycledQueue.addRequest(elevatorFloor, Direction.UP, request);
+        }
+        int requestsServed = 0;
+        while (!cycledQueue.isEmpty()) {
+            if (cycledQueue.isCurrentQueueEmpty()) {
+                cycledQueue.swapQueues();
+            }
+            if (cycledQueue.removeRequest() != null) {
+                requestsServed++;
+            }
+        }
+        return requestsServed;
+    }
+
+    @Benchmark
+    public double getExpectedTime() {
+        return filledQueue.getExpectedTime(elevatorFloor, 2000, 1000);
+    }
+}
@@ -0,0 +1,112 @@
+package scheduler;
+
+import elevatorsystem.Doors;
+import elevatorsystem.Fault;
+import elevatorsystem.MovementState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import requests.ElevatorMonitor;
+import requests.ElevatorRequest;
+import systemwide.Direction;
+import systemwide.Origin;
+import systemwide.Structure;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ChooseElevatorBenchmark measures the time and allocation of choosing an elevator
+ * for banks of 4 to 512 elevators in several mixes of elevator states, with each
+ * DispatchStrategy that a Scheduler can be started with and with the linear
+ * Scheduler.chooseElevator that DirectionalDispatch falls back on.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChooseElevatorBenchmark {
+
+    // number of requests to cycle through; must be a power of two
+    private static final int NUMBER_OF_REQUESTS = 1024;
+    private static final int NUMBER_OF_FLOORS = 100;
+
+    @Param({"4", "16", "64", "128", "512"})
+    private int numberOfElevators;
+
+    /**
+     * MOVING: every elevator is moving in a random direction.
+     * MIXED: elevators are moving, idle with requests, or stuck.
+     * LAST_EMPTY: every elevator is moving except the last, which has no requests.
+     */
+    @Param({"MOVING", "MIXED", "LAST_EMPTY"})
+    private String elevatorMix;
+
+    /**
+     * LINEAR: the static Scheduler.chooseElevator.
+     * Otherwise: the DispatchStrategy of the DispatchAlgorithm with that name.
+     */
+    @Param({"LINEAR", "DIRECTIONAL", "NEAREST_CAR", "ESTIMATED_TIME", "DESTINATION", "WHAT_IF"})
+    private String dispatch;
+
+    private ArrayList<ElevatorMonitor> elevatorMonitorList;
+    private ElevatorRequest[] requests;
+    private int requestIndex;
+    private DispatchStrategy strategy;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        elevatorMonitorList = new ArrayList<>();
+        for (int i = 1; i <= numberOfElevators; i++) {
+            MovementState state = MovementState.ACTIVE;
+            if (elevatorMix.equals("MIXED")) {
+                state = MovementState.values()[random.nextInt(MovementState.values().length)];
+            }
+            boolean empty = elevatorMix.equals("LAST_EMPTY") && i == numberOfElevators;
+            Direction serviceDirection = random.nextBoolean() ? Direction.UP : Direction.DOWN;
+            Direction movementDirection = state == MovementState.ACTIVE ? serviceDirection : Direction.NONE;
+            double queueTime = random.nextDouble() * 120;
+            elevatorMonitorList.add(new ElevatorMonitor(i, 1 + random.nextInt(NUMBER_OF_FLOORS), serviceDirection,
+                    state, movementDirection, Doors.State.CLOSED, Fault.NONE, empty, queueTime));
+        }
+
+        requests = new ElevatorRequest[NUMBER_OF_REQUESTS];
+        for (int i = 0; i < NUMBER_OF_REQUESTS; i++) {
+            int floor = 1 + random.nextInt(NUMBER_OF_FLOORS);
+            int desiredFloor = 1 + random.nextInt(NUMBER_OF_FLOORS);
+            Direction direction = desiredFloor >= floor ? Direction.UP : Direction.DOWN;
+            requests[i] = new ElevatorRequest(LocalTime.NOON, floor, direction, desiredFloor, Origin.FLOOR_SYSTEM);
+        }
+        requestIndex = 0;
+
+        if (dispatch.equals("LINEAR")) {
+            strategy = Scheduler::chooseElevator;
+        } else {
+            Structure structure = new Structure(NUMBER_OF_FLOORS, numberOfElevators, 1000, 1000);
+            strategy = DispatchAlgorithm.valueOf(dispatch).createStrategy(structure);
+        }
+        // the first call adds the ElevatorMonitors to the strategy's ElevatorIndex, if it has one
+        strategy.chooseElevator(elevatorMonitorList, requests[NUMBER_OF_REQUESTS - 1]);
+    }
+
+    @Benchmark
+    public int chooseElevator() {
+        ElevatorRequest request = requests[requestIndex++ & (NUMBER_OF_REQUESTS - 1)];
+        return strategy.chooseElevator(elevatorMonitorList, request);
+    }
+}
@@ -0,0 +1,87 @@
+package scheduler;
+
+import elevatorsystem.Doors;
+import elevatorsystem.Fault;
+import elevatorsystem.MovementState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import requests.ElevatorMonitor;
+import requests.ElevatorRequest;
+import systemwide.Direction;
+import systemwide.Origin;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WhatIfDispatchBenchmark measures the time WhatIfDispatch takes to choose an elevator
+ * for banks of 4 to 512 elevators, evaluating the elevators on the calling thread or
+ * in parallel on the common ForkJoinPool.
+ *
+ * @author Liam Tripp, Julian
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WhatIfDispatchBenchmark {
+
+    // number of requests to cycle through; must be a power of two
+    private static final int NUMBER_OF_REQUESTS = 1024;
+    private static final int NUMBER_OF_FLOORS = 100;
+
+    @Param({"4", "16", "64", "512"})
+    private int numberOfElevators;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private ArrayList<ElevatorMonitor> elevatorMonitorList;
+    private ElevatorRequest[] requests;
+    private int requestIndex;
+    private WhatIfDispatch whatIfDispatch;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        elevatorMonitorList = new ArrayList<>();
+        for (int i = 1; i <= numberOfElevators; i++) {
+            Direction serviceDirection = random.nextBoolean() ? Direction.UP : Direction.DOWN;
+            elevatorMonitorList.add(new ElevatorMonitor(i, 2 + random.nextInt(NUMBER_OF_FLOORS - 2), serviceDirection,
+                    MovementState.ACTIVE, serviceDirection, Doors.State.CLOSED, Fault.NONE, false, 0.0));
+        }
+
+        requests = new ElevatorRequest[NUMBER_OF_REQUESTS];
+        for (int i = 0; i < NUMBER_OF_REQUESTS; i++) {
+            int floor = 1 + random.nextInt(NUMBER_OF_FLOORS);
+            int desiredFloor = 1 + random.nextInt(NUMBER_OF_FLOORS);
+            Direction direction = desiredFloor >= floor ? Direction.UP : Direction.DOWN;
+            requests[i] = new ElevatorRequest(LocalTime.NOON, floor, direction, desiredFloor, Origin.FLOOR_SYSTEM);
+        }
+        requestIndex = 0;
+
+        // the mirrors of the elevators' queues fill with requests as the benchmark runs
+        int sequentialThreshold = parallel ? 8 : Integer.MAX_VALUE;
+        whatIfDispatch = new WhatIfDispatch(NUMBER_OF_FLOORS, 1000, 1000, ForkJoinPool.commonPool(), sequentialThreshold);
+    }
+
+    @Benchmark
+    public int chooseElevator() {
+        ElevatorRequest request = requests[requestIndex++ & (NUMBER_OF_REQUESTS - 1)];
+        return whatIfDispatch.chooseElevator(elevatorMonitorList, request);
+    }
+}
@@ -0,0 +1,82 @@
+package client_server_host;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * BufferPool keeps ByteBuffers of one capacity for reuse, so that receiving a message
+ * does not allocate a new buffer once the pool holds enough of them.
+ *
+ * Direct buffers let a DatagramChannel receive straight into the buffer instead of
+ * through a temporary direct buffer, at the cost of memory outside the heap.
+ *
+ * @author Liam Tripp, Julian
+ */
+public class BufferPool {
+
+    private final int bufferCapacity;
+    private final boolean direct;
+    private final int maxPooledBuffers;
+    // released buffers, only accessed while holding the BufferPool's lock
+    private final ArrayDeque<ByteBuffer> pooledBuffers;
+
+    /**
+     * Constructor for BufferPool.
+     *
+     * @param bufferCapacity the number of bytes in each buffer
+     * @param direct true to allocate direct buffers, false to allocate heap buffers
+     * @param maxPooledBuffers the maximum number of released buffers kept for reuse
+     */
+    public BufferPool(int bufferCapacity, boolean direct, int maxPooledBuffers) {
+        if (bufferCapacity <= 0 || maxPooledBuffers < 0) {
+            throw new IllegalArgumentException("Error: A BufferPool requires a positive buffer capacity and a maximum that is not negative.");
+        }
+        this.bufferCapacity = bufferCapacity;
+        this.direct = direct;
+        this.maxPooledBuffers = maxPooledBuffers;
+        pooledBuffers = new ArrayDeque<>(maxPooledBuffers);
+    }
+
+    /**
+     * Takes a cleared buffer from the pool, allocating a new one if the pool is empty.
+     *
+     * @return a buffer with its position at zero and its limit at its capacity
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer;
+        synchronized (this) {
+            buffer = pooledBuffers.pollLast();
+        }
+        if (buffer == null) {
+            buffer = direct ? ByteBuffer.allocateDirect(bufferCapacity) : ByteBuffer.allocate(bufferCapacity);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns a buffer taken from the pool so that it can be reused. The buffer must
+     * not be used after it is released. Buffers beyond the maximum are discarded.
+     *
+     * @param buffer a buffer taken from the pool
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer.capacity() != bufferCapacity || buffer.isDirect() != direct) {
+            throw new IllegalArgumentException("Error: The buffer does not belong to the BufferPool.");
+        }
+        buffer.clear();
+        synchronized (this) {
+            if (pooledBuffers.size() < maxPooledBuffers) {
+                pooledBuffers.addLast(buffer);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of released buffers waiting to be reused.
+     *
+     * @return the number of pooled buffers
+     */
+    public synchronized int getPooledBufferCount() {
+        return pooledBuffers.size();
+    }
+}
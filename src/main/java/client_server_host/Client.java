@@ -2,65 +2,102 @@ package client_server_host;
 
 import requests.SystemEvent;
 
-import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Client sends and receives messages from an IntermediateHost.
+ * Client sends and receives messages from an IntermediateHost through a Transport.
  *
  * @author Liam Tripp, Julian, Ryan Dash
  */
 public class Client {
 
-    private final int portNumber;
-    private final MessageTransfer messageTransfer;
+    private final Transport transport;
+    private final InetSocketAddress eventAddress;
+    private final InetSocketAddress requestAddress;
 
     /**
-     * Constructor for Client.
+     * Constructor for Client. The Scheduler ports are determined by the default Ports.
+     *
+     * @param portNumber the port number associated with the Client's DatagramSocket
      */
     public Client(int portNumber) {
-        this.portNumber = portNumber;
-        messageTransfer = new MessageTransfer(portNumber);
+        this(portNumber,
+                portNumber == Port.CLIENT.getNumber() ? Port.CLIENT_TO_SERVER.getNumber() : Port.SERVER_TO_CLIENT.getNumber(),
+                portNumber == Port.CLIENT.getNumber() ? Port.SERVER_TO_CLIENT.getNumber() : Port.CLIENT_TO_SERVER.getNumber());
     }
 
     /**
-     * Builds a Datagram Packet according to its class type.
+     * Constructor for Client that communicates over UDP.
      *
-     * @param object to convert into a packet
-     * @return packet of the object
+     * @param portNumber the port number associated with the Client's DatagramSocket
+     * @param eventPortNumber the port number of the Scheduler that SystemEvents are sent to
+     * @param requestPortNumber the port number of the Scheduler that holds the Client's events
+     */
+    public Client(int portNumber, int eventPortNumber, int requestPortNumber) {
+        this(new UdpTransport(portNumber), eventPortNumber, requestPortNumber);
+    }
+
+    /**
+     * Constructor for Client that communicates through the specified Transport.
+     *
+     * @param transport the Transport that sends and receives the Client's messages
+     * @param eventPortNumber the port number of the Scheduler that SystemEvents are sent to
+     * @param requestPortNumber the port number of the Scheduler that holds the Client's events
      */
-    public DatagramPacket buildPacket(Object object) {
-        byte[] newByteArray;
-        Port tempPort;
+    public Client(Transport transport, int eventPortNumber, int requestPortNumber) {
+        this.transport = transport;
+        InetAddress localHost = InetAddress.getLoopbackAddress();
+        try {
+            localHost = InetAddress.getLocalHost();
+        } catch (UnknownHostException e) {
+            e.printStackTrace();
+        }
+        eventAddress = new InetSocketAddress(localHost, eventPortNumber);
+        requestAddress = new InetSocketAddress(localHost, requestPortNumber);
+    }
 
+    /**
+     * Returns the address of the Scheduler that an object is sent to according to its class type.
+     *
+     * @param object the object to send
+     * @return the address of the Scheduler receiving the object
+     */
+    private InetSocketAddress destinationOf(Object object) {
         //Determine type of message
         if (object instanceof SystemEvent) {
-            if (portNumber == Port.CLIENT.getNumber()) {
-                tempPort = Port.CLIENT_TO_SERVER;
-            } else {
-                tempPort = Port.SERVER_TO_CLIENT;
-            }
-            newByteArray = messageTransfer.encodeObject(object);
+            return eventAddress;
         } else if (object instanceof String) {
-            if (portNumber == Port.CLIENT.getNumber()) {
-                tempPort = Port.SERVER_TO_CLIENT;
-            } else {
-                tempPort = Port.CLIENT_TO_SERVER;
-            }
-            // NOTE: this code might be unnecessary
-            newByteArray = ((String) object).getBytes();
+            return requestAddress;
         } else {
             throw new IllegalArgumentException("Error: Invalid Object");
         }
+    }
 
-        if (tempPort == null) {
-            throw new IllegalArgumentException("Error: Invalid PortNumber");
-        }
+    /**
+     * Sets the maximum time that receive blocks for. A timeout of zero
+     * blocks until a message is received.
+     *
+     * @param timeout the maximum time to wait for a message in milliseconds
+     */
+    public void setReceiveTimeout(int timeout) {
+        transport.setReceiveTimeout(timeout);
+    }
 
-        return messageTransfer.createPacket(newByteArray, tempPort.getNumber());
+    /**
+     * Subscribes the Client to the IntermediateHost holding its events. Afterwards,
+     * the IntermediateHost sends events as soon as they are available.
+     */
+    public void subscribe() {
+        send(RequestMessage.SUBSCRIBE.getMessage());
     }
 
     /**
-     * Send and Receive a reply using MessageTransfer.
+     * Send and Receive a reply using the Transport.
      *
      * @param object with the message to send, either an Event or an Array
      * @return packet of the object
@@ -71,45 +108,95 @@ public class Client {
     }
 
     /**
-     * Build a DatagramPacket according to its class type
-     * and sends that DatagramPacket using messageTransfer.
+     * Sends a string or event object to the Scheduler that handles its class type.
      *
-     * @param object a string or event object to send in the DatagramPacket
+     * @param object a string or event object to send
      */
     public void send(Object object) {
-        DatagramPacket sendPacket = buildPacket(object);
-        messageTransfer.sendMessage(sendPacket);
-        if (!(object instanceof String)) {
-            messageTransfer.printSendMessage(Thread.currentThread().getName(), sendPacket);
+        transport.send(object, destinationOf(object));
+    }
+
+    /**
+     * Sends a list of events to the Scheduler packed into as few packets as possible.
+     * The Scheduler acknowledges each packet once.
+     *
+     * @param events the events to send
+     * @return the number of packets sent
+     */
+    public int sendBatch(List<? extends SystemEvent> events) {
+        return transport.sendBatch(events, eventAddress);
+    }
+
+    /**
+     * Collects the events that are added to a subsystem's queue within the batch linger
+     * time, or until they fill a packet, and any events that are already pending.
+     * Events are collected in the order that they would be sent individually.
+     *
+     * @param firstEvent the first event of the batch
+     * @param batchLingerTime the time to wait for more events in milliseconds
+     * @param eventSource the queue of events waiting to be sent
+     * @return the events to send in a batch
+     */
+    public List<SystemEvent> collectPendingEvents(SystemEvent firstEvent, int batchLingerTime, EventSource eventSource) {
+        List<SystemEvent> events = new ArrayList<>();
+        events.add(firstEvent);
+        int frameLength = MessageCodec.BATCH_HEADER_LENGTH + transport.batchedLength(firstEvent);
+        long lingerEndTime = System.nanoTime() + batchLingerTime * 1000000L;
+        try {
+            long remainingTime;
+            while (frameLength < MessageTransfer.MAX_BYTE_ARRAY_SIZE &&
+                    (remainingTime = lingerEndTime - System.nanoTime()) > 0) {
+                SystemEvent event = eventSource.poll(remainingTime, TimeUnit.NANOSECONDS);
+                if (event == null) {
+                    break;
+                }
+                events.add(event);
+                frameLength += transport.batchedLength(event);
+            }
+            // events that are already pending are sent in the following packets
+            SystemEvent event;
+            while ((event = eventSource.poll(0, TimeUnit.NANOSECONDS)) != null) {
+                events.add(event);
+            }
+        } catch (InterruptedException e) {
+            e.printStackTrace();
         }
+        return events;
     }
 
     /**
-     * Receive a DatagramPacket from the MessageTransfer and
-     * return the string or object in the packet as an object.
+     * Receives a message from the Transport and returns the string or
+     * object it contains.
      *
-     * @return an object containing a string or event object.
+     * @return an object containing a string or event object, null if no message was received
      */
     public Object receive() {
         //Receiving reply
-        DatagramPacket receivePacket = messageTransfer.receiveMessage();
-        Object object = convertToSystemEvent(receivePacket);
-
-        if (!(object instanceof String string)) {
-            messageTransfer.printReceiveMessage(Thread.currentThread().getName(), receivePacket);
-        } else if (string.trim().equals(RequestMessage.TERMINATE.getMessage())) {
-            messageTransfer.closeSocket();
+        Message message = transport.receive();
+        if (message == null) {
+            return null;
+        }
+        Object object = message.getContent();
+        if (object instanceof String string && string.trim().equals(RequestMessage.TERMINATE.getMessage())) {
+            transport.close();
         }
         return object;
     }
 
     /**
-     * Converts a packet into it's corresponding SystemEvent object
-     *
-     * @param packet to convert to event
-     * @return event of packet
+     * EventSource is the queue of events that a subsystem sends through its Client.
      */
-    public Object convertToSystemEvent(DatagramPacket packet) {
-        return messageTransfer.decodeObject(packet.getData());
+    @FunctionalInterface
+    public interface EventSource {
+
+        /**
+         * Removes the next event, waiting up to the specified time for one to be added.
+         *
+         * @param timeout the maximum time to wait, zero to return immediately
+         * @param unit the unit of the timeout
+         * @return the next event, null if there was none after the timeout
+         * @throws InterruptedException if the thread is interrupted while waiting
+         */
+        SystemEvent poll(long timeout, TimeUnit unit) throws InterruptedException;
     }
 }
@@ -0,0 +1,74 @@
+package client_server_host;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * InMemoryNetwork connects the InMemoryTransports of subsystems that run in the same process.
+ * Messages are delivered by port number, and the ports are independent of the ports of
+ * the operating system, so the default Ports can be used without binding any socket.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class InMemoryNetwork {
+
+    // ports assigned to InMemoryTransports created with port number 0
+    private static final int FIRST_EPHEMERAL_PORT = 49152;
+
+    private final Map<Integer, InMemoryTransport> transports;
+    private final AtomicInteger nextEphemeralPort;
+
+    /**
+     * Constructor for InMemoryNetwork.
+     */
+    public InMemoryNetwork() {
+        transports = new ConcurrentHashMap<>();
+        nextEphemeralPort = new AtomicInteger(FIRST_EPHEMERAL_PORT);
+    }
+
+    /**
+     * Connects a new InMemoryTransport to the network so that messages sent to its port are delivered to it.
+     *
+     * @param portNumber the port number of the InMemoryTransport, 0 for any free port
+     * @return the connected InMemoryTransport
+     * @throws IllegalArgumentException if another InMemoryTransport is connected to the port
+     */
+    public InMemoryTransport connect(int portNumber) {
+        InMemoryTransport transport;
+        if (portNumber == 0) {
+            do {
+                transport = new InMemoryTransport(this, nextEphemeralPort.getAndIncrement());
+            } while (transports.putIfAbsent(transport.getPortNumber(), transport) != null);
+        } else {
+            transport = new InMemoryTransport(this, portNumber);
+            if (transports.putIfAbsent(portNumber, transport) != null) {
+                throw new IllegalArgumentException("Error: Port " + portNumber + " is already in use.");
+            }
+        }
+        return transport;
+    }
+
+    /**
+     * Disconnects an InMemoryTransport from the network. Messages sent to its port are discarded.
+     *
+     * @param transport the InMemoryTransport to disconnect
+     */
+    void disconnect(InMemoryTransport transport) {
+        transports.remove(transport.getPortNumber(), transport);
+    }
+
+    /**
+     * Delivers a message to the InMemoryTransport connected to a port. The message is
+     * discarded if no InMemoryTransport is connected, as a datagram sent to a closed port is.
+     *
+     * @param message the message to deliver
+     * @param portNumber the port number of the receiving InMemoryTransport
+     */
+    void deliver(Message message, int portNumber) {
+        InMemoryTransport transport = transports.get(portNumber);
+        if (transport != null) {
+            transport.deliver(message);
+        }
+    }
+}
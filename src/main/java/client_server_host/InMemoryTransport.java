@@ -0,0 +1,154 @@
+package client_server_host;
+
+import requests.SystemEvent;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * InMemoryTransport passes messages to the other Transports of an InMemoryNetwork
+ * through a queue, so that subsystems running in the same process exchange
+ * references to their events instead of encoding them into packets.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class InMemoryTransport implements Transport {
+
+    // wakes the threads receiving from a closed InMemoryTransport
+    private static final Message CLOSED = new Message(null, null);
+
+    private final InMemoryNetwork network;
+    private final int portNumber;
+    private final InetSocketAddress address;
+    private final BlockingQueue<Message> messages;
+    private volatile int receiveTimeout;
+    private volatile boolean closed;
+
+    /**
+     * Constructor for InMemoryTransport. InMemoryTransports are created by
+     * InMemoryNetwork.connect, which connects them once they are constructed.
+     *
+     * @param network the InMemoryNetwork that the InMemoryTransport belongs to
+     * @param portNumber the port number of the InMemoryTransport
+     */
+    InMemoryTransport(InMemoryNetwork network, int portNumber) {
+        this.network = network;
+        this.portNumber = portNumber;
+        messages = new LinkedBlockingQueue<>();
+        receiveTimeout = 0;
+        closed = false;
+        address = new InetSocketAddress(InetAddress.getLoopbackAddress(), portNumber);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPortNumber() {
+        return portNumber;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setReceiveTimeout(int timeout) {
+        receiveTimeout = timeout;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The object itself is passed to the receiver.
+     */
+    @Override
+    public void send(Object object, InetSocketAddress destination) {
+        if (!closed) {
+            network.deliver(new Message(object, address), destination.getPort());
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The events are passed to the receiver in a single list.
+     */
+    @Override
+    public int sendBatch(List<? extends SystemEvent> events, InetSocketAddress destination) {
+        send(new ArrayList<SystemEvent>(events), destination);
+        return 1;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Events are not encoded, so a batch is only limited by the time it is collected for.
+     */
+    @Override
+    public int batchedLength(SystemEvent event) {
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Message receive() {
+        try {
+            int timeout = receiveTimeout;
+            Message message = timeout > 0 ? messages.poll(timeout, TimeUnit.MILLISECONDS) : messages.take();
+            return checkClosed(message);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Message receiveAvailable() {
+        return checkClosed(messages.poll());
+    }
+
+    /**
+     * {@inheritDoc}
+     * Messages that were not received yet are discarded.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        network.disconnect(this);
+        messages.clear();
+        messages.add(CLOSED);
+    }
+
+    /**
+     * Adds a message sent by another InMemoryTransport to the queue of messages to receive.
+     *
+     * @param message the message sent to the InMemoryTransport
+     */
+    void deliver(Message message) {
+        if (!closed) {
+            messages.add(message);
+        }
+    }
+
+    /**
+     * Returns null instead of the message that marks the InMemoryTransport as closed.
+     * The mark is kept for the other threads receiving from the InMemoryTransport.
+     *
+     * @param message a message taken from the queue, may be null
+     * @return the message, null if it is absent or marks the InMemoryTransport as closed
+     */
+    private Message checkClosed(Message message) {
+        if (message == CLOSED) {
+            messages.add(CLOSED);
+            return null;
+        }
+        return message;
+    }
+}
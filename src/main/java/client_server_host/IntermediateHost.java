@@ -2,52 +2,126 @@ package client_server_host;
 
 import requests.SystemEvent;
 
-import java.net.DatagramPacket;
+import java.io.IOException;
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 
 /**
  * IntermediateHost is a service class used by Scheduler. It provides methods
- * that manipulate MessageTransfer to receive and send messages to both Client and Server.
+ * that use a Transport to receive and send messages to both Client and Server.
  *
  * @author Liam Tripp, Ryan Dash
  */
 public class IntermediateHost {
 
-    private final MessageTransfer messageTransfer;
+    private final Transport transport;
     private final Queue<SystemEvent> messageQueue;
+    private final List<InetSocketAddress> subscribers;
+    private final int subsystemPortNumber;
 
     /**
-     * Constructor for IntermediateHost.
+     * Constructor for IntermediateHost. The subsystem to terminate is determined by
+     * the default Ports.
      *
      * @param portNumber the port number corresponding to a DatagramSocket
      */
     public IntermediateHost(int portNumber) {
-        messageTransfer = new MessageTransfer(portNumber);
+        this(portNumber, portNumber == Port.CLIENT_TO_SERVER.getNumber() ?
+                Port.SERVER.getNumber() : Port.CLIENT.getNumber());
+    }
+
+    /**
+     * Constructor for IntermediateHost that communicates over UDP.
+     *
+     * @param portNumber the port number corresponding to a DatagramSocket
+     * @param subsystemPortNumber the port number of the subsystem that receives the IntermediateHost's events
+     */
+    public IntermediateHost(int portNumber, int subsystemPortNumber) {
+        this(new UdpTransport(portNumber), subsystemPortNumber);
+    }
+
+    /**
+     * Constructor for IntermediateHost that communicates through the specified Transport.
+     *
+     * @param transport the Transport that sends and receives the IntermediateHost's messages
+     * @param subsystemPortNumber the port number of the subsystem that receives the IntermediateHost's events
+     */
+    public IntermediateHost(Transport transport, int subsystemPortNumber) {
+        this.transport = transport;
         messageQueue = new LinkedList<>();
+        subscribers = new ArrayList<>();
+        this.subsystemPortNumber = subsystemPortNumber;
+    }
+
+    /**
+     * Returns the port number of the IntermediateHost's Transport.
+     *
+     * @return the port number of the IntermediateHost
+     */
+    public int getPortNumber() {
+        return transport.getPortNumber();
+    }
+
+    /**
+     * Receives and returns a Message from the IntermediateHost's Transport.
+     *
+     * @return message received from the IntermediateHost's Transport, null if none was received
+     */
+    public Message receiveMessage() {
+        return transport.receive();
     }
 
     /**
-     * Receives and returns a DatagramPacket from the IntermediateHost's MessageTransfer.
+     * Receives and returns a Message if one is available without blocking.
+     * Used once the IntermediateHost is registered with a Selector.
      *
-     * @return packet received from the IntermediateHost's MessageTransfer
+     * @return message received from the IntermediateHost's Transport, null if none is available
      */
-    public DatagramPacket receivePacket() {
-        DatagramPacket receivePacket = messageTransfer.receiveMessage();
-        messageTransfer.printReceiveMessage(Thread.currentThread().getName(), receivePacket);
-        return receivePacket;
+    public Message receiveAvailableMessage() {
+        return transport.receiveAvailable();
     }
 
     /**
-     * Converts a packet into it's corresponding SystemEvent object
+     * Determines whether the IntermediateHost's Transport can be registered with a Selector.
      *
-     * @param packet to convert to event
-     * @return object stored in the packet
+     * @return true if the Transport is a SelectableTransport, false otherwise
      */
-    public Object convertToObject(DatagramPacket packet) {
-        return messageTransfer.decodeObject(packet.getData());
+    public boolean isSelectable() {
+        return transport instanceof SelectableTransport;
+    }
+
+    /**
+     * Registers the IntermediateHost with a Selector so that many IntermediateHosts
+     * can be served by one thread.
+     *
+     * @param selector the Selector to register with
+     * @param attachment an object attached to the SelectionKey, may be null
+     * @return the SelectionKey representing the registration
+     * @throws IOException if the IntermediateHost could not be registered
+     * @throws IllegalStateException if the IntermediateHost's Transport is not selectable
+     */
+    public SelectionKey register(Selector selector, Object attachment) throws IOException {
+        if (!(transport instanceof SelectableTransport selectableTransport)) {
+            throw new IllegalStateException("Error: The IntermediateHost's Transport cannot be registered with a Selector.");
+        }
+        return selectableTransport.register(selector, attachment);
+    }
+
+    /**
+     * Sets the maximum time that receiveMessage blocks for. A timeout of zero
+     * blocks until a message is received.
+     *
+     * @param timeout the maximum time to wait for a message in milliseconds
+     */
+    public void setReceiveTimeout(int timeout) {
+        transport.setReceiveTimeout(timeout);
     }
 
     /**
@@ -55,7 +129,7 @@ public class IntermediateHost {
      *
      * @param event an event to send to either the Client or Server
      */
-    public void addEventToQueue(SystemEvent event) {
+    public synchronized void addEventToQueue(SystemEvent event) {
         // encode the altered event into a new packet
         messageQueue.add(event);
     }
@@ -68,19 +142,60 @@ public class IntermediateHost {
      * @param port the port to send the packet to
      */
     public void sendObject(Object object, InetAddress address, int port) {
-        byte[] message = messageTransfer.encodeObject(object);
-        messageTransfer.sendMessage(new DatagramPacket(message, message.length, address, port));
+        transport.send(object, new InetSocketAddress(address, port));
+    }
+
+    /**
+     * Registers the sender of a message as a subscriber. Subscribers are sent
+     * events as soon as they are available instead of requesting them.
+     *
+     * @param message a message containing a subscription request
+     */
+    public synchronized void addSubscriber(Message message) {
+        InetSocketAddress subscriber = message.getSender();
+        if (!subscribers.contains(subscriber)) {
+            subscribers.add(subscriber);
+        }
+    }
+
+    /**
+     * Determines whether any subscribers are registered with the IntermediateHost.
+     *
+     * @return true if there is at least one subscriber, false otherwise
+     */
+    public synchronized boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    /**
+     * Sends an object to every subscriber.
+     *
+     * @param object the object to send to the subscribers
+     */
+    public synchronized void sendToSubscribers(Object object) {
+        for (InetSocketAddress subscriber : subscribers) {
+            transport.send(object, subscriber);
+        }
+    }
+
+    /**
+     * Sends a list of events to every subscriber packed into as few packets as possible.
+     *
+     * @param events the events to send to the subscribers
+     */
+    public synchronized void sendBatchToSubscribers(List<? extends SystemEvent> events) {
+        for (InetSocketAddress subscriber : subscribers) {
+            transport.sendBatch(events, subscriber);
+        }
     }
 
     /**
      * Responds to a SystemEvent object being received.
      *
-     * @param packet a packet received from a scheduler
+     * @param message a message received from a subsystem
      */
-    public void acknowledgeDataReception(DatagramPacket packet) {
-        byte[] acknowledgeMessage = RequestMessage.ACKNOWLEDGE.getMessage().getBytes();
-        DatagramPacket acknowledgePacket = new DatagramPacket(acknowledgeMessage, acknowledgeMessage.length, packet.getAddress(), packet.getPort());
-        messageTransfer.sendMessage(acknowledgePacket);
+    public void acknowledgeDataReception(Message message) {
+        transport.send(RequestMessage.ACKNOWLEDGE.getMessage(), message.getSender());
     }
 
     /**
@@ -89,17 +204,11 @@ public class IntermediateHost {
     public void terminateSystem() {
         try {
             InetAddress inetAddress = InetAddress.getLocalHost();
-            int portNumber;
-            if (messageTransfer.getPortNumber() == Port.CLIENT_TO_SERVER.getNumber()) {
-                portNumber = Port.SERVER.getNumber();
-            } else {
-                portNumber = Port.CLIENT.getNumber();
-            }
-            sendObject(RequestMessage.TERMINATE.getMessage(), inetAddress, portNumber);
+            sendObject(RequestMessage.TERMINATE.getMessage(), inetAddress, subsystemPortNumber);
         } catch (UnknownHostException e) {
             e.printStackTrace();
         }
-        messageTransfer.closeSocket();
+        transport.close();
     }
 
     /**
@@ -107,7 +216,7 @@ public class IntermediateHost {
      *
      * @return a packet from the queue
      */
-    public SystemEvent getPacketFromQueue() {
+    public synchronized SystemEvent getPacketFromQueue() {
         return messageQueue.remove();
     }
 
@@ -116,7 +225,7 @@ public class IntermediateHost {
      *
      * @return true if the queue is empty, false otherwise
      */
-    public boolean queueIsEmpty() {
+    public synchronized boolean queueIsEmpty() {
         return messageQueue.isEmpty();
     }
 }
@@ -0,0 +1,62 @@
+package client_server_host;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+
+/**
+ * Message is an object received by a Transport together with the address of its sender.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class Message {
+
+    private final Object content;
+    private final InetSocketAddress sender;
+
+    /**
+     * Constructor for Message.
+     *
+     * @param content the object received, null if the message could not be decoded
+     * @param sender the address of the Transport that sent the message
+     */
+    public Message(Object content, InetSocketAddress sender) {
+        this.content = content;
+        this.sender = sender;
+    }
+
+    /**
+     * Returns the object received.
+     *
+     * @return the object received, null if the message could not be decoded
+     */
+    public Object getContent() {
+        return content;
+    }
+
+    /**
+     * Returns the address of the Transport that sent the message.
+     *
+     * @return the socket address of the sender
+     */
+    public InetSocketAddress getSender() {
+        return sender;
+    }
+
+    /**
+     * Returns the IP address of the sender.
+     *
+     * @return the IP address of the sender
+     */
+    public InetAddress getAddress() {
+        return sender.getAddress();
+    }
+
+    /**
+     * Returns the port number of the sender.
+     *
+     * @return the port number of the sender
+     */
+    public int getPort() {
+        return sender.getPort();
+    }
+}
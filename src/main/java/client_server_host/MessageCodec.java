@@ -0,0 +1,554 @@
+package client_server_host;
+
+import elevatorsystem.Doors;
+import elevatorsystem.Fault;
+import elevatorsystem.MovementState;
+import requests.*;
+import systemwide.Direction;
+import systemwide.Origin;
+import systemwide.Structure;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MessageCodec converts the messages exchanged between systems to and from a
+ * compact binary format.
+ *
+ * Every frame starts with a version byte and a type tag, followed by the
+ * fixed-width fields of that type. Enums are written as their ordinals and
+ * LocalTimes as their nanosecond of the day.
+ *
+ * A batch frame packs many SystemEvents into one frame: the batch tag is
+ * followed by the number of events and then the tag and fields of each event.
+ *
+ * An ElevatorMonitor that is a delta is written with its own tag, followed by
+ * the bitmask of its changed fields and only the values of those fields.
+ *
+ * @author Liam Tripp, Julian
+ */
+public class MessageCodec {
+
+    /**
+     * The version of the frame layout. Increment when a layout changes.
+     */
+    public static final byte VERSION = 5;
+
+    // type tags
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte SYSTEM_EVENT = 2;
+    private static final byte SERVICE_REQUEST = 3;
+    private static final byte ELEVATOR_REQUEST = 4;
+    private static final byte APPROACH_EVENT = 5;
+    private static final byte ELEVATOR_MONITOR = 6;
+    private static final byte STRUCTURE = 7;
+    private static final byte BATCH = 8;
+    private static final byte ELEVATOR_MONITOR_DELTA = 9;
+
+    private static final byte NO_VALUE = -1;
+
+    // number of bytes in the fields common to all SystemEvents: the time, the origin and the elevator number
+    private static final int SYSTEM_EVENT_LENGTH = Long.BYTES + 1 + Integer.BYTES;
+    // number of bytes in the fields common to all ServiceRequests: the SystemEvent fields, the floor and the direction
+    private static final int SERVICE_REQUEST_LENGTH = SYSTEM_EVENT_LENGTH + Integer.BYTES + 1;
+
+    // supplies the values of the fields that a delta ElevatorMonitor does not carry
+    private static final ElevatorMonitor DEFAULT_MONITOR = new ElevatorMonitor(0);
+
+    /**
+     * The number of bytes in a batch frame before its first event.
+     */
+    public static final int BATCH_HEADER_LENGTH = 4;
+
+    /**
+     * Encodes an object into a new byte array.
+     *
+     * @param object the object to encode
+     * @return a byte array containing the frame for the object
+     */
+    public byte[] encode(Object object) {
+        ByteBuffer buffer = ByteBuffer.allocate(MessageTransfer.MAX_BYTE_ARRAY_SIZE);
+        encode(object, buffer);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * Encodes an object into the provided buffer, starting at the buffer's position.
+     *
+     * @param object the object to encode
+     * @param buffer the buffer to write the frame to
+     */
+    public void encode(Object object, ByteBuffer buffer) {
+        try {
+            buffer.put(VERSION);
+            writeObject(object, buffer);
+        } catch (BufferOverflowException boe) {
+            throw new IllegalArgumentException("Error: " + object.getClass().getSimpleName() + " exceeds the frame size.");
+        }
+    }
+
+    /**
+     * Encodes as many events as fit into one batch frame, starting at the
+     * buffer's position. Events that do not fit must be sent in another frame.
+     *
+     * @param events the events to encode
+     * @param fromIndex the index of the first event to encode
+     * @param buffer the buffer to write the frame to
+     * @return the number of events encoded in the frame
+     */
+    public int encodeBatch(List<? extends SystemEvent> events, int fromIndex, ByteBuffer buffer) {
+        int numberOfEvents = 0;
+        int countPosition;
+        try {
+            buffer.put(VERSION);
+            buffer.put(BATCH);
+            countPosition = buffer.position();
+            buffer.putShort((short) 0);
+        } catch (BufferOverflowException boe) {
+            throw new IllegalArgumentException("Error: The buffer is too small for a batch.");
+        }
+        for (int i = fromIndex; i < events.size() && numberOfEvents < Short.MAX_VALUE; i++) {
+            int eventPosition = buffer.position();
+            try {
+                writeObject(events.get(i), buffer);
+            } catch (BufferOverflowException boe) {
+                // the event belongs in the next frame
+                buffer.position(eventPosition);
+                break;
+            }
+            numberOfEvents++;
+        }
+        if (numberOfEvents == 0 && fromIndex < events.size()) {
+            throw new IllegalArgumentException("Error: " + events.get(fromIndex).getClass().getSimpleName() + " exceeds the frame size.");
+        }
+        buffer.putShort(countPosition, (short) numberOfEvents);
+        return numberOfEvents;
+    }
+
+    /**
+     * Returns the number of bytes that an event occupies in a batch frame, which is the
+     * length of its frame without the version byte. The length is computed from the
+     * fields that would be written, without encoding the event.
+     *
+     * @param event the event to measure
+     * @return the number of bytes of the event's type tag and fields
+     */
+    public int encodedLength(SystemEvent event) {
+        return objectLength(event);
+    }
+
+    /**
+     * Decodes the frame contained in a byte array.
+     *
+     * @param bytes the byte array containing the frame
+     * @param offset the index of the frame's first byte
+     * @param length the number of bytes available for the frame
+     * @return the decoded object
+     */
+    public Object decode(byte[] bytes, int offset, int length) {
+        return decode(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    /**
+     * Decodes the frame starting at the buffer's position.
+     * Batch frames are decoded into a List of SystemEvents.
+     *
+     * @param buffer the buffer containing the frame
+     * @return the decoded object
+     */
+    public Object decode(ByteBuffer buffer) {
+        try {
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Error: Unsupported message version " + version + ".");
+            }
+            if (buffer.get(buffer.position()) == BATCH) {
+                buffer.get();
+                return readBatch(buffer);
+            }
+            return readObject(buffer);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Error: Message is truncated.");
+        } catch (DateTimeException dte) {
+            throw new IllegalArgumentException("Error: Message contains an invalid time.");
+        }
+    }
+
+    /**
+     * Writes the type tag and fields of an object.
+     *
+     * @param object the object to write
+     * @param buffer the buffer to write to
+     */
+    private void writeObject(Object object, ByteBuffer buffer) {
+        if (object == null) {
+            buffer.put(NULL);
+        } else if (object instanceof String string) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            buffer.put(STRING);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        } else if (object instanceof ApproachEvent approachEvent) {
+            buffer.put(APPROACH_EVENT);
+            writeServiceRequest(approachEvent, buffer);
+            buffer.putInt(approachEvent.getFloorToVisit());
+            writeBoolean(approachEvent.elevatorMayStop(), buffer);
+        } else if (object instanceof ElevatorRequest elevatorRequest) {
+            buffer.put(ELEVATOR_REQUEST);
+            writeServiceRequest(elevatorRequest, buffer);
+            buffer.putInt(elevatorRequest.getDesiredFloor());
+        } else if (object instanceof ServiceRequest serviceRequest) {
+            buffer.put(SERVICE_REQUEST);
+            writeServiceRequest(serviceRequest, buffer);
+        } else if (object instanceof ElevatorMonitor elevatorMonitor && !elevatorMonitor.isKeyframe()) {
+            buffer.put(ELEVATOR_MONITOR_DELTA);
+            writeElevatorMonitorDelta(elevatorMonitor, buffer);
+        } else if (object instanceof ElevatorMonitor elevatorMonitor) {
+            buffer.put(ELEVATOR_MONITOR);
+            writeSystemEvent(elevatorMonitor, buffer);
+            buffer.putInt(elevatorMonitor.getCurrentFloor());
+            writeEnum(elevatorMonitor.getDirection(), buffer);
+            writeEnum(elevatorMonitor.getState(), buffer);
+            writeEnum(elevatorMonitor.getMovementDirection(), buffer);
+            writeEnum(elevatorMonitor.getDoorsState(), buffer);
+            writeEnum(elevatorMonitor.getFault(), buffer);
+            writeBoolean(elevatorMonitor.hasNoRequests(), buffer);
+            buffer.putDouble(elevatorMonitor.getQueueTime());
+            writeObject(elevatorMonitor.getCurrentRequest(), buffer);
+        } else if (object instanceof SystemEvent systemEvent) {
+            buffer.put(SYSTEM_EVENT);
+            writeSystemEvent(systemEvent, buffer);
+        } else if (object instanceof Structure structure) {
+            buffer.put(STRUCTURE);
+            buffer.putInt(structure.getNumberOfFloors());
+            buffer.putInt(structure.getNumberOfElevators());
+            buffer.putInt(structure.getElevatorTime());
+            buffer.putInt(structure.getDoorsTime());
+            writeBoolean(structure.isPushDeliveryEnabled(), buffer);
+            buffer.putInt(structure.getBatchLingerTime());
+            buffer.putInt(structure.getMonitorKeyframeInterval());
+            writeBoolean(structure.isLocalStopDecisionsEnabled(), buffer);
+        } else {
+            throw new IllegalArgumentException("Error: Invalid Object");
+        }
+    }
+
+    /**
+     * Returns the number of bytes that writeObject writes for an object that may be part of a SystemEvent.
+     *
+     * @param object the object to measure
+     * @return the number of bytes of the object's type tag and fields
+     */
+    private int objectLength(Object object) {
+        if (object == null) {
+            return 1;
+        } else if (object instanceof ApproachEvent) {
+            return 1 + SERVICE_REQUEST_LENGTH + Integer.BYTES + 1;
+        } else if (object instanceof ElevatorRequest) {
+            return 1 + SERVICE_REQUEST_LENGTH + Integer.BYTES;
+        } else if (object instanceof ServiceRequest) {
+            return 1 + SERVICE_REQUEST_LENGTH;
+        } else if (object instanceof ElevatorMonitor elevatorMonitor && !elevatorMonitor.isKeyframe()) {
+            return 1 + elevatorMonitorDeltaLength(elevatorMonitor);
+        } else if (object instanceof ElevatorMonitor elevatorMonitor) {
+            // the floor, five enums, the boolean, the queue time and the current request
+            return 1 + SYSTEM_EVENT_LENGTH + Integer.BYTES + 5 + 1 + Double.BYTES +
+                    objectLength(elevatorMonitor.getCurrentRequest());
+        } else if (object instanceof SystemEvent) {
+            return 1 + SYSTEM_EVENT_LENGTH;
+        } else {
+            throw new IllegalArgumentException("Error: Invalid Object");
+        }
+    }
+
+    /**
+     * Reads a type tag and the fields that follow it.
+     *
+     * @param buffer the buffer to read from
+     * @return the object that was read
+     */
+    private Object readObject(ByteBuffer buffer) {
+        byte tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case STRING: {
+                byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+            case SYSTEM_EVENT: {
+                LocalTime time = readTime(buffer);
+                Origin origin = readEnum(Origin.values(), buffer);
+                SystemEvent systemEvent = new SystemEvent(time, origin);
+                systemEvent.setElevatorNumber(buffer.getInt());
+                return systemEvent;
+            }
+            case SERVICE_REQUEST:
+            case ELEVATOR_REQUEST:
+            case APPROACH_EVENT:
+                return readServiceRequest(tag, buffer);
+            case ELEVATOR_MONITOR:
+                return readElevatorMonitor(buffer);
+            case ELEVATOR_MONITOR_DELTA:
+                return readElevatorMonitorDelta(buffer);
+            case STRUCTURE: {
+                Structure structure = new Structure(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+                structure.setPushDeliveryEnabled(readBoolean(buffer));
+                structure.setBatchLingerTime(buffer.getInt());
+                structure.setMonitorKeyframeInterval(buffer.getInt());
+                structure.setLocalStopDecisionsEnabled(readBoolean(buffer));
+                return structure;
+            }
+            default:
+                throw new IllegalArgumentException("Error: Unknown message type " + tag + ".");
+        }
+    }
+
+    /**
+     * Reads the events of a batch frame.
+     *
+     * @param buffer the buffer to read from
+     * @return the list of events that were read
+     */
+    private List<SystemEvent> readBatch(ByteBuffer buffer) {
+        int numberOfEvents = buffer.getShort();
+        if (numberOfEvents < 0) {
+            throw new IllegalArgumentException("Error: Invalid number of events " + numberOfEvents + " in batch.");
+        }
+        List<SystemEvent> events = new ArrayList<>(numberOfEvents);
+        for (int i = 0; i < numberOfEvents; i++) {
+            if (!(readObject(buffer) instanceof SystemEvent event)) {
+                throw new IllegalArgumentException("Error: Batch contains an object that is not a SystemEvent.");
+            }
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Reads a ServiceRequest or one of its subclasses.
+     *
+     * @param tag the type tag of the request
+     * @param buffer the buffer to read from
+     * @return the ServiceRequest that was read
+     */
+    private ServiceRequest readServiceRequest(byte tag, ByteBuffer buffer) {
+        LocalTime time = readTime(buffer);
+        Origin origin = readEnum(Origin.values(), buffer);
+        int elevatorNumber = buffer.getInt();
+        int floorNumber = buffer.getInt();
+        Direction direction = readEnum(Direction.values(), buffer);
+
+        ServiceRequest request;
+        if (tag == ELEVATOR_REQUEST) {
+            request = new ElevatorRequest(time, floorNumber, direction, buffer.getInt(), origin);
+        } else if (tag == APPROACH_EVENT) {
+            ApproachEvent approachEvent = new ApproachEvent(time, floorNumber, direction, elevatorNumber, origin);
+            approachEvent.setFloorToVisit(buffer.getInt());
+            if (readBoolean(buffer)) {
+                approachEvent.allowElevatorStop();
+            }
+            request = approachEvent;
+        } else {
+            request = new ServiceRequest(time, floorNumber, direction, origin);
+        }
+        request.setElevatorNumber(elevatorNumber);
+        return request;
+    }
+
+    /**
+     * Reads an ElevatorMonitor.
+     *
+     * @param buffer the buffer to read from
+     * @return the ElevatorMonitor that was read
+     */
+    private ElevatorMonitor readElevatorMonitor(ByteBuffer buffer) {
+        LocalTime time = readTime(buffer);
+        Origin origin = readEnum(Origin.values(), buffer);
+        int elevatorNumber = buffer.getInt();
+        int currentFloor = buffer.getInt();
+        Direction serviceDirection = readEnum(Direction.values(), buffer);
+        MovementState state = readEnum(MovementState.values(), buffer);
+        Direction movementDirection = readEnum(Direction.values(), buffer);
+        Doors.State doorsState = readEnum(Doors.State.values(), buffer);
+        Fault fault = readEnum(Fault.values(), buffer);
+        boolean hasNoRequests = readBoolean(buffer);
+        double queueTime = buffer.getDouble();
+
+        ElevatorMonitor elevatorMonitor = new ElevatorMonitor(elevatorNumber, currentFloor, serviceDirection,
+                state, movementDirection, doorsState, fault, hasNoRequests, queueTime);
+        elevatorMonitor.setTime(time);
+        elevatorMonitor.setOrigin(origin);
+        Object currentRequest = readObject(buffer);
+        if (currentRequest != null && !(currentRequest instanceof ServiceRequest)) {
+            throw new IllegalArgumentException("Error: ElevatorMonitor's current request is not a ServiceRequest.");
+        }
+        elevatorMonitor.setCurrentRequest((ServiceRequest) currentRequest);
+        return elevatorMonitor;
+    }
+
+    /**
+     * Writes the changed fields of an ElevatorMonitor that is a delta.
+     *
+     * @param elevatorMonitor the ElevatorMonitor to write
+     * @param buffer the buffer to write to
+     */
+    private void writeElevatorMonitorDelta(ElevatorMonitor elevatorMonitor, ByteBuffer buffer) {
+        int changedFields = elevatorMonitor.getChangedFields();
+        writeSystemEvent(elevatorMonitor, buffer);
+        buffer.putShort((short) changedFields);
+        if ((changedFields & ElevatorMonitor.CURRENT_FLOOR) != 0) {
+            buffer.putInt(elevatorMonitor.getCurrentFloor());
+        }
+        if ((changedFields & ElevatorMonitor.SERVICE_DIRECTION) != 0) {
+            writeEnum(elevatorMonitor.getDirection(), buffer);
+        }
+        if ((changedFields & ElevatorMonitor.MOVEMENT_STATE) != 0) {
+            writeEnum(elevatorMonitor.getState(), buffer);
+        }
+        if ((changedFields & ElevatorMonitor.MOVEMENT_DIRECTION) != 0) {
+            writeEnum(elevatorMonitor.getMovementDirection(), buffer);
+        }
+        if ((changedFields & ElevatorMonitor.DOORS_STATE) != 0) {
+            writeEnum(elevatorMonitor.getDoorsState(), buffer);
+        }
+        if ((changedFields & ElevatorMonitor.FAULT) != 0) {
+            writeEnum(elevatorMonitor.getFault(), buffer);
+        }
+        if ((changedFields & ElevatorMonitor.HAS_NO_REQUESTS) != 0) {
+            writeBoolean(elevatorMonitor.hasNoRequests(), buffer);
+        }
+        if ((changedFields & ElevatorMonitor.QUEUE_TIME) != 0) {
+            buffer.putDouble(elevatorMonitor.getQueueTime());
+        }
+        if ((changedFields & ElevatorMonitor.CURRENT_REQUEST) != 0) {
+            writeObject(elevatorMonitor.getCurrentRequest(), buffer);
+        }
+    }
+
+    /**
+     * Returns the number of bytes that writeElevatorMonitorDelta writes for an ElevatorMonitor.
+     *
+     * @param elevatorMonitor the ElevatorMonitor that is a delta
+     * @return the number of bytes of the changed fields and the fields common to all SystemEvents
+     */
+    private int elevatorMonitorDeltaLength(ElevatorMonitor elevatorMonitor) {
+        int changedFields = elevatorMonitor.getChangedFields();
+        int length = SYSTEM_EVENT_LENGTH + Short.BYTES;
+        if ((changedFields & ElevatorMonitor.CURRENT_FLOOR) != 0) {
+            length += Integer.BYTES;
+        }
+        // the enums and the boolean are written as one byte each
+        int oneByteFields = ElevatorMonitor.SERVICE_DIRECTION | ElevatorMonitor.MOVEMENT_STATE |
+                ElevatorMonitor.MOVEMENT_DIRECTION | ElevatorMonitor.DOORS_STATE | ElevatorMonitor.FAULT |
+                ElevatorMonitor.HAS_NO_REQUESTS;
+        length += Integer.bitCount(changedFields & oneByteFields);
+        if ((changedFields & ElevatorMonitor.QUEUE_TIME) != 0) {
+            length += Double.BYTES;
+        }
+        if ((changedFields & ElevatorMonitor.CURRENT_REQUEST) != 0) {
+            length += objectLength(elevatorMonitor.getCurrentRequest());
+        }
+        return length;
+    }
+
+    /**
+     * Reads an ElevatorMonitor that is a delta. The fields that it does not
+     * carry keep the values of a new ElevatorMonitor.
+     *
+     * @param buffer the buffer to read from
+     * @return the ElevatorMonitor that was read
+     */
+    private ElevatorMonitor readElevatorMonitorDelta(ByteBuffer buffer) {
+        LocalTime time = readTime(buffer);
+        Origin origin = readEnum(Origin.values(), buffer);
+        int elevatorNumber = buffer.getInt();
+        int changedFields = buffer.getShort();
+        int currentFloor = (changedFields & ElevatorMonitor.CURRENT_FLOOR) != 0 ?
+                buffer.getInt() : DEFAULT_MONITOR.getCurrentFloor();
+        Direction serviceDirection = (changedFields & ElevatorMonitor.SERVICE_DIRECTION) != 0 ?
+                readEnum(Direction.values(), buffer) : DEFAULT_MONITOR.getDirection();
+        MovementState state = (changedFields & ElevatorMonitor.MOVEMENT_STATE) != 0 ?
+                readEnum(MovementState.values(), buffer) : DEFAULT_MONITOR.getState();
+        Direction movementDirection = (changedFields & ElevatorMonitor.MOVEMENT_DIRECTION) != 0 ?
+                readEnum(Direction.values(), buffer) : DEFAULT_MONITOR.getMovementDirection();
+        Doors.State doorsState = (changedFields & ElevatorMonitor.DOORS_STATE) != 0 ?
+                readEnum(Doors.State.values(), buffer) : DEFAULT_MONITOR.getDoorsState();
+        Fault fault = (changedFields & ElevatorMonitor.FAULT) != 0 ?
+                readEnum(Fault.values(), buffer) : DEFAULT_MONITOR.getFault();
+        boolean hasNoRequests = (changedFields & ElevatorMonitor.HAS_NO_REQUESTS) != 0 ?
+                readBoolean(buffer) : DEFAULT_MONITOR.hasNoRequests();
+        double queueTime = (changedFields & ElevatorMonitor.QUEUE_TIME) != 0 ?
+                buffer.getDouble() : DEFAULT_MONITOR.getQueueTime();
+
+        ElevatorMonitor elevatorMonitor = new ElevatorMonitor(elevatorNumber, currentFloor, serviceDirection,
+                state, movementDirection, doorsState, fault, hasNoRequests, queueTime);
+        elevatorMonitor.setTime(time);
+        elevatorMonitor.setOrigin(origin);
+        elevatorMonitor.setChangedFields(changedFields);
+        if ((changedFields & ElevatorMonitor.CURRENT_REQUEST) != 0) {
+            Object currentRequest = readObject(buffer);
+            if (currentRequest != null && !(currentRequest instanceof ServiceRequest)) {
+                throw new IllegalArgumentException("Error: ElevatorMonitor's current request is not a ServiceRequest.");
+            }
+            elevatorMonitor.setCurrentRequest((ServiceRequest) currentRequest);
+        }
+        return elevatorMonitor;
+    }
+
+    /**
+     * Writes the fields common to all SystemEvents.
+     */
+    private void writeSystemEvent(SystemEvent systemEvent, ByteBuffer buffer) {
+        LocalTime time = systemEvent.getTime();
+        buffer.putLong(time == null ? NO_VALUE : time.toNanoOfDay());
+        writeEnum(systemEvent.getOrigin(), buffer);
+        buffer.putInt(systemEvent.getElevatorNumber());
+    }
+
+    /**
+     * Writes the fields common to all ServiceRequests.
+     */
+    private void writeServiceRequest(ServiceRequest serviceRequest, ByteBuffer buffer) {
+        writeSystemEvent(serviceRequest, buffer);
+        buffer.putInt(serviceRequest.getFloorNumber());
+        writeEnum(serviceRequest.getDirection(), buffer);
+    }
+
+    private void writeEnum(Enum<?> value, ByteBuffer buffer) {
+        buffer.put(value == null ? NO_VALUE : (byte) value.ordinal());
+    }
+
+    private <T extends Enum<T>> T readEnum(T[] values, ByteBuffer buffer) {
+        byte ordinal = buffer.get();
+        if (ordinal == NO_VALUE) {
+            return null;
+        } else if (ordinal < 0 || ordinal >= values.length) {
+            throw new IllegalArgumentException("Error: Invalid ordinal " + ordinal + " for " +
+                    values.getClass().getComponentType().getSimpleName() + ".");
+        }
+        return values[ordinal];
+    }
+
+    private void writeBoolean(boolean value, ByteBuffer buffer) {
+        buffer.put((byte) (value ? 1 : 0));
+    }
+
+    private boolean readBoolean(ByteBuffer buffer) {
+        return buffer.get() != 0;
+    }
+
+    private LocalTime readTime(ByteBuffer buffer) {
+        long nanoOfDay = buffer.getLong();
+        return nanoOfDay == NO_VALUE ? null : LocalTime.ofNanoOfDay(nanoOfDay);
+    }
+}
@@ -1,30 +1,75 @@
 package client_server_host;
 
-import java.io.*;
+import requests.SystemEvent;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiFunction;
 
 /**
  * MessageTransfer provides methods for other classes to send, receive, and
  * print DatagramPacket data using a DatagramSocket.
  *
+ * The DatagramSocket belongs to a DatagramChannel, which allows the
+ * MessageTransfer to be registered with a Selector and polled without blocking.
+ * Messages are sent through a ReliableDatagramChannel, so that each one is received
+ * exactly once and in order even if packets are lost, duplicated or reordered.
+ * Messages can be read where they were received, from buffers that are reused.
+ *
  * @author Liam Tripp, Ryan Dash, Gregory Franks?
  */
 public class MessageTransfer {
 
-    private DatagramSocket socket;
+    private final DatagramChannel channel;
+    private final DatagramSocket socket;
+    private final ReliableDatagramChannel reliableChannel;
+    private final MessageCodec messageCodec;
     public final static int MAX_BYTE_ARRAY_SIZE = 1400;
 
     /**
-     * Constructor for MessageTransfer.
+     * Constructor for MessageTransfer that receives into heap buffers.
      *
      * @param portNumber number of the port associated with the DatagramSocket
      */
     public MessageTransfer(int portNumber) {
+        this(portNumber, false);
+    }
+
+    /**
+     * Constructor for MessageTransfer.
+     *
+     * @param portNumber number of the port associated with the DatagramSocket
+     * @param directBuffers true to receive into direct buffers, false to receive into heap buffers
+     * @throws UncheckedIOException if the DatagramChannel could not be opened or bound to the port
+     */
+    public MessageTransfer(int portNumber, boolean directBuffers) {
+        messageCodec = new MessageCodec();
+        DatagramChannel openedChannel = null;
         try {
-            socket = new DatagramSocket(portNumber);
-        } catch (SocketException e) {
-            e.printStackTrace();
+            openedChannel = DatagramChannel.open();
+            openedChannel.bind(new InetSocketAddress(portNumber));
+            reliableChannel = ReliableDatagramChannel.open(openedChannel, MAX_BYTE_ARRAY_SIZE, directBuffers);
+        } catch (IOException e) {
+            // release the port so that the failure does not also leak the channel
+            if (openedChannel != null) {
+                try {
+                    openedChannel.close();
+                } catch (IOException closeException) {
+                    e.addSuppressed(closeException);
+                }
+            }
+            throw new UncheckedIOException("Error: MessageTransfer could not open port " + portNumber + ".", e);
         }
+        channel = openedChannel;
+        socket = channel.socket();
     }
 
     /**
@@ -37,25 +82,71 @@ public class MessageTransfer {
     }
 
     /**
-     * Closes the DatagramSocket.
+     * Sets the maximum time that receiveMessage blocks for. A timeout of zero
+     * blocks until a message is received.
+     *
+     * @param timeout the maximum time to wait for a message in milliseconds
+     */
+    public void setReceiveTimeout(int timeout) {
+        reliableChannel.setReceiveTimeout(timeout);
+    }
+
+    /**
+     * Closes the DatagramSocket once the messages sent have been acknowledged,
+     * or after a short time if they are not.
      */
     public void closeSocket() {
-        socket.close();
+        reliableChannel.close();
+    }
+
+    /**
+     * Returns the number of packets that were sent again because they were not acknowledged in time.
+     *
+     * @return the number of retransmitted packets
+     */
+    public long getRetransmissionCount() {
+        return reliableChannel.getRetransmissionCount();
+    }
+
+    /**
+     * Returns the number of received packets that were discarded because they had already been received.
+     *
+     * @return the number of duplicate packets
+     */
+    public long getDuplicateCount() {
+        return reliableChannel.getDuplicateCount();
+    }
+
+    /**
+     * Registers the MessageTransfer with a Selector so that it is selected when a
+     * message can be received. Afterwards, the MessageTransfer no longer blocks
+     * and messages must be received with receiveAvailableMessage.
+     *
+     * @param selector the Selector to register with
+     * @param attachment an object attached to the SelectionKey, may be null
+     * @return the SelectionKey representing the registration
+     * @throws IOException if the channel could not be registered
+     */
+    public SelectionKey register(Selector selector, Object attachment) throws IOException {
+        return reliableChannel.register(selector, attachment);
     }
 
     /**
      * Sends a message from this object's socket to the socket corresponding to the
-     * packet's destination.
+     * packet's destination. The message is retransmitted until it is acknowledged.
      *
      * @param packet a DatagramPacket containing data to be sent
      */
     public void sendMessage(DatagramPacket packet) {
         try {
-            socket.send(packet);
+            reliableChannel.send(ByteBuffer.wrap(packet.getData(), packet.getOffset(), packet.getLength()), packet.getSocketAddress());
         } catch (IOException e) {
-            System.err.print("Send error");
-            e.printStackTrace();
-            System.exit(1);
+            if (!channel.isOpen()) {
+                // the system terminated while the message was being sent
+                return;
+            }
+            // the message is retransmitted after the retransmission timeout
+            System.err.println(Thread.currentThread().getName() + " send error: " + e);
         }
     }
 
@@ -63,21 +154,76 @@ public class MessageTransfer {
      * Receives a message from a socket and transfers it to the socket associated
      * with the packet's specified port.
      *
-     * @return the DatagramPacket containing data received from the DatagramSocket
+     * @return the DatagramPacket containing data received from the DatagramSocket,
+     * null if the receive timeout expired or the socket was closed
      */
     public DatagramPacket receiveMessage() {
-        byte[] data = new byte[MAX_BYTE_ARRAY_SIZE];
-        DatagramPacket packet = new DatagramPacket(data, data.length);
         // Block until a DatagramPacket is received from a socket
         try {
-            socket.receive(packet);
+            return reliableChannel.receive();
         } catch (IOException e) {
-            System.out.print("IO Exception: likely:");
-            System.out.println("Receive Socket Timed Out.\n" + e);
-            e.printStackTrace();
-            System.exit(1);
+            if (!socket.isClosed()) {
+                // a lost message is retransmitted by its sender, so receiving can continue
+                System.err.println(Thread.currentThread().getName() + " receive error: " + e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Receives a message and reads it from the buffer it was received into,
+     * without copying it. The buffer is reused once the message is read.
+     *
+     * @param reader reads the message and its sender, and must not keep the buffer
+     * @param <T> the type of object read from the message, which must not be null
+     * @return the object read from the message, null if the receive timeout expired or the socket was closed
+     */
+    public <T> T receiveMessage(BiFunction<ByteBuffer, SocketAddress, T> reader) {
+        try {
+            return reliableChannel.receive(reader);
+        } catch (IOException e) {
+            if (!socket.isClosed()) {
+                // a lost message is retransmitted by its sender, so receiving can continue
+                System.err.println(Thread.currentThread().getName() + " receive error: " + e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Receives a message if one is available without blocking. Used once the
+     * MessageTransfer is registered with a Selector.
+     *
+     * @return the DatagramPacket containing the data received, null if no message is available
+     */
+    public DatagramPacket receiveAvailableMessage() {
+        try {
+            return reliableChannel.receiveAvailable();
+        } catch (IOException e) {
+            if (channel.isOpen()) {
+                System.err.println(Thread.currentThread().getName() + " receive error: " + e);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Receives a message if one is available without blocking, and reads it from
+     * the buffer it was received into. Used once the MessageTransfer is registered with a Selector.
+     *
+     * @param reader reads the message and its sender, and must not keep the buffer
+     * @param <T> the type of object read from the message, which must not be null
+     * @return the object read from the message, null if no message is available
+     */
+    public <T> T receiveAvailableMessage(BiFunction<ByteBuffer, SocketAddress, T> reader) {
+        try {
+            return reliableChannel.receiveAvailable(reader);
+        } catch (IOException e) {
+            if (channel.isOpen()) {
+                System.err.println(Thread.currentThread().getName() + " receive error: " + e);
+            }
+            return null;
         }
-        return packet;
     }
 
     /**
@@ -160,17 +306,36 @@ public class MessageTransfer {
      * @return objectBytes the object coded into a byte array.
      */
     public byte[] encodeObject(Object object) {
-        byte[] objectBytes = null;
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            ObjectOutputStream out;
-            out = new ObjectOutputStream(bos);
-            out.writeObject(object);
-            out.flush();
-            objectBytes = bos.toByteArray();
-        } catch (Exception ex) {
-            // ignore exception
+        return messageCodec.encode(object);
+    }
+
+    /**
+     * Returns the number of bytes that an event occupies in a batch frame, without encoding it.
+     *
+     * @param event an event that may be sent in a batch
+     * @return the encoded length of the event within a batch frame
+     */
+    public int batchedLength(SystemEvent event) {
+        return messageCodec.encodedLength(event);
+    }
+
+    /**
+     * Encodes a list of events into as few batch frames as possible. Each frame
+     * fits into a single DatagramPacket.
+     *
+     * @param events the events to encode
+     * @return the byte arrays of the batch frames
+     */
+    public List<byte[]> encodeBatch(List<? extends SystemEvent> events) {
+        List<byte[]> frames = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_BYTE_ARRAY_SIZE);
+        int index = 0;
+        while (index < events.size()) {
+            buffer.clear();
+            index += messageCodec.encodeBatch(events, index, buffer);
+            frames.add(Arrays.copyOf(buffer.array(), buffer.position()));
         }
-        return objectBytes;
+        return frames;
     }
 
     /**
@@ -181,16 +346,30 @@ public class MessageTransfer {
      * @return object the object instance decoded.
      */
     public Object decodeObject(byte[] objectBytes) {
-        Object object = null;
-        ByteArrayInputStream bis = new ByteArrayInputStream(objectBytes);
-        try (ObjectInput in = new ObjectInputStream(bis)) {
-            object = in.readObject();
-        } catch (Exception ex) {
-            // ignore exception
-        }
-        if (object == null) {
-            object = new String(objectBytes);
-        }
-        return object;
+        return decodeObject(objectBytes, 0, objectBytes.length);
+    }
+
+    /**
+     * Decodes the bytes of a received message to its object instance.
+     *
+     * @param objectBytes the byte array containing the message
+     * @param offset the index of the message's first byte
+     * @param length the number of bytes in the message
+     * @return object the object instance decoded
+     * @throws IllegalArgumentException if the bytes do not contain a valid message
+     */
+    public Object decodeObject(byte[] objectBytes, int offset, int length) {
+        return messageCodec.decode(objectBytes, offset, length);
+    }
+
+    /**
+     * Decodes a received message from a buffer, without copying it.
+     *
+     * @param buffer the buffer containing the message, from its position to its limit
+     * @return object the object instance decoded
+     * @throws IllegalArgumentException if the buffer does not contain a valid message
+     */
+    public Object decodeObject(ByteBuffer buffer) {
+        return messageCodec.decode(buffer);
     }
 }
@@ -0,0 +1,895 @@
+package client_server_host;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * ReliableDatagramChannel delivers the datagrams sent over a DatagramChannel exactly once
+ * and in the order they were sent to each peer, even if packets are lost, duplicated or reordered.
+ *
+ * Every datagram sent to a peer is numbered with the next sequence number for that peer and
+ * kept until the peer acknowledges it. A datagram that is not acknowledged within the
+ * retransmission timeout is sent again, and the timeout adapts to the round-trip time measured
+ * for the peer. The datagrams sent to a peer span at most a window of sequence numbers from the
+ * first unacknowledged one, and later datagrams wait until the window opens. A datagram that is never acknowledged is eventually abandoned,
+ * and the peer is told to skip it, so that a peer that stopped responding is not retried forever.
+ *
+ * The receiver acknowledges every datagram with the next sequence number it expects and a
+ * bitmask of the datagrams after it that it already holds. Duplicates are discarded, and
+ * datagrams that arrive early are held until the ones before them arrive.
+ *
+ * Each ReliableDatagramChannel numbers its datagrams within a random session, so that a peer
+ * that is restarted on the same port is not mistaken for the previous one. Datagrams of the
+ * previous sessions of a peer that arrive late are discarded.
+ *
+ * The DatagramChannel is kept in non-blocking mode, so any thread can process the datagrams
+ * that arrived. Acknowledgements are processed by the threads that receive messages, or by
+ * the retransmission timer while no thread is receiving, so that a peer that only sends does
+ * not stall once its window is full.
+ *
+ * Datagrams are received into buffers taken from a BufferPool. A message that arrives in order
+ * stays in the buffer it was received into until a reader decodes it, and the buffer then
+ * returns to the pool, so that receiving allocates nothing once the pool holds enough buffers.
+ *
+ * @author Liam Tripp, Julian
+ */
+public class ReliableDatagramChannel {
+
+    // packet kinds
+    private static final byte DATA = 1;
+    private static final byte ACKNOWLEDGEMENT = 2;
+
+    /**
+     * The number of bytes that precede the message in a data packet: the kind, the session,
+     * the sequence number and the lowest sequence number that the sender still retransmits.
+     */
+    public static final int HEADER_LENGTH = 13;
+    // the kind, the session being acknowledged, the next sequence number expected and the bitmask
+    private static final int ACKNOWLEDGEMENT_LENGTH = 13;
+
+    // maximum number of unacknowledged datagrams per peer, one per bit of an acknowledgement's bitmask
+    private static final int WINDOW_SIZE = 32;
+    // retransmission timeouts in milliseconds
+    private static final long INITIAL_RETRANSMISSION_TIMEOUT = 100;
+    private static final long MIN_RETRANSMISSION_TIMEOUT = 20;
+    private static final long MAX_RETRANSMISSION_TIMEOUT = 1000;
+    // number of times a datagram is sent before it is abandoned
+    private static final int MAX_TRANSMISSIONS = 20;
+    // time between checks for datagrams to retransmit
+    private static final long TIMER_PERIOD = 10; // milliseconds
+    // maximum time that closing waits for the sent datagrams to be acknowledged
+    private static final long CLOSE_LINGER_TIME = 200; // milliseconds
+    // number of previous sessions of a peer whose delayed datagrams are recognized and discarded
+    private static final int MAX_RETIRED_SESSIONS = 4;
+    // maximum number of received buffers kept for reuse, enough for a full window and the messages waiting to be read
+    private static final int MAX_POOLED_BUFFERS = 2 * WINDOW_SIZE;
+
+    // one thread retransmits for every ReliableDatagramChannel
+    private static final ScheduledExecutorService RETRANSMISSION_TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Retransmission Timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final DatagramChannel channel;
+    // selects the DatagramChannel while a thread blocks in receive
+    private final Selector readSelector;
+    private final int session;
+    private final int maxMessageLength;
+    private final Map<SocketAddress, Sender> senders;
+    // only accessed while holding the ReliableDatagramChannel's lock
+    private final Map<SocketAddress, Receiver> receivers;
+    private final BufferPool bufferPool;
+    // messages received in order and their senders, only accessed while holding the ReliableDatagramChannel's lock
+    private final Queue<ByteBuffer> deliverableMessages;
+    private final Queue<SocketAddress> deliverableSenders;
+    // reused for every acknowledgement, only accessed while holding the ReliableDatagramChannel's lock
+    private final ByteBuffer acknowledgement;
+    // set by open once the ReliableDatagramChannel is constructed
+    private ScheduledFuture<?> retransmissionTask;
+    private final AtomicLong retransmissions;
+    private final AtomicLong duplicates;
+    // number of threads blocked in receive
+    private final AtomicInteger receivingThreads;
+    private volatile boolean registered;
+    private volatile int receiveTimeout;
+
+    /**
+     * Opens a ReliableDatagramChannel that receives into heap buffers.
+     *
+     * @param channel a bound DatagramChannel that is only used through the ReliableDatagramChannel
+     * @param maxMessageLength the maximum number of bytes in a message
+     * @return the ReliableDatagramChannel, whose retransmission timer is running
+     * @throws IOException if the DatagramChannel could not be put in non-blocking mode
+     */
+    public static ReliableDatagramChannel open(DatagramChannel channel, int maxMessageLength) throws IOException {
+        return open(channel, maxMessageLength, false);
+    }
+
+    /**
+     * Opens a ReliableDatagramChannel. The retransmission timer is only given the
+     * ReliableDatagramChannel once it is fully constructed.
+     *
+     * @param channel a bound DatagramChannel that is only used through the ReliableDatagramChannel
+     * @param maxMessageLength the maximum number of bytes in a message
+     * @param directBuffers true to receive into direct buffers, false to receive into heap buffers
+     * @return the ReliableDatagramChannel, whose retransmission timer is running
+     * @throws IOException if the DatagramChannel could not be put in non-blocking mode
+     */
+    public static ReliableDatagramChannel open(DatagramChannel channel, int maxMessageLength, boolean directBuffers) throws IOException {
+        ReliableDatagramChannel reliableChannel = new ReliableDatagramChannel(channel, maxMessageLength, directBuffers);
+        reliableChannel.retransmissionTask = RETRANSMISSION_TIMER.scheduleAtFixedRate(reliableChannel::retransmitExpiredDatagrams,
+                TIMER_PERIOD, TIMER_PERIOD, TimeUnit.MILLISECONDS);
+        return reliableChannel;
+    }
+
+    /**
+     * Constructor for ReliableDatagramChannel.
+     *
+     * @param channel a bound DatagramChannel that is only used through the ReliableDatagramChannel
+     * @param maxMessageLength the maximum number of bytes in a message
+     * @param directBuffers true to receive into direct buffers, false to receive into heap buffers
+     * @throws IOException if the DatagramChannel could not be put in non-blocking mode
+     */
+    private ReliableDatagramChannel(DatagramChannel channel, int maxMessageLength, boolean directBuffers) throws IOException {
+        this.channel = channel;
+        channel.configureBlocking(false);
+        readSelector = Selector.open();
+        channel.register(readSelector, SelectionKey.OP_READ);
+        session = ThreadLocalRandom.current().nextInt();
+        this.maxMessageLength = maxMessageLength;
+        senders = new ConcurrentHashMap<>();
+        receivers = new HashMap<>();
+        bufferPool = new BufferPool(HEADER_LENGTH + maxMessageLength, directBuffers, MAX_POOLED_BUFFERS);
+        deliverableMessages = new ArrayDeque<>();
+        deliverableSenders = new ArrayDeque<>();
+        acknowledgement = ByteBuffer.allocate(ACKNOWLEDGEMENT_LENGTH);
+        retransmissions = new AtomicLong();
+        duplicates = new AtomicLong();
+        receivingThreads = new AtomicInteger();
+        registered = false;
+        receiveTimeout = 0;
+    }
+
+    /**
+     * Sets the maximum time that receive blocks for. A timeout of zero
+     * blocks until a message is received.
+     *
+     * @param timeout the maximum time to wait for a message in milliseconds
+     */
+    public void setReceiveTimeout(int timeout) {
+        receiveTimeout = timeout;
+    }
+
+    /**
+     * Sends a message to a peer. The message is retransmitted until the peer acknowledges it,
+     * so it is sent even if the first transmission fails.
+     *
+     * @param message the bytes of the message, from the buffer's position to its limit
+     * @param peer the address of the peer
+     * @throws IOException if the first transmission failed
+     */
+    public void send(ByteBuffer message, SocketAddress peer) throws IOException {
+        if (message.remaining() > maxMessageLength) {
+            throw new IllegalArgumentException("Error: The message exceeds " + maxMessageLength + " bytes.");
+        }
+        byte[] datagram = new byte[HEADER_LENGTH + message.remaining()];
+        message.get(datagram, HEADER_LENGTH, message.remaining());
+        senders.computeIfAbsent(peer, Sender::new).send(datagram);
+    }
+
+    /**
+     * Registers the DatagramChannel with a Selector so that it is selected when a
+     * datagram can be received. Messages are then received with receiveAvailable,
+     * which also processes the acknowledgements.
+     *
+     * @param selector the Selector to register with
+     * @param attachment an object attached to the SelectionKey, may be null
+     * @return the SelectionKey representing the registration
+     * @throws IOException if the DatagramChannel could not be registered
+     */
+    public SelectionKey register(Selector selector, Object attachment) throws IOException {
+        // the retransmission timer must not take the datagrams that the Selector reports
+        registered = true;
+        return channel.register(selector, SelectionKey.OP_READ, attachment);
+    }
+
+    /**
+     * Receives the next message, blocking for up to the receive timeout.
+     * Acknowledgements and duplicates are processed without being returned.
+     *
+     * @return a DatagramPacket containing a copy of the message and its sender, null if the receive timeout expired
+     * @throws IOException if the message could not be received
+     */
+    public DatagramPacket receive() throws IOException {
+        return receive(ReliableDatagramChannel::copyToPacket);
+    }
+
+    /**
+     * Receives the next message and reads it where it was received, blocking for up to
+     * the receive timeout. Acknowledgements and duplicates are processed without being read.
+     *
+     * @param reader reads the message from a buffer that contains only the message, and must not keep the buffer
+     * @param <T> the type of object read from the message, which must not be null
+     * @return the object read from the message, null if the receive timeout expired
+     * @throws IOException if the message could not be received
+     */
+    public <T> T receive(BiFunction<ByteBuffer, SocketAddress, T> reader) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(receiveTimeout);
+        receivingThreads.incrementAndGet();
+        try {
+            while (true) {
+                T message = receiveAvailable(reader);
+                if (message != null) {
+                    return message;
+                }
+                long remainingTime = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (receiveTimeout > 0 && remainingTime <= 0) {
+                    return null;
+                }
+                // acknowledgements do not extend the time spent waiting for a message
+                readSelector.select(receiveTimeout > 0 ? remainingTime : 0);
+                readSelector.selectedKeys().clear();
+            }
+        } catch (ClosedSelectorException cse) {
+            throw new ClosedChannelException();
+        } finally {
+            receivingThreads.decrementAndGet();
+        }
+    }
+
+    /**
+     * Receives the next message if one is available without blocking.
+     *
+     * @return a DatagramPacket containing a copy of the message and its sender, null if no message is available
+     * @throws IOException if the message could not be received
+     */
+    public DatagramPacket receiveAvailable() throws IOException {
+        return receiveAvailable(ReliableDatagramChannel::copyToPacket);
+    }
+
+    /**
+     * Receives the next message and reads it where it was received, if one is available without blocking.
+     * The buffer containing the message returns to the pool once it is read.
+     *
+     * @param reader reads the message from a buffer that contains only the message, and must not keep the buffer
+     * @param <T> the type of object read from the message, which must not be null
+     * @return the object read from the message, null if no message is available
+     * @throws IOException if the message could not be received
+     */
+    public <T> T receiveAvailable(BiFunction<ByteBuffer, SocketAddress, T> reader) throws IOException {
+        while (true) {
+            ByteBuffer message;
+            SocketAddress sender;
+            synchronized (this) {
+                message = deliverableMessages.poll();
+                sender = deliverableSenders.poll();
+            }
+            if (message != null) {
+                try {
+                    return reader.apply(message, sender);
+                } finally {
+                    bufferPool.release(message);
+                }
+            }
+            if (!processNextDatagram()) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Waits briefly for the peers to acknowledge the sent datagrams, then stops
+     * retransmitting and closes the DatagramChannel. Messages received while
+     * closing are not delivered.
+     */
+    public void close() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(CLOSE_LINGER_TIME);
+        try {
+            while (channel.isOpen() && hasUnacknowledgedDatagrams() && System.nanoTime() < deadline) {
+                if (!processNextDatagram()) {
+                    readSelector.select(TIMER_PERIOD);
+                    readSelector.selectedKeys().clear();
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            // the peers are no longer reachable
+        }
+        retransmissionTask.cancel(false);
+        try {
+            channel.close();
+            readSelector.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Receives a datagram into a buffer from the pool without blocking and processes it.
+     * The buffer returns to the pool unless it holds a message waiting to be read.
+     *
+     * @return true if a datagram was processed, false if none was available
+     * @throws IOException if the datagram could not be received
+     */
+    private boolean processNextDatagram() throws IOException {
+        ByteBuffer buffer = bufferPool.acquire();
+        boolean bufferKept = false;
+        try {
+            SocketAddress address = channel.receive(buffer);
+            if (address == null) {
+                return false;
+            }
+            buffer.flip();
+            bufferKept = processDatagram(buffer, address);
+            return true;
+        } finally {
+            if (!bufferKept) {
+                bufferPool.release(buffer);
+            }
+        }
+    }
+
+    /**
+     * Copies a message into a DatagramPacket, for readers that keep the message.
+     *
+     * @param message the buffer containing the message
+     * @param sender the address of the sender
+     * @return a DatagramPacket containing a copy of the message
+     */
+    private static DatagramPacket copyToPacket(ByteBuffer message, SocketAddress sender) {
+        byte[] bytes = new byte[message.remaining()];
+        message.get(bytes);
+        return new DatagramPacket(bytes, bytes.length, sender);
+    }
+
+    /**
+     * Returns the number of datagrams that were sent again because they were not acknowledged in time.
+     *
+     * @return the number of retransmissions
+     */
+    public long getRetransmissionCount() {
+        return retransmissions.get();
+    }
+
+    /**
+     * Returns the number of received datagrams that were discarded because they had already been received.
+     *
+     * @return the number of duplicates
+     */
+    public long getDuplicateCount() {
+        return duplicates.get();
+    }
+
+    /**
+     * Determines whether any sent datagram has not been acknowledged yet.
+     *
+     * @return true if a datagram is waiting for an acknowledgement, false otherwise
+     */
+    private boolean hasUnacknowledgedDatagrams() {
+        for (Sender sender : senders.values()) {
+            if (!sender.isIdle()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines whether a message is waiting to be received.
+     *
+     * @return true if a message can be delivered, false otherwise
+     */
+    private synchronized boolean hasDeliverableMessages() {
+        return !deliverableMessages.isEmpty();
+    }
+
+    /**
+     * Queues a message that was received in order to be read.
+     * Must be called while holding the ReliableDatagramChannel's lock.
+     *
+     * @param message the buffer containing the message
+     * @param sender the address of the sender
+     */
+    private void deliver(ByteBuffer message, SocketAddress sender) {
+        deliverableMessages.add(message);
+        deliverableSenders.add(sender);
+    }
+
+    /**
+     * Processes a received data packet or acknowledgement. Packets that are too short
+     * or of an unknown kind are discarded.
+     *
+     * @param buffer the bytes of the packet
+     * @param address the address of the sender
+     * @return true if the buffer holds a message waiting to be read, false if it can be reused
+     * @throws IOException if an acknowledgement could not be sent
+     */
+    private boolean processDatagram(ByteBuffer buffer, SocketAddress address) throws IOException {
+        if (buffer.remaining() >= HEADER_LENGTH && buffer.get(buffer.position()) == DATA) {
+            return receiveData(buffer, address);
+        } else if (buffer.remaining() >= ACKNOWLEDGEMENT_LENGTH && buffer.get(buffer.position()) == ACKNOWLEDGEMENT) {
+            buffer.get();
+            Sender sender = senders.get(address);
+            int acknowledgedSession = buffer.getInt();
+            if (sender != null && acknowledgedSession == session) {
+                sender.acknowledge(buffer.getInt(), buffer.getInt());
+            }
+        } else {
+            System.err.println(Thread.currentThread().getName() + " discarded a packet: Error: Unknown packet kind.");
+        }
+        return false;
+    }
+
+    /**
+     * Receives a data packet, queues the messages that are now in order
+     * and acknowledges the packet.
+     *
+     * @param buffer the bytes of the data packet, which are kept if the message is new
+     * @param address the address of the sender
+     * @return true if the buffer holds a new message, false if the message was a duplicate
+     * @throws IOException if the acknowledgement could not be sent
+     */
+    private boolean receiveData(ByteBuffer buffer, SocketAddress address) throws IOException {
+        buffer.get();
+        int peerSession = buffer.getInt();
+        int sequenceNumber = buffer.getInt();
+        int baseSequenceNumber = buffer.getInt();
+        // the buffer now contains only the message
+
+        synchronized (this) {
+            Receiver receiver = receivers.get(address);
+            if (receiver == null) {
+                receiver = new Receiver(peerSession, baseSequenceNumber, null);
+                receivers.put(address, receiver);
+            } else if (receiver.session != peerSession) {
+                if (receiver.isRetired(peerSession)) {
+                    // a delayed or duplicated datagram of a previous session, whose sender no longer waits for it
+                    duplicates.incrementAndGet();
+                    return false;
+                }
+                // a peer that was restarted on the same port
+                receiver = new Receiver(peerSession, baseSequenceNumber, receiver);
+                receivers.put(address, receiver);
+            }
+            boolean newMessage = receiver.receive(sequenceNumber, baseSequenceNumber, buffer, address);
+            if (!newMessage) {
+                duplicates.incrementAndGet();
+            }
+            acknowledgement.clear();
+            acknowledgement.put(ACKNOWLEDGEMENT);
+            acknowledgement.putInt(peerSession);
+            acknowledgement.putInt(receiver.nextSequenceNumber);
+            acknowledgement.putInt(receiver.heldBitmask());
+            channel.send(acknowledgement.flip(), address);
+            return newMessage;
+        }
+    }
+
+    /**
+     * Sends the datagrams whose retransmission timeout expired again.
+     * Runs periodically on the retransmission timer.
+     */
+    private void retransmitExpiredDatagrams() {
+        if (!registered && receivingThreads.get() == 0 && hasUnacknowledgedDatagrams()) {
+            processAvailableDatagrams();
+        }
+        long now = System.nanoTime();
+        for (Sender sender : senders.values()) {
+            try {
+                sender.retransmitExpired(now);
+            } catch (IOException e) {
+                if (!channel.isOpen()) {
+                    return;
+                }
+                // the datagram is sent again after the next timeout
+            }
+        }
+    }
+
+    /**
+     * Processes the acknowledgements that arrived while no thread was receiving. Messages that
+     * arrive with them are kept for the next receive, and a thread that started to wait for
+     * them in the meantime is woken up.
+     */
+    private void processAvailableDatagrams() {
+        try {
+            while (processNextDatagram()) {
+                // keep processing until no datagram is available
+            }
+        } catch (IOException e) {
+            // the datagrams are processed again after the next timer period
+        }
+        if (hasDeliverableMessages()) {
+            readSelector.wakeup();
+        }
+    }
+
+    /**
+     * Sender keeps the datagrams sent to one peer until they are acknowledged.
+     */
+    private class Sender {
+
+        private final SocketAddress peer;
+        private int nextSequenceNumber;
+        // unacknowledged datagrams in the order they were sent, keyed by sequence number
+        private final TreeMap<Integer, Transmission> unacknowledged;
+        // datagrams that wait for the window to open
+        private final Queue<byte[]> waiting;
+        // round-trip time estimates in nanoseconds, negative until the first measurement
+        private long smoothedRoundTripTime;
+        private long roundTripTimeVariation;
+        private long retransmissionTimeout;
+        // number of times the retransmission timeout was doubled since the last acknowledgement
+        private int backoffs;
+
+        /**
+         * Constructor for Sender.
+         *
+         * @param peer the address of the peer
+         */
+        Sender(SocketAddress peer) {
+            this.peer = peer;
+            nextSequenceNumber = 0;
+            unacknowledged = new TreeMap<>();
+            waiting = new ArrayDeque<>();
+            smoothedRoundTripTime = -1;
+            retransmissionTimeout = TimeUnit.MILLISECONDS.toNanos(INITIAL_RETRANSMISSION_TIMEOUT);
+            backoffs = 0;
+        }
+
+        /**
+         * Sends a datagram now if the window is open, or once it opens.
+         *
+         * @param datagram the datagram, with space for the header before the message
+         * @throws IOException if the datagram could not be transmitted
+         */
+        synchronized void send(byte[] datagram) throws IOException {
+            if (isWindowOpen() && waiting.isEmpty()) {
+                transmitNew(datagram);
+            } else {
+                waiting.add(datagram);
+            }
+        }
+
+        /**
+         * Determines whether every datagram sent to the peer has been acknowledged.
+         *
+         * @return true if no datagram is unacknowledged or waiting, false otherwise
+         */
+        synchronized boolean isIdle() {
+            return unacknowledged.isEmpty() && waiting.isEmpty();
+        }
+
+        /**
+         * Removes the datagrams that the peer acknowledged and sends waiting datagrams
+         * into the space this opens in the window. The peer responded, so the
+         * retransmission timeout is no longer backed off. Unacknowledged datagrams that were
+         * sent well before an acknowledged one are taken as lost and sent again without
+         * waiting for their timeout.
+         *
+         * @param nextExpected the next sequence number that the peer expects
+         * @param heldBitmask bit i is set if the peer holds sequence number nextExpected + 1 + i
+         * @throws IOException if a waiting datagram could not be transmitted
+         */
+        synchronized void acknowledge(int nextExpected, int heldBitmask) throws IOException {
+            long now = System.nanoTime();
+            Transmission latestAcknowledged = null;
+            Iterator<Transmission> iterator = unacknowledged.headMap(nextExpected).values().iterator();
+            while (iterator.hasNext()) {
+                latestAcknowledged = later(latestAcknowledged, iterator.next());
+                iterator.remove();
+            }
+            for (int i = 0; heldBitmask != 0 && i < WINDOW_SIZE; i++) {
+                if ((heldBitmask & (1 << i)) != 0) {
+                    latestAcknowledged = later(latestAcknowledged, unacknowledged.remove(nextExpected + 1 + i));
+                }
+            }
+            if (latestAcknowledged == null) {
+                return;
+            }
+            backoffs = 0;
+            measureRoundTripTime(latestAcknowledged, now);
+            // datagrams may be reordered by up to a quarter of the round-trip time before they are taken as lost
+            long reorderingWindow = Math.max(smoothedRoundTripTime, 0) / 4;
+            for (Transmission transmission : unacknowledged.values()) {
+                if (latestAcknowledged.sentTime - transmission.sentTime > reorderingWindow) {
+                    retransmissions.incrementAndGet();
+                    transmit(transmission, now);
+                }
+            }
+            while (isWindowOpen() && !waiting.isEmpty()) {
+                transmitNew(waiting.poll());
+            }
+        }
+
+        /**
+         * Returns the acknowledged datagram that was sent last.
+         *
+         * @param latest the acknowledged datagram that was sent last so far, null if there is none
+         * @param transmission an acknowledged datagram, null if it was already acknowledged
+         * @return the datagram that was sent last
+         */
+        private Transmission later(Transmission latest, Transmission transmission) {
+            if (transmission == null || (latest != null && latest.sentTime - transmission.sentTime > 0)) {
+                return latest;
+            }
+            return transmission;
+        }
+
+        /**
+         * Sends the datagrams whose retransmission timeout expired again, doubling the timeout.
+         * Datagrams sent too many times are abandoned.
+         *
+         * @param now the current time in nanoseconds
+         * @throws IOException if a datagram could not be transmitted
+         */
+        synchronized void retransmitExpired(long now) throws IOException {
+            List<Transmission> abandoned = new ArrayList<>();
+            boolean timedOut = false;
+            for (Transmission transmission : unacknowledged.values()) {
+                if (now - transmission.deadline < 0) {
+                    continue;
+                }
+                if (transmission.transmissions >= MAX_TRANSMISSIONS) {
+                    abandoned.add(transmission);
+                    continue;
+                }
+                if (!timedOut) {
+                    // back off once per timeout, not once per datagram
+                    if (currentTimeout() < TimeUnit.MILLISECONDS.toNanos(MAX_RETRANSMISSION_TIMEOUT)) {
+                        backoffs++;
+                    }
+                    timedOut = true;
+                }
+                retransmissions.incrementAndGet();
+                transmit(transmission, now);
+            }
+            for (Transmission transmission : abandoned) {
+                unacknowledged.remove(transmission.sequenceNumber);
+                System.err.println("Error: " + peer + " did not acknowledge datagram " +
+                        transmission.sequenceNumber + ". It was abandoned.");
+            }
+            while (isWindowOpen() && !waiting.isEmpty()) {
+                transmitNew(waiting.poll());
+            }
+        }
+
+        /**
+         * Determines whether another datagram can be sent. The window spans the sequence numbers
+         * from the first unacknowledged datagram, not the number of unacknowledged datagrams,
+         * because the peer discards datagrams more than a window past the next one it expects,
+         * even if the datagrams in between were acknowledged.
+         *
+         * @return true if the next sequence number is within a window of the first unacknowledged one, false otherwise
+         */
+        private boolean isWindowOpen() {
+            return unacknowledged.isEmpty() || nextSequenceNumber - unacknowledged.firstKey() < WINDOW_SIZE;
+        }
+
+        /**
+         * Numbers a datagram with the next sequence number and transmits it.
+         *
+         * @param datagram the datagram to transmit
+         * @throws IOException if the datagram could not be transmitted
+         */
+        private void transmitNew(byte[] datagram) throws IOException {
+            Transmission transmission = new Transmission(nextSequenceNumber++, datagram);
+            unacknowledged.put(transmission.sequenceNumber, transmission);
+            transmit(transmission, System.nanoTime());
+        }
+
+        /**
+         * Writes the header of a datagram and transmits it.
+         *
+         * @param transmission the datagram to transmit
+         * @param now the current time in nanoseconds
+         * @throws IOException if the datagram could not be transmitted
+         */
+        private void transmit(Transmission transmission, long now) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(transmission.datagram);
+            buffer.put(DATA);
+            buffer.putInt(session);
+            buffer.putInt(transmission.sequenceNumber);
+            // the peer skips the datagrams before the first unacknowledged one, which were abandoned
+            buffer.putInt(unacknowledged.firstKey());
+            buffer.rewind();
+            transmission.transmissions++;
+            transmission.sentTime = now;
+            transmission.deadline = now + currentTimeout();
+            channel.send(buffer, peer);
+        }
+
+        /**
+         * Returns the retransmission timeout, doubled for every timeout since the peer last responded.
+         *
+         * @return the retransmission timeout in nanoseconds
+         */
+        private long currentTimeout() {
+            return Math.min(retransmissionTimeout << backoffs, TimeUnit.MILLISECONDS.toNanos(MAX_RETRANSMISSION_TIMEOUT));
+        }
+
+        /**
+         * Updates the round-trip time estimates and the retransmission timeout with an
+         * acknowledged datagram. Retransmitted datagrams are not measured, because it is
+         * unknown which transmission was acknowledged.
+         *
+         * @param transmission the acknowledged datagram
+         * @param now the current time in nanoseconds
+         */
+        private void measureRoundTripTime(Transmission transmission, long now) {
+            if (transmission.transmissions > 1) {
+                return;
+            }
+            long roundTripTime = now - transmission.sentTime;
+            if (smoothedRoundTripTime < 0) {
+                smoothedRoundTripTime = roundTripTime;
+                roundTripTimeVariation = roundTripTime / 2;
+            } else {
+                roundTripTimeVariation = (3 * roundTripTimeVariation + Math.abs(smoothedRoundTripTime - roundTripTime)) / 4;
+                smoothedRoundTripTime = (7 * smoothedRoundTripTime + roundTripTime) / 8;
+            }
+            long timeout = smoothedRoundTripTime + 4 * roundTripTimeVariation;
+            retransmissionTimeout = Math.max(TimeUnit.MILLISECONDS.toNanos(MIN_RETRANSMISSION_TIMEOUT),
+                    Math.min(timeout, TimeUnit.MILLISECONDS.toNanos(MAX_RETRANSMISSION_TIMEOUT)));
+        }
+    }
+
+    /**
+     * Transmission is a datagram waiting to be acknowledged.
+     */
+    private static class Transmission {
+
+        private final int sequenceNumber;
+        private final byte[] datagram;
+        private int transmissions;
+        private long sentTime;
+        private long deadline;
+
+        /**
+         * Constructor for Transmission.
+         *
+         * @param sequenceNumber the sequence number of the datagram
+         * @param datagram the datagram, with space for the header before the message
+         */
+        Transmission(int sequenceNumber, byte[] datagram) {
+            this.sequenceNumber = sequenceNumber;
+            this.datagram = datagram;
+            transmissions = 0;
+        }
+    }
+
+    /**
+     * Receiver tracks the datagrams received from one session of a peer.
+     * Only accessed while holding the ReliableDatagramChannel's lock.
+     */
+    private class Receiver {
+
+        private final int session;
+        private int nextSequenceNumber;
+        // datagrams that arrived before the ones preceding them, keyed by sequence number
+        private final TreeMap<Integer, ByteBuffer> held;
+        // the most recent previous sessions of the peer, oldest first
+        private final Queue<Integer> retiredSessions;
+
+        /**
+         * Constructor for Receiver.
+         *
+         * @param session the session of the peer
+         * @param firstSequenceNumber the first sequence number to expect
+         * @param previous the Receiver of the peer's previous session, null if there is none
+         */
+        Receiver(int session, int firstSequenceNumber, Receiver previous) {
+            this.session = session;
+            nextSequenceNumber = firstSequenceNumber;
+            held = new TreeMap<>();
+            retiredSessions = new ArrayDeque<>();
+            if (previous != null) {
+                retiredSessions.addAll(previous.retiredSessions);
+                retiredSessions.add(previous.session);
+                if (retiredSessions.size() > MAX_RETIRED_SESSIONS) {
+                    retiredSessions.poll();
+                }
+            }
+        }
+
+        /**
+         * Determines whether a session is a previous session of the peer.
+         *
+         * @param peerSession the session of a received datagram
+         * @return true if the peer used the session before its current one, false otherwise
+         */
+        boolean isRetired(int peerSession) {
+            return retiredSessions.contains(peerSession);
+        }
+
+        /**
+         * Receives a datagram and queues the messages that are now in order to be delivered.
+         *
+         * @param sequenceNumber the sequence number of the datagram
+         * @param baseSequenceNumber the lowest sequence number the peer still retransmits
+         * @param message the buffer containing the message of the datagram
+         * @param address the address of the peer
+         * @return true if the datagram was new, false if it was a duplicate
+         */
+        boolean receive(int sequenceNumber, int baseSequenceNumber, ByteBuffer message, SocketAddress address) {
+            if (baseSequenceNumber - nextSequenceNumber > 0) {
+                // the peer abandoned the datagrams before its base, so they are skipped
+                deliverHeld(baseSequenceNumber, address);
+            }
+            if (sequenceNumber == nextSequenceNumber && held.isEmpty()) {
+                // the usual case, a datagram that arrived in order is delivered without being held
+                deliver(message, address);
+                nextSequenceNumber++;
+                return true;
+            }
+            if (sequenceNumber - nextSequenceNumber < 0 || sequenceNumber - nextSequenceNumber >= WINDOW_SIZE ||
+                    held.containsKey(sequenceNumber)) {
+                return false;
+            }
+            held.put(sequenceNumber, message);
+            deliverHeld(nextSequenceNumber, address);
+            return true;
+        }
+
+        /**
+         * Delivers the held messages before a sequence number and the
+         * consecutive held messages from it, in order.
+         *
+         * @param fromSequenceNumber the sequence number that delivery continues from
+         * @param address the address of the peer
+         */
+        private void deliverHeld(int fromSequenceNumber, SocketAddress address) {
+            Map<Integer, ByteBuffer> skipped = held.headMap(fromSequenceNumber);
+            for (ByteBuffer message : skipped.values()) {
+                deliver(message, address);
+            }
+            skipped.clear();
+            nextSequenceNumber = fromSequenceNumber;
+            ByteBuffer message;
+            while ((message = held.remove(nextSequenceNumber)) != null) {
+                deliver(message, address);
+                nextSequenceNumber++;
+            }
+        }
+
+        /**
+         * Returns the bitmask of the held datagrams after the next expected one.
+         *
+         * @return a bitmask where bit i is set if sequence number nextSequenceNumber + 1 + i is held
+         */
+        int heldBitmask() {
+            int bitmask = 0;
+            for (int sequenceNumber : held.keySet()) {
+                int offset = sequenceNumber - nextSequenceNumber - 1;
+                if (offset >= 0 && offset < WINDOW_SIZE) {
+                    bitmask |= 1 << offset;
+                }
+            }
+            return bitmask;
+        }
+    }
+}
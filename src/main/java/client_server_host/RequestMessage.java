@@ -7,6 +7,7 @@ package client_server_host;
  */
 public enum RequestMessage {
     REQUEST("Request"),
+    SUBSCRIBE("Subscribe"),
     ACKNOWLEDGE("Message Received"),
     EMPTYQUEUE("Queue is empty"),
     LIGHTON("Light is ON"),
@@ -0,0 +1,25 @@
+package client_server_host;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+/**
+ * SelectableTransport is a Transport backed by a channel, so that it can be registered
+ * with a Selector and many Transports can be served by one thread.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public interface SelectableTransport extends Transport {
+
+    /**
+     * Registers the Transport with a Selector so that it is selected when a message can be received.
+     * Messages are then received with receiveAvailable.
+     *
+     * @param selector the Selector to register with
+     * @param attachment an object attached to the SelectionKey, may be null
+     * @return the SelectionKey representing the registration
+     * @throws IOException if the Transport could not be registered
+     */
+    SelectionKey register(Selector selector, Object attachment) throws IOException;
+}
@@ -0,0 +1,129 @@
+package client_server_host;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * SharedMemoryRing is a single-producer single-consumer ring of frames in a memory-mapped file.
+ * The producer and the consumer may be in different processes that map the same file.
+ *
+ * The file starts with the producer's position and the consumer's position, each on its own
+ * cache line, followed by the ring. The positions only increase, and the producer publishes a
+ * frame by advancing its position after writing the frame, so that the consumer never reads
+ * a partly written frame. Each frame is preceded by its length and padded to 8 bytes.
+ * A frame that would not fit before the end of the ring is written at its start instead,
+ * after a padding marker.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class SharedMemoryRing {
+
+    /**
+     * The maximum number of bytes in a frame.
+     */
+    public static final int MAX_FRAME_LENGTH = MessageTransfer.MAX_BYTE_ARRAY_SIZE;
+    // number of bytes in the ring, a power of two
+    private static final int CAPACITY = 1 << 16;
+    private static final int PRODUCER_POSITION_OFFSET = 0;
+    private static final int CONSUMER_POSITION_OFFSET = 64;
+    private static final int RING_OFFSET = 128;
+    // number of bytes of the length that precedes each frame
+    private static final int LENGTH_FIELD = 4;
+    private static final int ALIGNMENT = 8;
+    // length written where the ring continues at its start
+    private static final int PADDING = -1;
+    // accesses the positions with the memory ordering needed between processes
+    private static final VarHandle POSITION = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final MappedByteBuffer mappedBuffer;
+    private final ByteBuffer ring;
+
+    /**
+     * Constructor for SharedMemoryRing. Maps the file of the ring, creating it if it does not exist.
+     *
+     * @param file the file of the ring
+     * @throws IOException if the file could not be mapped
+     */
+    public SharedMemoryRing(Path file) throws IOException {
+        // the mapping remains valid after the channel is closed
+        try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            mappedBuffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, RING_OFFSET + CAPACITY);
+        }
+        ring = mappedBuffer.slice(RING_OFFSET, CAPACITY);
+    }
+
+    /**
+     * Writes a frame if there is space for a frame of the maximum length.
+     * Must only be called by the producer.
+     *
+     * @param frameWriter writes the frame to a buffer positioned at zero, leaving the position after the frame
+     * @return true if the frame was written, false if the ring is full
+     */
+    public boolean offer(Consumer<ByteBuffer> frameWriter) {
+        long producerPosition = (long) POSITION.getOpaque(mappedBuffer, PRODUCER_POSITION_OFFSET);
+        long consumerPosition = (long) POSITION.getAcquire(mappedBuffer, CONSUMER_POSITION_OFFSET);
+        int index = (int) (producerPosition & (CAPACITY - 1));
+        int padding = CAPACITY - index < LENGTH_FIELD + MAX_FRAME_LENGTH ? CAPACITY - index : 0;
+        if (CAPACITY - (producerPosition - consumerPosition) < padding + align(LENGTH_FIELD + MAX_FRAME_LENGTH)) {
+            return false;
+        }
+        if (padding > 0) {
+            ring.putInt(index, PADDING);
+            index = 0;
+        }
+        ByteBuffer frame = ring.slice(index + LENGTH_FIELD, MAX_FRAME_LENGTH);
+        frameWriter.accept(frame);
+        ring.putInt(index, frame.position());
+        POSITION.setRelease(mappedBuffer, PRODUCER_POSITION_OFFSET,
+                producerPosition + padding + align(LENGTH_FIELD + frame.position()));
+        return true;
+    }
+
+    /**
+     * Reads the next frame if one was written. Must only be called by the consumer.
+     *
+     * @param frameReader reads the frame from a buffer that contains only the frame
+     * @param <T> the type of object read from the frame
+     * @return the object read from the frame, null if the ring is empty
+     */
+    public <T> T poll(Function<ByteBuffer, T> frameReader) {
+        long consumerPosition = (long) POSITION.getOpaque(mappedBuffer, CONSUMER_POSITION_OFFSET);
+        long producerPosition = (long) POSITION.getAcquire(mappedBuffer, PRODUCER_POSITION_OFFSET);
+        if (consumerPosition == producerPosition) {
+            return null;
+        }
+        int index = (int) (consumerPosition & (CAPACITY - 1));
+        int length = ring.getInt(index);
+        if (length == PADDING) {
+            consumerPosition += CAPACITY - index;
+            index = 0;
+            length = ring.getInt(index);
+        }
+        try {
+            return frameReader.apply(ring.slice(index + LENGTH_FIELD, length));
+        } finally {
+            // the frame is released even if it could not be read
+            POSITION.setRelease(mappedBuffer, CONSUMER_POSITION_OFFSET, consumerPosition + align(LENGTH_FIELD + length));
+        }
+    }
+
+    /**
+     * Rounds a number of bytes up to the alignment of the frames.
+     *
+     * @param length a number of bytes
+     * @return the smallest multiple of the alignment that is at least the length
+     */
+    private static int align(int length) {
+        return (length + ALIGNMENT - 1) & -ALIGNMENT;
+    }
+}
@@ -0,0 +1,323 @@
+package client_server_host;
+
+import requests.SystemEvent;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * SharedMemoryTransport exchanges messages with subsystems in other processes on the same host
+ * through SharedMemoryRings in a shared directory, instead of through the network stack.
+ *
+ * Each direction between two ports has its own ring, named after the sending and the receiving
+ * port, so that each ring has a single producer and a single consumer. Senders create their rings
+ * when they first send to a port, and receivers look for new rings while they wait for messages.
+ * Messages are encoded by the MessageCodec directly into the rings and decoded directly from them.
+ *
+ * A thread waiting for a message or for space in a ring spins briefly if the host has several
+ * processors, then yields, then parks for increasing times, so that a message sent soon is
+ * received within microseconds without keeping a processor busy while the system is idle.
+ *
+ * The rings of a port are deleted when its SharedMemoryTransport is closed. Rings left by
+ * a process that did not close its SharedMemoryTransport must be deleted before the next run.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class SharedMemoryTransport implements Transport {
+
+    /**
+     * The directory of the rings used by the main methods.
+     */
+    public static final Path DEFAULT_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"), "elevator-rings");
+    private static final String RING_SUFFIX = ".ring";
+    // wait strategy: spins, then yields, then parks from the minimum to the maximum park time
+    // spinning on a single processor only delays the thread that would send the message
+    private static final int SPIN_COUNT = Runtime.getRuntime().availableProcessors() > 1 ? 100 : 0;
+    private static final int YIELD_COUNT = 100;
+    private static final long MIN_PARK_TIME = TimeUnit.MICROSECONDS.toNanos(10);
+    private static final long MAX_PARK_TIME = TimeUnit.MILLISECONDS.toNanos(1);
+    // maximum time that send waits for space in a full ring before the message is discarded
+    private static final long SEND_TIMEOUT = TimeUnit.SECONDS.toNanos(1);
+    // time between looks for rings of new senders while waiting
+    private static final long SCAN_PERIOD = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Path directory;
+    private final int portNumber;
+    private final MessageCodec messageCodec;
+    // rings to other ports, keyed by the receiving port
+    private final Map<Integer, SharedMemoryRing> outboundRings;
+    // rings from other ports, keyed by the sending port, only accessed while holding the inbound lock
+    private final Map<Integer, SharedMemoryRing> inboundRings;
+    private final Object inboundLock;
+    private long lastScanTime;
+    private volatile int receiveTimeout;
+    private volatile boolean closed;
+
+    /**
+     * Constructor for SharedMemoryTransport.
+     *
+     * @param directory the directory of the rings, shared by the processes on the host
+     * @param portNumber the port number of the SharedMemoryTransport
+     */
+    public SharedMemoryTransport(Path directory, int portNumber) {
+        if (portNumber <= 0) {
+            throw new IllegalArgumentException("Error: A SharedMemoryTransport requires a port number.");
+        }
+        this.directory = directory;
+        this.portNumber = portNumber;
+        messageCodec = new MessageCodec();
+        outboundRings = new ConcurrentHashMap<>();
+        inboundRings = new HashMap<>();
+        inboundLock = new Object();
+        lastScanTime = System.nanoTime() - SCAN_PERIOD;
+        receiveTimeout = 0;
+        closed = false;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPortNumber() {
+        return portNumber;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setReceiveTimeout(int timeout) {
+        receiveTimeout = timeout;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void send(Object object, InetSocketAddress destination) {
+        SharedMemoryRing ring = outboundRingTo(destination.getPort());
+        if (ring != null) {
+            offer(ring, buffer -> messageCodec.encode(object, buffer));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int sendBatch(List<? extends SystemEvent> events, InetSocketAddress destination) {
+        SharedMemoryRing ring = outboundRingTo(destination.getPort());
+        if (ring == null) {
+            return 0;
+        }
+        int frames = 0;
+        int[] index = {0};
+        while (index[0] < events.size()) {
+            if (!offer(ring, buffer -> index[0] += messageCodec.encodeBatch(events, index[0], buffer))) {
+                break;
+            }
+            frames++;
+        }
+        return frames;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int batchedLength(SystemEvent event) {
+        return messageCodec.encodedLength(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Message receive() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(receiveTimeout);
+        int idleCount = 0;
+        while (!closed) {
+            Message message = receiveAvailable();
+            if (message != null) {
+                return message;
+            }
+            if (receiveTimeout > 0 && System.nanoTime() - deadline >= 0) {
+                return null;
+            }
+            idle(idleCount++);
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Message receiveAvailable() {
+        synchronized (inboundLock) {
+            if (closed) {
+                return null;
+            }
+            for (Map.Entry<Integer, SharedMemoryRing> entry : inboundRings.entrySet()) {
+                Message message = entry.getValue().poll(buffer -> decode(buffer, entry.getKey()));
+                if (message != null) {
+                    return message;
+                }
+            }
+            if (System.nanoTime() - lastScanTime >= SCAN_PERIOD) {
+                scanForInboundRings();
+            }
+            return null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The rings to the SharedMemoryTransport are deleted.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (inboundLock) {
+            scanForInboundRings();
+            for (int senderPort : inboundRings.keySet()) {
+                try {
+                    Files.deleteIfExists(ringFile(senderPort, portNumber));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            inboundRings.clear();
+        }
+    }
+
+    /**
+     * Returns the ring to a port, mapping it when it is first needed.
+     *
+     * @param destinationPort the port to send to
+     * @return the ring to the port, null if it could not be mapped or the SharedMemoryTransport is closed
+     */
+    private SharedMemoryRing outboundRingTo(int destinationPort) {
+        if (closed) {
+            return null;
+        }
+        SharedMemoryRing ring = outboundRings.get(destinationPort);
+        if (ring == null) {
+            try {
+                ring = new SharedMemoryRing(ringFile(portNumber, destinationPort));
+                SharedMemoryRing existingRing = outboundRings.putIfAbsent(destinationPort, ring);
+                if (existingRing != null) {
+                    ring = existingRing;
+                }
+            } catch (IOException e) {
+                System.err.println(Thread.currentThread().getName() + " send error: " + e);
+            }
+        }
+        return ring;
+    }
+
+    /**
+     * Writes a frame to a ring, waiting for space if the ring is full. The threads of
+     * the process that send to the same port take turns, so the ring has one producer.
+     *
+     * @param ring the ring to write to
+     * @param frameWriter writes the frame to the ring's buffer
+     * @return true if the frame was written, false if the ring stayed full and the frame was discarded
+     */
+    private boolean offer(SharedMemoryRing ring, Consumer<ByteBuffer> frameWriter) {
+        synchronized (ring) {
+            long deadline = System.nanoTime() + SEND_TIMEOUT;
+            int idleCount = 0;
+            while (!ring.offer(frameWriter)) {
+                if (closed || System.nanoTime() - deadline >= 0) {
+                    System.err.println(Thread.currentThread().getName() + " send error: Error: The ring is full. The message was discarded.");
+                    return false;
+                }
+                idle(idleCount++);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Maps the rings that other ports created to send to the SharedMemoryTransport since the last scan.
+     */
+    private void scanForInboundRings() {
+        lastScanTime = System.nanoTime();
+        String receiverSuffix = "-" + portNumber + RING_SUFFIX;
+        try (DirectoryStream<Path> ringFiles = Files.newDirectoryStream(directory, "*" + receiverSuffix)) {
+            for (Path ringFile : ringFiles) {
+                String name = ringFile.getFileName().toString();
+                int senderPort = Integer.parseInt(name.substring(0, name.length() - receiverSuffix.length()));
+                if (!inboundRings.containsKey(senderPort)) {
+                    inboundRings.put(senderPort, new SharedMemoryRing(ringFile));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println(Thread.currentThread().getName() + " receive error: " + e);
+        }
+    }
+
+    /**
+     * Decodes a frame into a Message. Frames that do not contain a valid message
+     * are discarded, leaving the Message without content.
+     *
+     * @param buffer the buffer containing the frame
+     * @param senderPort the port that sent the frame
+     * @return the Message
+     */
+    private Message decode(ByteBuffer buffer, int senderPort) {
+        Object content = null;
+        try {
+            content = messageCodec.decode(buffer);
+        } catch (IllegalArgumentException iae) {
+            System.err.println(Thread.currentThread().getName() + " discarded a message: " + iae.getMessage());
+        }
+        return new Message(content, new InetSocketAddress(InetAddress.getLoopbackAddress(), senderPort));
+    }
+
+    /**
+     * Returns the file of the ring from one port to another.
+     *
+     * @param senderPort the port that writes to the ring
+     * @param receiverPort the port that reads from the ring
+     * @return the path of the ring's file
+     */
+    private Path ringFile(int senderPort, int receiverPort) {
+        return directory.resolve(senderPort + "-" + receiverPort + RING_SUFFIX);
+    }
+
+    /**
+     * Waits a little while nothing can be done, longer the more often it has waited.
+     *
+     * @param idleCount the number of times the thread has waited so far
+     */
+    private static void idle(int idleCount) {
+        if (idleCount < SPIN_COUNT) {
+            Thread.onSpinWait();
+        } else if (idleCount < SPIN_COUNT + YIELD_COUNT) {
+            Thread.yield();
+        } else {
+            int parks = Math.min(idleCount - SPIN_COUNT - YIELD_COUNT, 10);
+            LockSupport.parkNanos(Math.min(MIN_PARK_TIME << parks, MAX_PARK_TIME));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package client_server_host;
+
+import requests.SystemEvent;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * Transport sends and receives the messages of a Client or an IntermediateHost.
+ * A message is a SystemEvent, a list of SystemEvents, a Structure or a String.
+ * Each Transport is identified by a port number, which other Transports send to.
+ * Transports that can be registered with a Selector are SelectableTransports.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public interface Transport {
+
+    /**
+     * Returns the port number that other Transports send to in order to reach this one.
+     *
+     * @return the port number of the Transport
+     */
+    int getPortNumber();
+
+    /**
+     * Sets the maximum time that receive blocks for. A timeout of zero
+     * blocks until a message is received.
+     *
+     * @param timeout the maximum time to wait for a message in milliseconds
+     */
+    void setReceiveTimeout(int timeout);
+
+    /**
+     * Sends an object to another Transport. The sender must not change
+     * the object afterwards, since it may be received without being copied.
+     *
+     * @param object the object to send
+     * @param destination the address of the Transport to send to
+     */
+    void send(Object object, InetSocketAddress destination);
+
+    /**
+     * Sends a list of events to another Transport in as few messages as possible.
+     * The receiver receives each message as a list of events.
+     *
+     * @param events the events to send
+     * @param destination the address of the Transport to send to
+     * @return the number of messages sent
+     */
+    int sendBatch(List<? extends SystemEvent> events, InetSocketAddress destination);
+
+    /**
+     * Returns the number of bytes that an event occupies in a batch message.
+     * Batches are collected until they would exceed MessageTransfer.MAX_BYTE_ARRAY_SIZE.
+     *
+     * @param event an event that may be sent in a batch
+     * @return the length of the event within a batch message
+     */
+    int batchedLength(SystemEvent event);
+
+    /**
+     * Receives the next message, blocking for up to the receive timeout.
+     *
+     * @return the message received, null if the receive timeout expired or the Transport was closed
+     */
+    Message receive();
+
+    /**
+     * Receives the next message if one is available without blocking.
+     *
+     * @return the message received, null if no message is available
+     */
+    Message receiveAvailable();
+
+    /**
+     * Stops sending and receiving messages.
+     */
+    void close();
+}
@@ -0,0 +1,151 @@
+package client_server_host;
+
+import requests.SystemEvent;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.List;
+
+/**
+ * UdpTransport sends messages as DatagramPackets through a MessageTransfer,
+ * so that the subsystems can run in separate processes. Received messages are decoded
+ * from the buffers they were received into, which are then reused.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class UdpTransport implements SelectableTransport {
+
+    private final MessageTransfer messageTransfer;
+
+    /**
+     * Constructor for UdpTransport that receives into heap buffers.
+     *
+     * @param portNumber the port number of the DatagramSocket, 0 for any free port
+     */
+    public UdpTransport(int portNumber) {
+        this(portNumber, false);
+    }
+
+    /**
+     * Constructor for UdpTransport.
+     *
+     * @param portNumber the port number of the DatagramSocket, 0 for any free port
+     * @param directBuffers true to receive into direct buffers, false to receive into heap buffers
+     */
+    public UdpTransport(int portNumber, boolean directBuffers) {
+        messageTransfer = new MessageTransfer(portNumber, directBuffers);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getPortNumber() {
+        return messageTransfer.getPortNumber();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setReceiveTimeout(int timeout) {
+        messageTransfer.setReceiveTimeout(timeout);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void send(Object object, InetSocketAddress destination) {
+        byte[] message = messageTransfer.encodeObject(object);
+        DatagramPacket packet = new DatagramPacket(message, message.length, destination);
+        messageTransfer.sendMessage(packet);
+        if (!(object instanceof String)) {
+            messageTransfer.printSendMessage(Thread.currentThread().getName(), packet);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int sendBatch(List<? extends SystemEvent> events, InetSocketAddress destination) {
+        List<byte[]> frames = messageTransfer.encodeBatch(events);
+        for (byte[] frame : frames) {
+            messageTransfer.sendMessage(new DatagramPacket(frame, frame.length, destination));
+        }
+        return frames.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int batchedLength(SystemEvent event) {
+        return messageTransfer.batchedLength(event);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Message receive() {
+        return messageTransfer.receiveMessage(this::decode);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Message receiveAvailable() {
+        return messageTransfer.receiveAvailableMessage(this::decode);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SelectionKey register(Selector selector, Object attachment) throws IOException {
+        return messageTransfer.register(selector, attachment);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        messageTransfer.closeSocket();
+    }
+
+    /**
+     * Returns the number of packets that were sent again because they were not acknowledged in time.
+     *
+     * @return the number of retransmitted packets
+     */
+    public long getRetransmissionCount() {
+        return messageTransfer.getRetransmissionCount();
+    }
+
+    /**
+     * Decodes a received message into a Message. Messages that are not valid
+     * are discarded, leaving the Message without content.
+     *
+     * @param buffer the buffer containing the received message
+     * @param sender the address of the sender
+     * @return the Message
+     */
+    private Message decode(ByteBuffer buffer, SocketAddress sender) {
+        Object content = null;
+        try {
+            content = messageTransfer.decodeObject(buffer);
+        } catch (IllegalArgumentException iae) {
+            System.err.println(Thread.currentThread().getName() + " discarded a packet: " + iae.getMessage());
+        }
+        return new Message(content, (InetSocketAddress) sender);
+    }
+}
@@ -0,0 +1,208 @@
+package elevatorsystem;
+
+import requests.ServiceRequest;
+
+import java.util.Arrays;
+
+/**
+ * BitFloorSet is a FloorSet that marks the floors with requests in a bitset
+ * of longs and keeps each floor's request in a table indexed by floor number.
+ * The next floor is found by scanning the bitset, so adding and removing
+ * requests does not allocate unless the set grows to hold a higher floor.
+ *
+ * @author Julian, Liam Tripp
+ */
+class BitFloorSet implements FloorSet {
+
+    private static final int BITS_PER_WORD = Long.SIZE;
+
+    private final boolean descending;
+    private long[] floorBits;
+    private ServiceRequest[] requestsByFloor;
+    private int size;
+
+    /**
+     * Constructor for BitFloorSet.
+     *
+     * @param numberOfFloors the number of floors to reserve space for; higher floors are still accepted
+     * @param descending true if requests are ordered by descending floor number, false if ascending
+     */
+    BitFloorSet(int numberOfFloors, boolean descending) {
+        if (numberOfFloors < 0) {
+            throw new IllegalArgumentException("Error: The number of floors must not be negative.");
+        }
+        this.descending = descending;
+        // floors are numbered from 0 to numberOfFloors
+        int capacity = numberOfFloors + 1;
+        floorBits = new long[(capacity + BITS_PER_WORD - 1) / BITS_PER_WORD];
+        requestsByFloor = new ServiceRequest[floorBits.length * BITS_PER_WORD];
+        size = 0;
+    }
+
+    /**
+     * Constructor for a BitFloorSet with the same order and requests as another.
+     *
+     * @param bitFloorSet the BitFloorSet to copy
+     */
+    private BitFloorSet(BitFloorSet bitFloorSet) {
+        descending = bitFloorSet.descending;
+        floorBits = bitFloorSet.floorBits.clone();
+        requestsByFloor = bitFloorSet.requestsByFloor.clone();
+        size = bitFloorSet.size;
+    }
+
+    @Override
+    public boolean add(ServiceRequest request) {
+        int floor = request.getFloorNumber();
+        if (floor < 0) {
+            throw new IllegalArgumentException("Error: FloorNumber must not be negative.");
+        }
+        ensureCapacity(floor);
+        int wordIndex = floor / BITS_PER_WORD;
+        long mask = 1L << floor;
+        if ((floorBits[wordIndex] & mask) != 0) {
+            return false;
+        }
+        floorBits[wordIndex] |= mask;
+        requestsByFloor[floor] = request;
+        size++;
+        return true;
+    }
+
+    @Override
+    public ServiceRequest first() {
+        int floor = descending ? highestFloor() : lowestFloor();
+        return floor == -1 ? null : requestsByFloor[floor];
+    }
+
+    @Override
+    public ServiceRequest last() {
+        int floor = descending ? lowestFloor() : highestFloor();
+        return floor == -1 ? null : requestsByFloor[floor];
+    }
+
+    @Override
+    public ServiceRequest pollFirst() {
+        int floor = descending ? highestFloor() : lowestFloor();
+        if (floor == -1) {
+            return null;
+        }
+        ServiceRequest request = requestsByFloor[floor];
+        floorBits[floor / BITS_PER_WORD] &= ~(1L << floor);
+        requestsByFloor[floor] = null;
+        size--;
+        return request;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public FloorSet copy() {
+        return new BitFloorSet(this);
+    }
+
+    /**
+     * Returns the lowest floor with a request.
+     *
+     * @return the lowest floor with a request, -1 if there are none
+     */
+    private int lowestFloor() {
+        return nextSetBit(0);
+    }
+
+    /**
+     * Returns the highest floor with a request.
+     *
+     * @return the highest floor with a request, -1 if there are none
+     */
+    private int highestFloor() {
+        return previousSetBit(floorBits.length * BITS_PER_WORD - 1);
+    }
+
+    /**
+     * Returns the first floor with a request at or above the specified floor.
+     *
+     * @param fromFloor the floor to start searching from
+     * @return the floor found, -1 if there are none
+     */
+    private int nextSetBit(int fromFloor) {
+        if (size == 0 || fromFloor >= floorBits.length * BITS_PER_WORD) {
+            return -1;
+        }
+        int wordIndex = fromFloor / BITS_PER_WORD;
+        long word = floorBits[wordIndex] & (-1L << fromFloor);
+        while (true) {
+            if (word != 0) {
+                return wordIndex * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == floorBits.length) {
+                return -1;
+            }
+            word = floorBits[wordIndex];
+        }
+    }
+
+    /**
+     * Returns the first floor with a request at or below the specified floor.
+     *
+     * @param fromFloor the floor to start searching from
+     * @return the floor found, -1 if there are none
+     */
+    private int previousSetBit(int fromFloor) {
+        if (size == 0 || fromFloor < 0) {
+            return -1;
+        }
+        int wordIndex = fromFloor / BITS_PER_WORD;
+        long word = floorBits[wordIndex] & (-1L >>> (BITS_PER_WORD - 1 - fromFloor % BITS_PER_WORD));
+        while (true) {
+            if (word != 0) {
+                return (wordIndex + 1) * BITS_PER_WORD - 1 - Long.numberOfLeadingZeros(word);
+            }
+            if (wordIndex-- == 0) {
+                return -1;
+            }
+            word = floorBits[wordIndex];
+        }
+    }
+
+    /**
+     * Grows the bitset and the table of requests so that they can hold the specified floor.
+     *
+     * @param floor the floor to hold
+     */
+    private void ensureCapacity(int floor) {
+        int wordsRequired = floor / BITS_PER_WORD + 1;
+        if (wordsRequired > floorBits.length) {
+            int newLength = Math.max(wordsRequired, floorBits.length * 2);
+            floorBits = Arrays.copyOf(floorBits, newLength);
+            requestsByFloor = Arrays.copyOf(requestsByFloor, newLength * BITS_PER_WORD);
+        }
+    }
+
+    /**
+     * Returns the requests in the BitFloorSet's order, in the format of a Collection's toString.
+     *
+     * @return a String containing the requests
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        int floor = descending ? highestFloor() : lowestFloor();
+        while (floor != -1) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(requestsByFloor[floor]);
+            floor = descending ? previousSetBit(floor - 1) : nextSetBit(floor + 1);
+        }
+        return builder.append("]").toString();
+    }
+}
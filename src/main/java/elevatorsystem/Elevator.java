@@ -9,8 +9,10 @@ import systemwide.Origin;
 import systemwide.SystemStatus;
 
 import java.time.LocalTime;
+import java.util.ArrayDeque;
 import java.util.ConcurrentModificationException;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Elevator is a model for simulating an elevator.
@@ -37,6 +39,17 @@ public class Elevator implements Runnable, SubsystemPasser {
     // toggles for Elevator sending messages and taking time to move
     private boolean messageTransferEnabled;
     private volatile ApproachEvent approachEvent;
+    // thread parked while waiting for an ApproachEvent
+    private volatile Thread approachEventWaiter;
+    private int approachEventTimeout;
+    // toggle for deciding stops from the RequestQueue without waiting for each ApproachEvent
+    private boolean localStopDecisionsEnabled;
+    // send times of the ApproachEvents that have not been returned, oldest first
+    private final ArrayDeque<Long> unverifiedApproaches;
+    // time an ApproachEvent may take to return when stops are decided locally and no timeout is set
+    private static final int APPROACH_VERIFICATION_TIME = 1000; // milliseconds
+    // time an idle elevator waits for a request before checking whether the system is still activated
+    private static final int IDLE_WAIT_TIME = 100; // milliseconds
     private int travelTime;
     private int doorTime;
     private volatile boolean doorsMalfunctioning;
@@ -50,9 +63,20 @@ public class Elevator implements Runnable, SubsystemPasser {
      * @param elevatorSubsystem the elevator subsystem for elevators
      */
     public Elevator(int elevatorNumber, ElevatorSubsystem elevatorSubsystem) {
+        this(elevatorNumber, elevatorSubsystem, new RequestQueue());
+    }
+
+    /**
+     * Constructor for Elevator that serves the requests in the specified RequestQueue.
+     *
+     * @param elevatorNumber the number of the elevator
+     * @param elevatorSubsystem the elevator subsystem for elevators
+     * @param requestQueue the queue of requests for the elevator to serve
+     */
+    public Elevator(int elevatorNumber, ElevatorSubsystem elevatorSubsystem, RequestQueue requestQueue) {
         this.elevatorNumber = elevatorNumber;
         this.elevatorSubsystem = elevatorSubsystem;
-        requestQueue = new RequestQueue();
+        this.requestQueue = requestQueue;
         motor = new ElevatorMotor();
         doors = new Doors();
         systemStatus = new SystemStatus(false);
@@ -63,6 +87,10 @@ public class Elevator implements Runnable, SubsystemPasser {
         fault = Fault.NONE;
         messageTransferEnabled = true;
         approachEvent = null;
+        approachEventWaiter = null;
+        approachEventTimeout = 0;
+        localStopDecisionsEnabled = false;
+        unverifiedApproaches = new ArrayDeque<>();
         doorsMalfunctioning = false;
         currentRequest = null;
         cartMalfunctioning = false;
@@ -70,13 +98,17 @@ public class Elevator implements Runnable, SubsystemPasser {
 
     /**
      * Checks if there are any more requests to process and processes
-     * and new requests.
+     * and new requests. While there are no requests, the Elevator waits
+     * for one to be added instead of checking continuously.
      */
     @Override
     public void run() {
         systemStatus.setSystemActivated(true);
         while (systemStatus.activated()) {
             moveElevatorWhilePossible();
+            requestQueue.awaitRequest(IDLE_WAIT_TIME);
+            // an idle Elevator still detects ApproachEvents that were never returned
+            verifyApproachEvents();
         }
         System.out.println(getClass().getSimpleName() + " #" + elevatorNumber + " Thread terminated");
     }
@@ -132,43 +164,56 @@ public class Elevator implements Runnable, SubsystemPasser {
 
         // in future iterations, shouldStopAtNextFloor will be followed by sending an ApproachRequest
         if (messageTransferEnabled) {
+            if (localStopDecisionsEnabled && !verifyApproachEvents()) {
+                return;
+            }
             // communicate with Scheduler to see if Elevator should stop at this floor
             ApproachEvent newApproachEvent = new ApproachEvent(request.getTime(), nextFloor,
                     request.getDirection(), elevatorNumber, Origin.ELEVATOR_SYSTEM);
+            if (localStopDecisionsEnabled) {
+                synchronized (unverifiedApproaches) {
+                    unverifiedApproaches.addLast(System.nanoTime());
+                }
+            }
             passApproachEvent(newApproachEvent);
             // stall while waiting to receive the approachEvent from ElevatorSubsystem
 
             // if travelTime enabled, wait a set amount of time.
             // otherwise, wait forever
+            // if stops are decided locally, the returned approachEvent is only verified later
         }
         // FIXME: this is too deeply nested. extract into methods
-        if (travelTime <= 0 && messageTransferEnabled) {
-            while (approachEvent == null) {
+        if (travelTime <= 0 && messageTransferEnabled && !localStopDecisionsEnabled) {
+            if (!awaitApproachEvent()) {
+                System.err.println("Elevator #" + elevatorNumber + " did not receive ApproachEvent before " +
+                        approachEventTimeout + " milliseconds expired.");
+                setFault(Fault.ARRIVAL_SENSOR_FAIL);
+                // shut down elevator
+                shutDownElevator();
+                return;
             }
         } else if (travelTime > 0) {
-            synchronized (this) {
-                try {
-                    // wait to simulate movement
-                    wait(travelTime);
-
-                    if (messageTransferEnabled && approachEvent == null) {
-                        String errorMessage = "Elevator #" + elevatorNumber + " did not receive ApproachEvent before " + travelTime + " expired.";
-                        throw new TimeoutException(errorMessage);
-                    } else if (cartMalfunctioning) {
-                        String errorMessage = "Elevator #" + elevatorNumber + " is stuck... The cart is malfunctioning.";
-                        throw new InterruptedException(errorMessage);
-                    }
-                } catch (InterruptedException ie) {
-                    setFault(Fault.ELEVATOR_STUCK);
-                    // shut down elevator
-                    shutDownElevator();
-                    return;
-                } catch (TimeoutException te) {
-                    setFault(Fault.ARRIVAL_SENSOR_FAIL);
-                    // shut down elevator
-                    shutDownElevator();
-                    return;
+            try {
+                // wait to simulate movement
+                Thread.sleep(travelTime);
+
+                if (messageTransferEnabled && !localStopDecisionsEnabled && approachEvent == null) {
+                    String errorMessage = "Elevator #" + elevatorNumber + " did not receive ApproachEvent before " + travelTime + " expired.";
+                    throw new TimeoutException(errorMessage);
+                } else if (cartMalfunctioning) {
+                    String errorMessage = "Elevator #" + elevatorNumber + " is stuck... The cart is malfunctioning.";
+                    throw new InterruptedException(errorMessage);
                 }
+            } catch (InterruptedException ie) {
+                setFault(Fault.ELEVATOR_STUCK);
+                // shut down elevator
+                shutDownElevator();
+                return;
+            } catch (TimeoutException te) {
+                setFault(Fault.ARRIVAL_SENSOR_FAIL);
+                // shut down elevator
+                shutDownElevator();
+                return;
             }
         }
         approachEvent = null;
@@ -185,6 +230,59 @@ public class Elevator implements Runnable, SubsystemPasser {
         setCurrentFloor(nextFloor);
     }
 
+    /**
+     * Parks the Elevator's thread until an ApproachEvent is received or
+     * the approachEventTimeout expires.
+     *
+     * @return true if an ApproachEvent was received, false if the timeout expired
+     */
+    private boolean awaitApproachEvent() {
+        // publish the waiting thread before checking the event so that a wake-up cannot be missed
+        approachEventWaiter = Thread.currentThread();
+        try {
+            long deadline = System.nanoTime() + approachEventTimeout * 1000000L;
+            while (approachEvent == null) {
+                if (approachEventTimeout <= 0) {
+                    LockSupport.park(this);
+                } else {
+                    long remainingTime = deadline - System.nanoTime();
+                    if (remainingTime <= 0) {
+                        return false;
+                    }
+                    LockSupport.parkNanos(this, remainingTime);
+                }
+            }
+            return true;
+        } finally {
+            approachEventWaiter = null;
+        }
+    }
+
+    /**
+     * Checks that the ApproachEvents sent while stops are decided locally have been
+     * returned in time. If the oldest one has not been returned before the approachEventTimeout,
+     * or APPROACH_VERIFICATION_TIME if there is no timeout, the Elevator's arrival sensor is
+     * considered to have failed and the Elevator is shut down.
+     *
+     * @return true if no ApproachEvent is overdue, false if the Elevator was shut down
+     */
+    private boolean verifyApproachEvents() {
+        int verificationTime = approachEventTimeout > 0 ? approachEventTimeout : APPROACH_VERIFICATION_TIME;
+        Long oldestApproachTime;
+        synchronized (unverifiedApproaches) {
+            oldestApproachTime = unverifiedApproaches.peekFirst();
+        }
+        if (oldestApproachTime == null || System.nanoTime() - oldestApproachTime < verificationTime * 1000000L) {
+            return true;
+        }
+        System.err.println("Elevator #" + elevatorNumber + " did not receive ApproachEvent before " +
+                verificationTime + " milliseconds expired.");
+        setFault(Fault.ARRIVAL_SENSOR_FAIL);
+        // shut down elevator
+        shutDownElevator();
+        return false;
+    }
+
     /**
      * Attempts to remove a floor from the requestQueue, throwing exceptions if unsuccessful.
      *
@@ -276,6 +374,9 @@ public class Elevator implements Runnable, SubsystemPasser {
         motor.setMovementState(MovementState.STUCK);
         motor.setDirection(Direction.NONE);
         approachEvent = null;
+        synchronized (unverifiedApproaches) {
+            unverifiedApproaches.clear();
+        }
         ServiceRequest removeRequest;
         do {
             removeRequest = requestQueue.removeRequest();
@@ -301,40 +402,38 @@ public class Elevator implements Runnable, SubsystemPasser {
             System.exit(1);
         }
         // process door change
-        synchronized (this) {
-            try {
-                if (doorTime > 0) {
-                    wait(doorTime);
-                }
+        try {
+            if (doorTime > 0) {
+                Thread.sleep(doorTime);
+            }
 
-                if (!doorsMalfunctioning) {
-                    // correct Doors STUCK transient fault
-                    if (doors.getState() == Doors.State.STUCK) {
-                        setFault(Fault.NONE);
-                        System.out.println("Elevator #" + elevatorNumber + " correcting Door Fault.");
-                    }
-                    // change doors state
-                    if (state == Doors.State.OPEN) {
-                        doors.open();
-                    } else {
-                        doors.close();
-                    }
-                    return true;
+            if (!doorsMalfunctioning) {
+                // correct Doors STUCK transient fault
+                if (doors.getState() == Doors.State.STUCK) {
+                    setFault(Fault.NONE);
+                    System.out.println("Elevator #" + elevatorNumber + " correcting Door Fault.");
+                }
+                // change doors state
+                if (state == Doors.State.OPEN) {
+                    doors.open();
                 } else {
-                    String messageToPrint;
-                    // transient (soft) Fault: make door try to change state again
-                    messageToPrint = "Elevator #" + elevatorNumber + "'s doors are malfunctioning.";
-                    throw new IllegalStateException(messageToPrint);
+                    doors.close();
                 }
-            } catch (InterruptedException e) {
-                // if interrupted, try to change state again
-                return changeDoorState(state);
-            } catch (IllegalStateException ise) {
-                // turn off doors malfunctioning variable
-                setDoorsMalfunctioning(false);
-                ise.printStackTrace();
-                return false;
+                return true;
+            } else {
+                String messageToPrint;
+                // transient (soft) Fault: make door try to change state again
+                messageToPrint = "Elevator #" + elevatorNumber + "'s doors are malfunctioning.";
+                throw new IllegalStateException(messageToPrint);
             }
+        } catch (InterruptedException e) {
+            // if interrupted, try to change state again
+            return changeDoorState(state);
+        } catch (IllegalStateException ise) {
+            // turn off doors malfunctioning variable
+            setDoorsMalfunctioning(false);
+            ise.printStackTrace();
+            return false;
         }
     }
 
@@ -346,6 +445,12 @@ public class Elevator implements Runnable, SubsystemPasser {
     public void addRequest(ServiceRequest serviceRequest) {
         //TODO remove after queueTime updated properly and serviceDirection is updated properly
         int elevatorFloorToPass = currentFloor;
+        // a moving elevator has already passed its current floor, so it can only stop at the next one
+        if (!motor.isIdle() && motor.getDirection() == Direction.UP) {
+            elevatorFloorToPass = currentFloor + 1;
+        } else if (!motor.isIdle() && motor.getDirection() == Direction.DOWN) {
+            elevatorFloorToPass = currentFloor - 1;
+        }
         requestQueue.addRequest(elevatorFloorToPass, serviceDirection, serviceRequest);
     }
 
@@ -475,6 +580,39 @@ public class Elevator implements Runnable, SubsystemPasser {
         doorTime = time;
     }
 
+    /**
+     * Sets how long the Elevator waits for an ApproachEvent when it has no travel time.
+     * If the timeout expires, the Elevator's arrival sensor is considered to have failed.
+     *
+     * @param timeout the time to wait in milliseconds, zero or less to wait indefinitely
+     */
+    public void setApproachEventTimeout(int timeout) {
+        approachEventTimeout = timeout;
+    }
+
+    /**
+     * Sets whether the Elevator decides where to stop from its RequestQueue alone.
+     * The Elevator still sends an ApproachEvent for each floor, but moves on without waiting for it
+     * to return. Returned ApproachEvents only verify the arrival sensor, which is considered to have
+     * failed if an ApproachEvent does not return in time.
+     *
+     * @param localStopDecisionsEnabled true if stops are decided locally, false to wait for each ApproachEvent
+     */
+    public void setLocalStopDecisionsEnabled(boolean localStopDecisionsEnabled) {
+        this.localStopDecisionsEnabled = localStopDecisionsEnabled;
+    }
+
+    /**
+     * Returns the number of ApproachEvents sent while stops are decided locally that have not returned.
+     *
+     * @return the number of unverified ApproachEvents
+     */
+    public int getUnverifiedApproachCount() {
+        synchronized (unverifiedApproaches) {
+            return unverifiedApproaches.size();
+        }
+    }
+
     /**
      * Toggles whether the elevator may send / receive messages
      * to and from the Scheduler.
@@ -500,7 +638,29 @@ public class Elevator implements Runnable, SubsystemPasser {
      */
     @Override
     public void receiveApproachEvent(ApproachEvent approachEvent) {
+        if (localStopDecisionsEnabled) {
+            // the Elevator is not waiting, the ApproachEvent only verifies the arrival sensor
+            synchronized (unverifiedApproaches) {
+                unverifiedApproaches.pollFirst();
+            }
+            return;
+        }
         this.approachEvent = approachEvent;
+        // wake the Elevator's thread if it is waiting for the ApproachEvent
+        Thread waiter = approachEventWaiter;
+        if (waiter != null) {
+            LockSupport.unpark(waiter);
+        }
+    }
+
+    /**
+     * Determines whether the Elevator's thread is waiting for an ApproachEvent
+     * that has not been received yet.
+     *
+     * @return true if the Elevator is waiting for an ApproachEvent, false otherwise
+     */
+    boolean isWaitingForApproachEvent() {
+        return approachEventWaiter != null && approachEvent == null;
     }
 
     /**
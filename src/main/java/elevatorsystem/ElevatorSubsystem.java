@@ -3,16 +3,24 @@ package elevatorsystem;
 import client_server_host.Client;
 import client_server_host.Port;
 import client_server_host.RequestMessage;
+import client_server_host.SharedMemoryTransport;
 import requests.ApproachEvent;
+import requests.ElevatorMonitor;
 import requests.ElevatorRequest;
 import requests.SystemEvent;
 import requests.SystemEventListener;
+import systemwide.BoundedMpscQueue;
 import systemwide.Structure;
 import systemwide.SystemStatus;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * ElevatorSubsystem manages the elevators and their requests to the Scheduler.
@@ -24,18 +32,60 @@ public class ElevatorSubsystem implements Runnable, SystemEventListener {
     private final ArrayList<Elevator> elevatorList;
     private final ArrayList<Thread> elevatorThreads;
     private final Client server;
-    private final Queue<SystemEvent> eventQueue;
+    private final BoundedMpscQueue<SystemEvent> eventQueue;
+    private final AtomicLong droppedEvents;
+    // number of threads waiting for space in the full event queue
+    private final AtomicInteger threadsWaitingForSpace;
+    // thread that sends the events in the event queue, which only it can make space in
+    private volatile Thread eventSender;
+    // the latest ElevatorMonitor of each elevator that has one waiting in the event queue
+    private final ConcurrentHashMap<Integer, ElevatorMonitor> unsentMonitors;
+    private final AtomicLong coalescedMonitors;
+    // the last ElevatorMonitor sent for each elevator and the number of deltas sent since its keyframe
+    private final Map<Integer, ElevatorMonitor> lastSentMonitors;
+    private final Map<Integer, Integer> deltasSinceKeyframe;
     private final SystemStatus systemStatus;
+    private boolean pushDeliveryEnabled;
+    private int batchLingerTime;
+    private int monitorKeyframeInterval;
+    private boolean virtualThreadsEnabled;
+    private boolean localStopDecisionsEnabled;
+    // time to wait for events before checking whether the system is still activated
+    private static final int PUSH_WAIT_TIME = 50; // milliseconds
+    // maximum number of events waiting to be sent
+    private static final int EVENT_QUEUE_CAPACITY = 4096;
+    // time an Elevator waits for space in the full event queue of a running ElevatorSubsystem
+    private static final int BACKPRESSURE_WAIT_TIME = 1000; // milliseconds
 
     /**
      * Constructor for ElevatorSubsystem.
      */
     public ElevatorSubsystem() {
-        server = new Client(Port.SERVER.getNumber());
+        this(new Client(Port.SERVER.getNumber()));
+    }
+
+    /**
+     * Constructor for ElevatorSubsystem that communicates through the specified Client.
+     *
+     * @param server a Client connected to the Schedulers serving the elevators
+     */
+    public ElevatorSubsystem(Client server) {
+        this.server = server;
         elevatorList = new ArrayList<>();
         elevatorThreads = new ArrayList<>();
-        eventQueue = new LinkedList<>();
+        eventQueue = new BoundedMpscQueue<>(EVENT_QUEUE_CAPACITY);
+        droppedEvents = new AtomicLong();
+        threadsWaitingForSpace = new AtomicInteger();
+        unsentMonitors = new ConcurrentHashMap<>();
+        coalescedMonitors = new AtomicLong();
+        lastSentMonitors = new HashMap<>();
+        deltasSinceKeyframe = new HashMap<>();
         systemStatus = new SystemStatus(false);
+        pushDeliveryEnabled = false;
+        batchLingerTime = -1;
+        monitorKeyframeInterval = 1;
+        virtualThreadsEnabled = false;
+        localStopDecisionsEnabled = false;
     }
 
     /**
@@ -64,9 +114,15 @@ public class ElevatorSubsystem implements Runnable, SystemEventListener {
      */
     @Override
     public void run() {
+        eventSender = Thread.currentThread();
         systemStatus.setSystemActivated(true);
-        while (systemStatus.activated()) {
-            subsystemUDPMethod();
+        if (pushDeliveryEnabled) {
+            subscribeToEvents();
+            sendEventsWhileActivated();
+        } else {
+            while (systemStatus.activated()) {
+                subsystemUDPMethod();
+            }
         }
         // terminate elevator threads
         for (Elevator elevator : elevatorList) {
@@ -86,12 +142,224 @@ public class ElevatorSubsystem implements Runnable, SystemEventListener {
 
     /**
      * Adds a SystemEvent to a System's queue of events.
+     * The Scheduler only needs the latest ElevatorMonitor of an elevator, so a new
+     * ElevatorMonitor replaces one of the same elevator that has not been sent yet and
+     * is sent in its place. Other events are sent in the order they are added.
+     * If the queue is full while the ElevatorSubsystem is running, the calling thread waits for
+     * the events ahead of it to be sent, and the event is dropped if no space is made in time.
+     * If the ElevatorSubsystem is not running, or the calling thread is the one that sends the events,
+     * nothing would make space, so the event is dropped at once.
      *
      * @param systemEvent the SystemEvent to add
      */
     @Override
     public void addEventToQueue(SystemEvent systemEvent) {
-        eventQueue.add(systemEvent);
+        if (systemEvent instanceof ElevatorMonitor elevatorMonitor &&
+                unsentMonitors.put(elevatorMonitor.getElevatorNumber(), elevatorMonitor) != null) {
+            coalescedMonitors.incrementAndGet();
+            return;
+        }
+        if (eventQueue.offer(systemEvent)) {
+            return;
+        }
+        if (!systemStatus.activated() || Thread.currentThread() == eventSender ||
+                !waitForSpace(systemEvent)) {
+            if (systemEvent instanceof ElevatorMonitor elevatorMonitor && queueNewerMonitor(elevatorMonitor)) {
+                return;
+            }
+            droppedEvents.incrementAndGet();
+            if (systemStatus.activated()) {
+                System.err.println("Error: The ElevatorSubsystem's event queue is full. " + systemEvent + " was dropped.");
+            }
+        }
+    }
+
+    /**
+     * Adds a SystemEvent to the full event queue, waiting for the events ahead of it to be sent.
+     *
+     * @param systemEvent the SystemEvent to add
+     * @return true if the SystemEvent was added, false if no space was made in time
+     */
+    private boolean waitForSpace(SystemEvent systemEvent) {
+        threadsWaitingForSpace.incrementAndGet();
+        try {
+            return eventQueue.offer(systemEvent, BACKPRESSURE_WAIT_TIME, TimeUnit.MILLISECONDS);
+        } finally {
+            threadsWaitingForSpace.decrementAndGet();
+        }
+    }
+
+    /**
+     * Clears the unsent ElevatorMonitor of an elevator after its ElevatorMonitor could not be
+     * added to the full event queue, since no ElevatorMonitor of the elevator is in the queue.
+     * A newer ElevatorMonitor may have replaced it while the thread waited for space. The newer
+     * one was coalesced on the assumption that the dropped one was queued, so it is added to the
+     * queue in its place if there is space now, and is dropped as well otherwise.
+     *
+     * @param elevatorMonitor the ElevatorMonitor that could not be added to the event queue
+     * @return true if a newer ElevatorMonitor was queued in its place, false if it was dropped
+     */
+    private boolean queueNewerMonitor(ElevatorMonitor elevatorMonitor) {
+        int elevatorNumber = elevatorMonitor.getElevatorNumber();
+        if (unsentMonitors.remove(elevatorNumber, elevatorMonitor)) {
+            return false;
+        }
+        ElevatorMonitor newerMonitor;
+        while ((newerMonitor = unsentMonitors.get(elevatorNumber)) != null) {
+            // the queued ElevatorMonitor is replaced by the latest one when it is sent
+            if (eventQueue.offer(newerMonitor)) {
+                return true;
+            }
+            if (unsentMonitors.remove(elevatorNumber, newerMonitor)) {
+                droppedEvents.incrementAndGet();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the next event from the event queue. An ElevatorMonitor is
+     * replaced by the latest ElevatorMonitor of its elevator, and marked
+     * as a delta if it is not a keyframe.
+     *
+     * @return the next event, null if the event queue is empty
+     */
+    SystemEvent pollEvent() {
+        return latestVersionOf(eventQueue.poll());
+    }
+
+    /**
+     * Removes the next event from the event queue, waiting up to the specified time for one to be
+     * added if it is empty. An ElevatorMonitor is replaced by the latest ElevatorMonitor of its elevator,
+     * and marked as a delta if it is not a keyframe.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return the next event, null if the event queue was still empty after the timeout
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private SystemEvent pollEvent(long timeout, TimeUnit unit) throws InterruptedException {
+        return latestVersionOf(eventQueue.poll(timeout, unit));
+    }
+
+    /**
+     * Returns the latest version of an event removed from the event queue.
+     *
+     * @param event the event removed from the event queue
+     * @return the latest ElevatorMonitor of the elevator if the event is an ElevatorMonitor, the event otherwise
+     */
+    private SystemEvent latestVersionOf(SystemEvent event) {
+        if (event instanceof ElevatorMonitor elevatorMonitor) {
+            ElevatorMonitor latestMonitor = unsentMonitors.remove(elevatorMonitor.getElevatorNumber());
+            return markChangedFields(latestMonitor != null ? latestMonitor : elevatorMonitor);
+        }
+        return event;
+    }
+
+    /**
+     * Marks the fields of an ElevatorMonitor that changed since the last ElevatorMonitor
+     * sent for its elevator, so that only those fields are sent. The first ElevatorMonitor
+     * of an elevator and one in every keyframe interval are keyframes, which are sent in full
+     * so that the Scheduler recovers from deltas that were lost.
+     *
+     * @param elevatorMonitor the ElevatorMonitor about to be sent
+     * @return the ElevatorMonitor with its changed fields marked
+     */
+    private ElevatorMonitor markChangedFields(ElevatorMonitor elevatorMonitor) {
+        if (monitorKeyframeInterval <= 1) {
+            return elevatorMonitor;
+        }
+        int elevatorNumber = elevatorMonitor.getElevatorNumber();
+        ElevatorMonitor lastSentMonitor = lastSentMonitors.put(elevatorNumber, elevatorMonitor);
+        int deltas = deltasSinceKeyframe.getOrDefault(elevatorNumber, 0);
+        if (lastSentMonitor == null || deltas >= monitorKeyframeInterval - 1) {
+            elevatorMonitor.setChangedFields(ElevatorMonitor.ALL_FIELDS);
+            deltasSinceKeyframe.put(elevatorNumber, 0);
+        } else {
+            elevatorMonitor.setChangedFields(elevatorMonitor.changedFieldsSince(lastSentMonitor));
+            deltasSinceKeyframe.put(elevatorNumber, deltas + 1);
+        }
+        return elevatorMonitor;
+    }
+
+    /**
+     * Returns the number of ElevatorMonitors that were replaced by a newer
+     * ElevatorMonitor of the same elevator before they were sent.
+     *
+     * @return the number of coalesced ElevatorMonitors
+     */
+    public long getCoalescedMonitorCount() {
+        return coalescedMonitors.get();
+    }
+
+    /**
+     * Returns the number of events dropped because the event queue was full.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedEventCount() {
+        return droppedEvents.get();
+    }
+
+    /**
+     * Returns the number of threads waiting for space in the full event queue.
+     *
+     * @return the number of threads waiting for space
+     */
+    int getThreadsWaitingForSpace() {
+        return threadsWaitingForSpace.get();
+    }
+
+    /**
+     * Sets whether the Scheduler pushes events to the ElevatorSubsystem instead of the
+     * ElevatorSubsystem requesting them.
+     *
+     * @param pushDeliveryEnabled true if events are pushed, false if they are requested
+     */
+    public void setPushDeliveryEnabled(boolean pushDeliveryEnabled) {
+        this.pushDeliveryEnabled = pushDeliveryEnabled;
+    }
+
+    /**
+     * Sets how long the ElevatorSubsystem waits for more events before sending its
+     * pending events together in a batch. A negative time disables batching.
+     *
+     * @param batchLingerTime the batch linger time in milliseconds
+     */
+    public void setBatchLingerTime(int batchLingerTime) {
+        this.batchLingerTime = batchLingerTime;
+    }
+
+    /**
+     * Sets how often an elevator's ElevatorMonitor is sent in full. The ElevatorMonitors
+     * between two keyframes only carry the fields that changed. An interval of 1 disables deltas.
+     *
+     * @param monitorKeyframeInterval the number of ElevatorMonitors of an elevator sent per keyframe
+     */
+    public void setMonitorKeyframeInterval(int monitorKeyframeInterval) {
+        this.monitorKeyframeInterval = monitorKeyframeInterval;
+    }
+
+    /**
+     * Sets whether the Elevators run on virtual threads instead of platform threads.
+     * Virtual threads allow a single JVM to simulate a very large number of Elevators.
+     * This must be set before the Elevator threads are initialized.
+     *
+     * @param virtualThreadsEnabled true if the Elevators run on virtual threads, false otherwise
+     */
+    public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+    }
+
+    /**
+     * Sets whether the Elevators decide where to stop without waiting for their ApproachEvents
+     * to return. This must be set before the Elevators are initialized.
+     *
+     * @param localStopDecisionsEnabled true if stops are decided locally, false otherwise
+     */
+    public void setLocalStopDecisionsEnabled(boolean localStopDecisionsEnabled) {
+        this.localStopDecisionsEnabled = localStopDecisionsEnabled;
     }
 
     /**
@@ -108,57 +376,144 @@ public class ElevatorSubsystem implements Runnable, SystemEventListener {
      */
     private void subsystemUDPMethod() {
         Object object;
-        /*
-            Previous system of (!eventQueue.empty) { eventQueue.remove() } produced
-            NoSuchElementException errors. Using queue.poll() circumvents this
-         */
-        SystemEvent event = eventQueue.poll();
-        if (event != null) {
+        SystemEvent event = pollEvent();
+        if (event != null && batchLingerTime >= 0) {
+            sendBatchAndReceiveReplies(collectPendingEvents(event));
+            return;
+        } else if (event != null) {
             object = server.sendAndReceiveReply(event);
         } else {
             object = server.sendAndReceiveReply(RequestMessage.REQUEST.getMessage());
         }
 
-        if (object instanceof ElevatorRequest elevatorRequest) {
+        if (object instanceof String string && string.trim().equals(RequestMessage.EMPTYQUEUE.getMessage())) {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        } else {
+            processReceivedObject(object);
+        }
+    }
+
+    /**
+     * Sends a batch of events and receives the Scheduler's reply to each packet.
+     *
+     * @param events the events to send
+     */
+    private void sendBatchAndReceiveReplies(List<SystemEvent> events) {
+        if (events.size() == 1) {
+            processReceivedObject(server.sendAndReceiveReply(events.get(0)));
+            return;
+        }
+        int packetsSent = server.sendBatch(events);
+        for (int i = 0; i < packetsSent; i++) {
+            processReceivedObject(server.receive());
+        }
+    }
+
+    /**
+     * Collects the events that are added to the event queue within the batch linger
+     * time, or until they fill a packet, and any events that are already pending.
+     *
+     * @param firstEvent the first event of the batch
+     * @return the events to send in a batch
+     */
+    private List<SystemEvent> collectPendingEvents(SystemEvent firstEvent) {
+        return server.collectPendingEvents(firstEvent, batchLingerTime, this::pollEvent);
+    }
+
+    /**
+     * Processes an object received from the Scheduler.
+     * A batch of events is processed in order.
+     *
+     * @param object the object received from the Scheduler
+     */
+    private void processReceivedObject(Object object) {
+        if (object instanceof List<?> events) {
+            for (Object event : events) {
+                processReceivedObject(event);
+            }
+        } else if (object instanceof ElevatorRequest elevatorRequest) {
             Elevator elevator = elevatorList.get(elevatorRequest.getElevatorNumber() - 1);
             elevator.addRequest(elevatorRequest);
-            eventQueue.add(elevator.makeElevatorMonitor());
+            addEventToQueue(elevator.makeElevatorMonitor());
         } else if (object instanceof ApproachEvent approachEvent) {
             elevatorList.get(approachEvent.getElevatorNumber() - 1).receiveApproachEvent(approachEvent);
         } else if (object instanceof String string) {
-            if (string.trim().equals(RequestMessage.EMPTYQUEUE.getMessage())) {
-                try {
-                    Thread.sleep(5);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            } else if (string.trim().equals(RequestMessage.TERMINATE.getMessage())) {
+            if (string.trim().equals(RequestMessage.TERMINATE.getMessage())) {
                 systemStatus.setSystemActivated(false);
             }
         }
     }
 
+    /**
+     * Subscribes to the Scheduler's events and starts a thread that receives them.
+     * Pushed events are not acknowledged, as the Transport delivers them.
+     */
+    private void subscribeToEvents() {
+        server.setReceiveTimeout(PUSH_WAIT_TIME);
+        server.subscribe();
+        Thread receiverThread = new Thread(() -> {
+            while (systemStatus.activated()) {
+                processReceivedObject(server.receive());
+            }
+        }, getClass().getSimpleName() + " Receiver");
+        receiverThread.start();
+    }
+
+    /**
+     * Sends the events in the event queue as soon as they are added.
+     * If batching is enabled, the pending events are sent together.
+     */
+    private void sendEventsWhileActivated() {
+        while (systemStatus.activated()) {
+            try {
+                SystemEvent event = pollEvent(PUSH_WAIT_TIME, TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    continue;
+                }
+                List<SystemEvent> events = batchLingerTime >= 0 ? collectPendingEvents(event) : List.of(event);
+                if (events.size() == 1) {
+                    server.send(event);
+                } else {
+                    server.sendBatch(events);
+                }
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
     /**
      * Initializes the ElevatorSubsystem with the specified number of Elevators.
      *
      * @param structure contains the information for initializing the elevators
      */
     public void initializeElevators(Structure structure) {
+        pushDeliveryEnabled = structure.isPushDeliveryEnabled();
+        batchLingerTime = structure.getBatchLingerTime();
+        monitorKeyframeInterval = structure.getMonitorKeyframeInterval();
+        localStopDecisionsEnabled = structure.isLocalStopDecisionsEnabled();
         // initialize the list of elevators
         for (int i = 1; i <= structure.getNumberOfElevators(); i++) {
-            Elevator elevator = new Elevator(i, this);
+            Elevator elevator = new Elevator(i, this, new RequestQueue(structure.getNumberOfFloors()));
             elevator.setTravelTime(structure.getElevatorTime());
             elevator.setDoorTime(structure.getDoorsTime());
+            elevator.setLocalStopDecisionsEnabled(localStopDecisionsEnabled);
             addElevator(elevator);
         }
     }
 
     /**
      * Initializes the Elevator threads for the ElevatorSubsystem.
+     * The threads are virtual threads if virtual threads are enabled.
      */
     public void initializeElevatorThreads() {
+        Thread.Builder threadBuilder = virtualThreadsEnabled ? Thread.ofVirtual() : Thread.ofPlatform();
         for (Elevator elevator : elevatorList) {
-            Thread newElevatorThread = new Thread(elevator, elevator.getClass().getSimpleName() + " " + elevator.getElevatorNumber());
+            Thread newElevatorThread = threadBuilder.name(elevator.getClass().getSimpleName() + " " + elevator.getElevatorNumber()).unstarted(elevator);
             elevatorThreads.add(newElevatorThread);
         }
         // Start elevator Threads
@@ -178,7 +533,13 @@ public class ElevatorSubsystem implements Runnable, SystemEventListener {
     }
 
     public static void main(String[] args) {
-        ElevatorSubsystem elevatorSubsystem = new ElevatorSubsystem();
+        // exchange messages with the Scheduler process on the same host through shared memory with the argument --shared-memory
+        ElevatorSubsystem elevatorSubsystem = List.of(args).contains("--shared-memory") ?
+                new ElevatorSubsystem(new Client(new SharedMemoryTransport(SharedMemoryTransport.DEFAULT_DIRECTORY, Port.SERVER.getNumber()),
+                        Port.SERVER_TO_CLIENT.getNumber(), Port.CLIENT_TO_SERVER.getNumber())) :
+                new ElevatorSubsystem();
+        // run the elevators on virtual threads with the argument --virtual-threads
+        elevatorSubsystem.setVirtualThreadsEnabled(List.of(args).contains("--virtual-threads"));
         Structure structure = elevatorSubsystem.receiveStructure();
         elevatorSubsystem.initializeElevators(structure);
 
@@ -0,0 +1,65 @@
+package elevatorsystem;
+
+import requests.ServiceRequest;
+
+/**
+ * FloorSet is a set of ServiceRequests used by RequestQueue. It holds at most
+ * one request per floor and orders its requests by floor number, either
+ * ascending or descending. When a request is added for a floor that already
+ * has a request, the request already in the set is kept.
+ *
+ * @author Julian, Liam Tripp
+ */
+interface FloorSet {
+
+    /**
+     * Adds a request to the FloorSet if its floor does not already have a request.
+     *
+     * @param request the ServiceRequest to add
+     * @return true if the request was added, false if its floor already has a request
+     */
+    boolean add(ServiceRequest request);
+
+    /**
+     * Returns the first request in the FloorSet's order.
+     *
+     * @return the first request, null if the FloorSet is empty
+     */
+    ServiceRequest first();
+
+    /**
+     * Returns the last request in the FloorSet's order.
+     *
+     * @return the last request, null if the FloorSet is empty
+     */
+    ServiceRequest last();
+
+    /**
+     * Removes and returns the first request in the FloorSet's order.
+     *
+     * @return the first request, null if the FloorSet is empty
+     */
+    ServiceRequest pollFirst();
+
+    /**
+     * Returns the number of requests in the FloorSet.
+     *
+     * @return the number of requests
+     */
+    int size();
+
+    /**
+     * Determines whether the FloorSet is empty.
+     *
+     * @return true if the FloorSet has no requests, false otherwise
+     */
+    boolean isEmpty();
+
+    /**
+     * Returns a copy of the FloorSet with the same order and requests.
+     * Changes to the copy do not affect the FloorSet.
+     *
+     * @return a copy of the FloorSet
+     */
+    FloorSet copy();
+}
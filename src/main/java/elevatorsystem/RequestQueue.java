@@ -4,34 +4,102 @@ import requests.ElevatorRequest;
 import requests.ServiceRequest;
 import systemwide.Direction;
 
-import java.util.Collections;
-import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * RequestQueue maintains queues of serviceRequests that indicate
  * the floors  for an elevator to visit. It also provides methods
  * to manage and modify the queues.
  *
+ * The queues are FloorSets, backed either by TreeSets or, for a
+ * building with a known number of floors, by floor bitsets.
+ *
  * @author Julian, Liam Tripp
  */
 public class RequestQueue {
 
-    private volatile TreeSet<ServiceRequest> currentDirectionQueue;
-    private volatile TreeSet<ServiceRequest> oppositeDirectionQueue;
+    private volatile FloorSet currentDirectionQueue;
+    private volatile FloorSet oppositeDirectionQueue;
     /**
      * MissedRequests is for requests in the elevators' serviceDirection whose
      * floorNumbers are below (if serviceDirection is UP) or above
      * (if serviceDirection is DOWN) the elevator's floor.
      */
-    private final TreeSet<ServiceRequest> missedRequests;
+    private final FloorSet missedRequests;
+    /*
+     * Projection of the route through the queues, in the order that they are served.
+     * Each queue holds at most one request per floor and is traversed monotonically,
+     * so its stops are its size and its distance is the span between its first and last
+     * floors. The projection is updated whenever the queues change, which allows
+     * getExpectedTime to be computed without iterating over the queues.
+     */
+    private int projectedFirstFloor;
+    private int projectedLastFloor;
+    private int projectedStops;
+    private int projectedDistance;
+    // guards the queues and the projection, for reads as well as changes; the Elevator waits on requestAdded while idle
+    private final ReentrantLock lock;
+    private final Condition requestAdded;
 
     /**
-     * Constructor for RequestQueue.
+     * Constructor for RequestQueue with queues backed by TreeSets.
      */
     public RequestQueue() {
-        currentDirectionQueue = new TreeSet<>();
-        oppositeDirectionQueue = new TreeSet<>(Collections.reverseOrder());
-        missedRequests = new TreeSet<>();
+        currentDirectionQueue = new TreeFloorSet(false);
+        oppositeDirectionQueue = new TreeFloorSet(true);
+        missedRequests = new TreeFloorSet(false);
+        lock = new ReentrantLock();
+        requestAdded = lock.newCondition();
+        updateProjection();
+    }
+
+    /**
+     * Constructor for RequestQueue with queues backed by floor bitsets.
+     * Adding and removing requests does not allocate memory for floors up to numberOfFloors.
+     *
+     * @param numberOfFloors the number of floors in the building
+     */
+    public RequestQueue(int numberOfFloors) {
+        currentDirectionQueue = new BitFloorSet(numberOfFloors, false);
+        oppositeDirectionQueue = new BitFloorSet(numberOfFloors, true);
+        missedRequests = new BitFloorSet(numberOfFloors, false);
+        lock = new ReentrantLock();
+        requestAdded = lock.newCondition();
+        updateProjection();
+    }
+
+    /**
+     * Constructor for RequestQueue with the specified queues.
+     *
+     * @param currentDirectionQueue the queue of the direction being served
+     * @param oppositeDirectionQueue the queue of the opposite direction
+     * @param missedRequests the queue of requests missed in the direction being served
+     */
+    private RequestQueue(FloorSet currentDirectionQueue, FloorSet oppositeDirectionQueue, FloorSet missedRequests) {
+        this.currentDirectionQueue = currentDirectionQueue;
+        this.oppositeDirectionQueue = oppositeDirectionQueue;
+        this.missedRequests = missedRequests;
+        lock = new ReentrantLock();
+        requestAdded = lock.newCondition();
+        updateProjection();
+    }
+
+    /**
+     * Returns a copy of the RequestQueue with the same requests in the same queues.
+     * The copy can be changed, for example to see how a new request would be served,
+     * without affecting the RequestQueue.
+     *
+     * @return a copy of the RequestQueue
+     */
+    public RequestQueue copy() {
+        lock.lock();
+        try {
+            return new RequestQueue(currentDirectionQueue.copy(), oppositeDirectionQueue.copy(), missedRequests.copy());
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -42,49 +110,86 @@ public class RequestQueue {
      * @param request the ServiceRequest to be added to the RequestQueue.
      */
     public void addRequest(int elevatorFloorNumber, Direction serviceDirection, ServiceRequest request) {
-        int floorNumber = request.getFloorNumber();
-        Direction requestDirection = request.getDirection();
+        lock.lock();
+        try {
+            int floorNumber = request.getFloorNumber();
+            Direction requestDirection = request.getDirection();
 
-        if (floorNumber < 0 || elevatorFloorNumber < 0) {
-            throw new IllegalArgumentException("FloorNumber must be greater than zero.");
-        }
+            if (floorNumber < 0 || elevatorFloorNumber < 0) {
+                throw new IllegalArgumentException("FloorNumber must be greater than zero.");
+            }
+
+            FloorSet queueToAddTo;
+            // if the elevator's floor number == request floor number
+            if (elevatorFloorNumber == floorNumber) {
+                // if serviceDirection is the same as the request direction,
+                if (serviceDirection == requestDirection) {
+                    queueToAddTo = currentDirectionQueue;
+                } else {
+                    queueToAddTo = oppositeDirectionQueue;
+                }
+            } else if (serviceDirection == requestDirection) {
+                // request is in same direction as elevator
+                // elevator can serve requests
 
-        TreeSet<ServiceRequest> queueToAddTo;
-        // if the elevator's floor number == request floor number
-        if (elevatorFloorNumber == floorNumber) {
-            // if serviceDirection is the same as the request direction,
-            if (serviceDirection == requestDirection) {
-                queueToAddTo = currentDirectionQueue;
+                // case: requestFloor is above elevatorFloor and requestDirection is Up
+                // OR requestFloor is below elevatorFloor and serviceDirection is DOwn
+                if ((floorNumber < elevatorFloorNumber && serviceDirection == Direction.DOWN) ||
+                        (floorNumber > elevatorFloorNumber && serviceDirection == Direction.UP)) {
+                    queueToAddTo = currentDirectionQueue;
+                } else {
+                    // elevator can't serve request this cycle
+                    queueToAddTo = missedRequests;
+                }
             } else {
+                // serviceDirection is opposite direction to requestDirection
                 queueToAddTo = oppositeDirectionQueue;
             }
-        } else if (serviceDirection == requestDirection) {
-            // request is in same direction as elevator
-            // elevator can serve requests
-
-            // case: requestFloor is above elevatorFloor and requestDirection is Up
-            // OR requestFloor is below elevatorFloor and serviceDirection is DOwn
-            if ((floorNumber < elevatorFloorNumber && serviceDirection == Direction.DOWN) ||
-                    (floorNumber > elevatorFloorNumber && serviceDirection == Direction.UP)) {
-                queueToAddTo = currentDirectionQueue;
+
+            // add to selected queue
+            if (request instanceof ElevatorRequest elevatorRequest) {
+                ServiceRequest requestAtFloor = new ServiceRequest(request.getTime(), elevatorRequest.getDesiredFloor(), request.getDirection(), request.getOrigin());
+                ServiceRequest requestInElevator = new ServiceRequest(request.getTime(), request.getFloorNumber(), request.getDirection(), request.getOrigin());
+                queueToAddTo.add(requestAtFloor);
+                queueToAddTo.add(requestInElevator);
             } else {
-                // elevator can't serve request this cycle
-                queueToAddTo = missedRequests;
+                queueToAddTo.add(request);
             }
-        } else {
-            // serviceDirection is opposite direction to requestDirection
-            queueToAddTo = oppositeDirectionQueue;
+            updateProjection();
+            // wake any elevator waiting for work
+            requestAdded.signalAll();
+        } finally {
+            lock.unlock();
         }
+    }
 
-        // add to selected queue
-        if (request instanceof ElevatorRequest elevatorRequest) {
-            ServiceRequest requestAtFloor = new ServiceRequest(request.getTime(), elevatorRequest.getDesiredFloor(), request.getDirection(), request.getOrigin());
-            ServiceRequest requestInElevator = new ServiceRequest(request.getTime(), request.getFloorNumber(), request.getDirection(), request.getOrigin());
-            queueToAddTo.add(requestAtFloor);
-            queueToAddTo.add(requestInElevator);
-        } else {
-            queueToAddTo.add(request);
+    /**
+     * Blocks until the RequestQueue has a request or the timeout expires.
+     * Returns immediately if the RequestQueue already has a request.
+     *
+     * @param timeout the maximum time to wait in milliseconds, zero to wait indefinitely
+     * @return true if the RequestQueue has a request, false otherwise
+     */
+    public boolean awaitRequest(long timeout) {
+        lock.lock();
+        try {
+            long remainingTime = TimeUnit.MILLISECONDS.toNanos(timeout);
+            while (isEmpty()) {
+                if (timeout == 0) {
+                    requestAdded.await();
+                } else if (remainingTime <= 0) {
+                    break;
+                } else {
+                    remainingTime = requestAdded.awaitNanos(remainingTime);
+                }
+            }
+        } catch (InterruptedException e) {
+            // preserve the interrupt so that the elevator can respond to it
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
         }
+        return !isEmpty();
     }
 
     /**
@@ -93,10 +198,17 @@ public class RequestQueue {
      * @return the request at the head of the currentDirectionQueue, -1 if queue is empty
      */
     public ServiceRequest removeRequest() {
-        if (!currentDirectionQueue.isEmpty()) {
-            return currentDirectionQueue.pollFirst();
-        } else {
-            return null;
+        lock.lock();
+        try {
+            if (!currentDirectionQueue.isEmpty()) {
+                ServiceRequest removedRequest = currentDirectionQueue.pollFirst();
+                updateProjection();
+                return removedRequest;
+            } else {
+                return null;
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -106,13 +218,17 @@ public class RequestQueue {
      * @return nextFloor the next floor in queue, -1 if the currentDirectionQueue is empty
      */
     public ServiceRequest peekNextRequest() {
-        if (!currentDirectionQueue.isEmpty()) {
-            return currentDirectionQueue.first();
-        } else {
-            System.err.println("RequestQueue.peekNextFloor should not be accessed " +
-                    "while the active queue is empty. Swapping should be done beforehand.");
-            return null;
+        lock.lock();
+        try {
+            if (!currentDirectionQueue.isEmpty()) {
+                return currentDirectionQueue.first();
+            }
+        } finally {
+            lock.unlock();
         }
+        System.err.println("RequestQueue.peekNextFloor should not be accessed " +
+                "while the active queue is empty. Swapping should be done beforehand.");
+        return null;
     }
 
     /**
@@ -121,23 +237,29 @@ public class RequestQueue {
      * @return true if swapped to queue in opposite direction of current queue, false otherwise
      */
     public boolean swapQueues() {
-        boolean status = false;
+        lock.lock();
+        try {
+            boolean status = false;
 
-        if (currentDirectionQueue.isEmpty()) {
-            // add any missed requests to current queue
-            while (!missedRequests.isEmpty()) {
-                currentDirectionQueue.add(missedRequests.pollFirst());
-            }
+            if (currentDirectionQueue.isEmpty()) {
+                // add any missed requests to current queue
+                while (!missedRequests.isEmpty()) {
+                    currentDirectionQueue.add(missedRequests.pollFirst());
+                }
 
-            // switch to opposite direction queue if possible
-            if (!oppositeDirectionQueue.isEmpty()) {
-                TreeSet<ServiceRequest> tempQueue = currentDirectionQueue;
-                currentDirectionQueue = oppositeDirectionQueue;
-                oppositeDirectionQueue = tempQueue;
-                status = true;
+                // switch to opposite direction queue if possible
+                if (!oppositeDirectionQueue.isEmpty()) {
+                    FloorSet tempQueue = currentDirectionQueue;
+                    currentDirectionQueue = oppositeDirectionQueue;
+                    oppositeDirectionQueue = tempQueue;
+                    status = true;
+                }
+                updateProjection();
             }
+            return status;
+        } finally {
+            lock.unlock();
         }
-        return status;
     }
 
     /**
@@ -146,7 +268,12 @@ public class RequestQueue {
      * @return true if all of the RequestQueue's queues are empty, false otherwise
      */
     public boolean isEmpty() {
-        return isCurrentQueueEmpty() && isOppositeQueueEmpty() && isMissedQueueEmpty();
+        lock.lock();
+        try {
+            return currentDirectionQueue.isEmpty() && oppositeDirectionQueue.isEmpty() && missedRequests.isEmpty();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -155,7 +282,12 @@ public class RequestQueue {
      * @return true if the RequestQueue's active queue is empty, false otherwise
      */
     public boolean isCurrentQueueEmpty() {
-        return currentDirectionQueue.isEmpty();
+        lock.lock();
+        try {
+            return currentDirectionQueue.isEmpty();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -164,7 +296,12 @@ public class RequestQueue {
      * @return true if the requestQueue's active queue is empty, false otherwise
      */
     public boolean isOppositeQueueEmpty() {
-        return oppositeDirectionQueue.isEmpty();
+        lock.lock();
+        try {
+            return oppositeDirectionQueue.isEmpty();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -173,62 +310,103 @@ public class RequestQueue {
      * @return status true if empty
      */
     public boolean isMissedQueueEmpty() {
-        return missedRequests.isEmpty();
+        lock.lock();
+        try {
+            return missedRequests.isEmpty();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Prints the various queues in RequestQueue.
      */
     @Override
-    public synchronized String toString() {
-        String messageToPrint = "";
-        if (!isCurrentQueueEmpty()) {
-            messageToPrint += "CurrentDirectionQueue: " + currentDirectionQueue.toString() + "\n";
+    public String toString() {
+        lock.lock();
+        try {
+            String messageToPrint = "";
+            if (!isCurrentQueueEmpty()) {
+                messageToPrint += "CurrentDirectionQueue: " + currentDirectionQueue.toString() + "\n";
+            }
+            if (!isOppositeQueueEmpty()) {
+                messageToPrint += "OppositeDirectionQueue: " + oppositeDirectionQueue.toString() + "\n";
+            }
+            if (!isMissedQueueEmpty()) {
+                messageToPrint += "MissedQueue: " + missedRequests.toString() + "\n";
+            }
+            return messageToPrint;
+        } finally {
+            lock.unlock();
         }
-        if (!isOppositeQueueEmpty()) {
-            messageToPrint += "OppositeDirectionQueue: " + oppositeDirectionQueue.toString() + "\n";
+    }
+
+    /**
+     * Recalculates the projected route through the currentDirectionQueue,
+     * the oppositeDirectionQueue and the missedRequests, in that order.
+     */
+    private void updateProjection() {
+        projectedFirstFloor = -1;
+        projectedLastFloor = -1;
+        projectedStops = 0;
+        projectedDistance = 0;
+        addToProjection(currentDirectionQueue);
+        addToProjection(oppositeDirectionQueue);
+        addToProjection(missedRequests);
+    }
+
+    /**
+     * Appends the route through a queue to the projected route.
+     *
+     * @param queue the queue that is served after the queues already in the projection
+     */
+    private void addToProjection(FloorSet queue) {
+        if (queue.isEmpty()) {
+            return;
         }
-        if (!isMissedQueueEmpty()) {
-            messageToPrint += "MissedQueue: " + missedRequests.toString() + "\n";
+        int firstFloor = queue.first().getFloorNumber();
+        int lastFloor = queue.last().getFloorNumber();
+        projectedStops += queue.size();
+        projectedDistance += Math.abs(lastFloor - firstFloor);
+
+        if (projectedFirstFloor == -1) {
+            projectedFirstFloor = firstFloor;
+        } else if (firstFloor == projectedLastFloor) {
+            // the elevator is already at the queue's first floor
+            projectedStops--;
+        } else {
+            projectedDistance += Math.abs(firstFloor - projectedLastFloor);
         }
-        return messageToPrint;
+        projectedLastFloor = lastFloor;
     }
 
     /**
      * Gets the total expected time that the elevator will need to take to
      * perform its current requests along with the new elevatorRequest.
+     * The time is computed from the projected route, so it takes constant time.
      *
      * @param elevatorFloor the floor the elevator starts at
+     * @param loadTime the time spent at each floor visited
+     * @param travelTime the time to travel between adjacent floors
      * @return a double containing the elevator's total expected queue time
      */
     public double getExpectedTime(int elevatorFloor, int loadTime, int travelTime) {
-        double queueTime = 0;
-
-        for (ServiceRequest request : currentDirectionQueue) {
-            int floor = request.getFloorNumber();
-            if (elevatorFloor != floor) {
-                queueTime += loadTime + requestTime(elevatorFloor, floor, travelTime);
-                elevatorFloor = floor;
+        lock.lock();
+        try {
+            if (projectedFirstFloor == -1) {
+                return 0.0;
             }
-        }
-
-        for (ServiceRequest request : oppositeDirectionQueue) {
-            int floor = request.getFloorNumber();
-            if (elevatorFloor != floor) {
-                queueTime += loadTime + requestTime(elevatorFloor, floor, travelTime);
-                elevatorFloor = floor;
+            long stops = projectedStops;
+            if (projectedFirstFloor == elevatorFloor) {
+                // the elevator does not need to move to its first request
+                stops--;
             }
+            long distance = projectedDistance + Math.abs(projectedFirstFloor - elevatorFloor);
+            double queueTime = stops * loadTime + distance * Math.abs(travelTime);
+            return queueTime / 1000;
+        } finally {
+            lock.unlock();
         }
-
-        for (ServiceRequest request : missedRequests) {
-            int floor = request.getFloorNumber();
-            if (elevatorFloor != floor) {
-                queueTime += loadTime + requestTime(elevatorFloor, floor, travelTime);
-                elevatorFloor = floor;
-            }
-        }
-
-        return queueTime / 1000;
     }
 
     /**
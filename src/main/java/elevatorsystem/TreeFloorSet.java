@@ -0,0 +1,76 @@
+package elevatorsystem;
+
+import requests.ServiceRequest;
+
+import java.util.Collections;
+import java.util.TreeSet;
+
+/**
+ * TreeFloorSet is a FloorSet backed by a TreeSet ordered by
+ * ServiceRequest's compareTo, which compares floor numbers.
+ *
+ * @author Julian, Liam Tripp
+ */
+class TreeFloorSet implements FloorSet {
+
+    private final TreeSet<ServiceRequest> requests;
+
+    /**
+     * Constructor for TreeFloorSet.
+     *
+     * @param descending true if requests are ordered by descending floor number, false if ascending
+     */
+    TreeFloorSet(boolean descending) {
+        requests = descending ? new TreeSet<>(Collections.reverseOrder()) : new TreeSet<>();
+    }
+
+    /**
+     * Constructor for a TreeFloorSet with the same order and requests as another.
+     *
+     * @param treeFloorSet the TreeFloorSet to copy
+     */
+    private TreeFloorSet(TreeFloorSet treeFloorSet) {
+        // copying a SortedSet keeps its ordering
+        requests = new TreeSet<>(treeFloorSet.requests);
+    }
+
+    @Override
+    public boolean add(ServiceRequest request) {
+        return requests.add(request);
+    }
+
+    @Override
+    public ServiceRequest first() {
+        return requests.isEmpty() ? null : requests.first();
+    }
+
+    @Override
+    public ServiceRequest last() {
+        return requests.isEmpty() ? null : requests.last();
+    }
+
+    @Override
+    public ServiceRequest pollFirst() {
+        return requests.pollFirst();
+    }
+
+    @Override
+    public int size() {
+        return requests.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return requests.isEmpty();
+    }
+
+    @Override
+    public FloorSet copy() {
+        return new TreeFloorSet(this);
+    }
+
+    @Override
+    public String toString() {
+        return requests.toString();
+    }
+}
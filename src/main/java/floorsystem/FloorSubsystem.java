@@ -3,7 +3,9 @@ package floorsystem;
 import client_server_host.Client;
 import client_server_host.Port;
 import client_server_host.RequestMessage;
+import client_server_host.SharedMemoryTransport;
 import requests.*;
+import systemwide.BoundedMpscQueue;
 import systemwide.InputFileReader;
 import systemwide.Structure;
 import systemwide.SystemStatus;
@@ -11,6 +13,9 @@ import systemwide.SystemStatus;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * FloorSubsystem manages the floors and their requests to the Scheduler.
@@ -20,25 +25,48 @@ import java.util.Collections;
 public class FloorSubsystem implements Runnable, SystemEventListener {
 
     private final Client client;
-    private final ArrayList<SystemEvent> eventList;
+    private final BoundedMpscQueue<SystemEvent> eventList;
+    private final AtomicLong droppedEvents;
+    // thread that sends the events in the event list, which only it can make space in
+    private volatile Thread eventSender;
     private final ArrayList<SystemEvent> requestList;
     private final ArrayList<Floor> floorList;
     private final SystemStatus systemStatus;
     private long startTime;
     private long delayToSendRequest;
+    private boolean pushDeliveryEnabled;
+    private int batchLingerTime;
+    // time to wait for events before checking whether the system is still activated
+    private static final int PUSH_WAIT_TIME = 50; // milliseconds
+    // maximum number of events waiting to be sent
+    private static final int EVENT_QUEUE_CAPACITY = 4096;
+    // time a thread waits for space in the full event list of a running FloorSubsystem
+    private static final int BACKPRESSURE_WAIT_TIME = 1000; // milliseconds
 
     /**
      * Constructor for FloorSubsystem.
      */
     public FloorSubsystem() {
-        client = new Client(Port.CLIENT.getNumber());
+        this(new Client(Port.CLIENT.getNumber()));
+    }
+
+    /**
+     * Constructor for FloorSubsystem that communicates through the specified Client.
+     *
+     * @param client a Client connected to the Schedulers serving the floors
+     */
+    public FloorSubsystem(Client client) {
+        this.client = client;
         InputFileReader inputFileReader = new InputFileReader();
         requestList = inputFileReader.readInputFile(InputFileReader.INPUTS_FILENAME);
-        eventList = new ArrayList<>();
+        eventList = new BoundedMpscQueue<>(EVENT_QUEUE_CAPACITY);
+        droppedEvents = new AtomicLong();
         floorList = new ArrayList<>();
         systemStatus = new SystemStatus(false);
         delayToSendRequest = 0;
         startTime = -1;
+        pushDeliveryEnabled = false;
+        batchLingerTime = -1;
     }
 
     /**
@@ -51,9 +79,15 @@ public class FloorSubsystem implements Runnable, SystemEventListener {
     public void run() {
         Collections.reverse(requestList);
 
+        eventSender = Thread.currentThread();
         systemStatus.setSystemActivated(true);
-        while (systemStatus.activated()) {
-            subsystemUDPMethod();
+        if (pushDeliveryEnabled) {
+            subscribeToEvents();
+            sendEventsWhileActivated();
+        } else {
+            while (systemStatus.activated()) {
+                subsystemUDPMethod();
+            }
         }
         System.out.println(getClass().getSimpleName() + " Thread terminated");
     }
@@ -67,7 +101,7 @@ public class FloorSubsystem implements Runnable, SystemEventListener {
     public void processApproachEvent(ApproachEvent approachEvent) {
         Floor floor = floorList.get(approachEvent.getFloorNumber() - 1);
         floor.receiveApproachEvent(approachEvent);
-        eventList.add(approachEvent);
+        addEventToQueue(approachEvent);
     }
 
     /**
@@ -80,13 +114,35 @@ public class FloorSubsystem implements Runnable, SystemEventListener {
     }
 
     /**
-     * Adds a SystemEvent to a System's queue of events.
+     * Adds a SystemEvent to a System's queue of events. Events are sent in the order they are added.
+     * If the queue is full while the FloorSubsystem is running, the calling thread waits for
+     * the events ahead of it to be sent, and the event is dropped if no space is made in time.
+     * If the FloorSubsystem is not running, or the calling thread is the one that sends the events,
+     * nothing would make space, so the event is dropped at once.
      *
      * @param systemEvent the SystemEvent to add
      */
     @Override
     public void addEventToQueue(SystemEvent systemEvent) {
-        eventList.add(systemEvent);
+        if (eventList.offer(systemEvent)) {
+            return;
+        }
+        if (!systemStatus.activated() || Thread.currentThread() == eventSender ||
+                !eventList.offer(systemEvent, BACKPRESSURE_WAIT_TIME, TimeUnit.MILLISECONDS)) {
+            droppedEvents.incrementAndGet();
+            if (systemStatus.activated()) {
+                System.err.println("Error: The FloorSubsystem's event list is full. " + systemEvent + " was dropped.");
+            }
+        }
+    }
+
+    /**
+     * Returns the number of events dropped because the event list was full.
+     *
+     * @return the number of dropped events
+     */
+    public long getDroppedEventCount() {
+        return droppedEvents.get();
     }
 
     /**
@@ -104,7 +160,7 @@ public class FloorSubsystem implements Runnable, SystemEventListener {
      * @param systemEvent a SystemEvent originating from the FloorSubsystem
      */
     public void addEvent(SystemEvent systemEvent) {
-        eventList.add(systemEvent);
+        addEventToQueue(systemEvent);
     }
 
     /**
@@ -122,7 +178,29 @@ public class FloorSubsystem implements Runnable, SystemEventListener {
      * @param serviceRequest serviceRequest to be added to the list of requests.
      */
     public void addRequest(ServiceRequest serviceRequest) {
-        requestList.add(serviceRequest);
+        synchronized (requestList) {
+            requestList.add(serviceRequest);
+        }
+    }
+
+    /**
+     * Sets whether the Scheduler pushes events to the FloorSubsystem instead of the
+     * FloorSubsystem requesting them.
+     *
+     * @param pushDeliveryEnabled true if events are pushed, false if they are requested
+     */
+    public void setPushDeliveryEnabled(boolean pushDeliveryEnabled) {
+        this.pushDeliveryEnabled = pushDeliveryEnabled;
+    }
+
+    /**
+     * Sets how long the FloorSubsystem waits for more events before sending its
+     * pending events together in a batch. A negative time disables batching.
+     *
+     * @param batchLingerTime the batch linger time in milliseconds
+     */
+    public void setBatchLingerTime(int batchLingerTime) {
+        this.batchLingerTime = batchLingerTime;
     }
 
     /**
@@ -145,34 +223,149 @@ public class FloorSubsystem implements Runnable, SystemEventListener {
     }
 
     /**
-     * Sends and receives messages for the system using UDP packets.
+     * Returns the milliseconds remaining until the next request may be sent.
+     *
+     * @return the time until the delay to send a request elapses, zero if it has elapsed
      */
-    private void subsystemUDPMethod() {
-        if (!requestList.isEmpty() && delayTimeElapsed()) {
+    private long timeUntilDelayElapses() {
+        long elapsedTime = (System.nanoTime() - startTime) / 1000000;
+        return Math.max(0, delayToSendRequest - elapsedTime);
+    }
+
+    /**
+     * Removes and returns the next request if the delay to send it has elapsed.
+     *
+     * @return the next request with its time updated to now, null if no request may be sent yet
+     */
+    private SystemEvent takeNextRequest() {
+        synchronized (requestList) {
+            if (requestList.isEmpty() || !delayTimeElapsed()) {
+                return null;
+            }
             SystemEvent request = requestList.remove(requestList.size() - 1);
             // update request's time to now
             request.setTime(LocalTime.now());
+            return request;
+        }
+    }
+
+    /**
+     * Sends and receives messages for the system using UDP packets.
+     */
+    private void subsystemUDPMethod() {
+        SystemEvent request = takeNextRequest();
+        if (request != null) {
             client.sendAndReceiveReply(request);
             startTime = System.nanoTime();
+        } else if (!eventList.isEmpty() && batchLingerTime >= 0) {
+            sendBatchAndReceiveReplies(collectPendingEvents(eventList.poll()));
         } else if (!eventList.isEmpty()) {
-            client.sendAndReceiveReply(eventList.remove(eventList.size() - 1));
+            client.sendAndReceiveReply(eventList.poll());
         } else {
             Object object = client.sendAndReceiveReply(RequestMessage.REQUEST.getMessage());
 
-            if (object instanceof ApproachEvent approachEvent) {
-                processApproachEvent(approachEvent);
-            } else if (object instanceof ElevatorRequest elevatorRequest) {
-                requestList.add(elevatorRequest);
-            } else if (object instanceof String string) {
-                if (string.trim().equals(RequestMessage.EMPTYQUEUE.getMessage())) {
-                    try {
-                        Thread.sleep(5);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                } else if (string.trim().equals(RequestMessage.TERMINATE.getMessage())) {
-                    systemStatus.setSystemActivated(false);
+            if (object instanceof String string && string.trim().equals(RequestMessage.EMPTYQUEUE.getMessage())) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            } else {
+                processReceivedObject(object);
+            }
+        }
+    }
+
+    /**
+     * Sends a batch of events and receives the Scheduler's reply to each packet.
+     *
+     * @param events the events to send
+     */
+    private void sendBatchAndReceiveReplies(List<SystemEvent> events) {
+        if (events.size() == 1) {
+            processReceivedObject(client.sendAndReceiveReply(events.get(0)));
+            return;
+        }
+        int packetsSent = client.sendBatch(events);
+        for (int i = 0; i < packetsSent; i++) {
+            processReceivedObject(client.receive());
+        }
+    }
+
+    /**
+     * Collects the events that are added to the event list within the batch linger
+     * time, or until they fill a packet, and any events that are already pending.
+     * Events are collected in the order that they would be sent individually.
+     *
+     * @param firstEvent the first event of the batch
+     * @return the events to send in a batch
+     */
+    private List<SystemEvent> collectPendingEvents(SystemEvent firstEvent) {
+        return client.collectPendingEvents(firstEvent, batchLingerTime, eventList::poll);
+    }
+
+    /**
+     * Processes an object received from the Scheduler.
+     * A batch of events is processed in order.
+     *
+     * @param object the object received from the Scheduler
+     */
+    private void processReceivedObject(Object object) {
+        if (object instanceof List<?> events) {
+            for (Object event : events) {
+                processReceivedObject(event);
+            }
+        } else if (object instanceof ApproachEvent approachEvent) {
+            processApproachEvent(approachEvent);
+        } else if (object instanceof ElevatorRequest elevatorRequest) {
+            addRequest(elevatorRequest);
+        } else if (object instanceof String string) {
+            if (string.trim().equals(RequestMessage.TERMINATE.getMessage())) {
+                systemStatus.setSystemActivated(false);
+            }
+        }
+    }
+
+    /**
+     * Subscribes to the Scheduler's events and starts a thread that receives them.
+     * Pushed events are not acknowledged, as the Transport delivers them.
+     */
+    private void subscribeToEvents() {
+        client.setReceiveTimeout(PUSH_WAIT_TIME);
+        client.subscribe();
+        Thread receiverThread = new Thread(() -> {
+            while (systemStatus.activated()) {
+                processReceivedObject(client.receive());
+            }
+        }, getClass().getSimpleName() + " Receiver");
+        receiverThread.start();
+    }
+
+    /**
+     * Sends requests once their delay has elapsed and other events as soon as they are added.
+     */
+    private void sendEventsWhileActivated() {
+        while (systemStatus.activated()) {
+            SystemEvent request = takeNextRequest();
+            if (request != null) {
+                client.send(request);
+                startTime = System.nanoTime();
+                continue;
+            }
+            try {
+                long waitTime = Math.min(PUSH_WAIT_TIME, Math.max(1, timeUntilDelayElapses()));
+                SystemEvent event = eventList.poll(waitTime, TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    continue;
+                }
+                List<SystemEvent> events = batchLingerTime >= 0 ? collectPendingEvents(event) : List.of(event);
+                if (events.size() == 1) {
+                    client.send(event);
+                } else {
+                    client.sendBatch(events);
                 }
+            } catch (InterruptedException e) {
+                e.printStackTrace();
             }
         }
     }
@@ -184,6 +377,8 @@ public class FloorSubsystem implements Runnable, SystemEventListener {
      * @param structure contains information about the system
      */
     public void initializeFloors(Structure structure) {
+        pushDeliveryEnabled = structure.isPushDeliveryEnabled();
+        batchLingerTime = structure.getBatchLingerTime();
         for (int i = 1; i <= structure.getNumberOfFloors(); i++) {
             Floor floor = new Floor(i, this);
             this.addFloor(floor);
@@ -218,7 +413,11 @@ public class FloorSubsystem implements Runnable, SystemEventListener {
     }
 
     public static void main(String[] args) {
-        FloorSubsystem floorSubsystem = new FloorSubsystem();
+        // exchange messages with the Scheduler process on the same host through shared memory with the argument --shared-memory
+        FloorSubsystem floorSubsystem = List.of(args).contains("--shared-memory") ?
+                new FloorSubsystem(new Client(new SharedMemoryTransport(SharedMemoryTransport.DEFAULT_DIRECTORY, Port.CLIENT.getNumber()),
+                        Port.CLIENT_TO_SERVER.getNumber(), Port.SERVER_TO_CLIENT.getNumber())) :
+                new FloorSubsystem();
         Structure structure = floorSubsystem.receiveStructure();
 
         floorSubsystem.initializeFloors(structure);
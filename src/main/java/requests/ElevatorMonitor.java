@@ -7,17 +7,35 @@ import systemwide.Direction;
 import systemwide.Origin;
 
 import java.time.LocalTime;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * ElevatorMonitor retains Elevator information to allow the Scheduler to quickly decide
  * which Elevator to send new ServiceRequests to. Scheduler's list of ElevatorMonitors is
  * updated by Elevator sending ElevatorMonitors to Scheduler.
  *
+ * An ElevatorMonitor may be sent as a delta that only carries the fields that changed
+ * since the previous ElevatorMonitor of its elevator, which are marked by its changed
+ * fields. A keyframe carries every field, so that a receiver that missed a delta recovers.
+ *
  * @author Ryan Dash, Brady Norton
  * @version 2022/04/05
  */
 public class ElevatorMonitor extends SystemEvent {
 
+    // bits of the changed fields, one for each field that a delta may carry
+    public static final int CURRENT_FLOOR = 1;
+    public static final int SERVICE_DIRECTION = 1 << 1;
+    public static final int MOVEMENT_STATE = 1 << 2;
+    public static final int MOVEMENT_DIRECTION = 1 << 3;
+    public static final int DOORS_STATE = 1 << 4;
+    public static final int FAULT = 1 << 5;
+    public static final int HAS_NO_REQUESTS = 1 << 6;
+    public static final int QUEUE_TIME = 1 << 7;
+    public static final int CURRENT_REQUEST = 1 << 8;
+    public static final int ALL_FIELDS = (1 << 9) - 1;
+
     private int currentFloor;
     private Direction currentDirection;
     private MovementState state;
@@ -27,6 +45,9 @@ public class ElevatorMonitor extends SystemEvent {
     private boolean hasNoRequests;
     private double queueTime;
     private ServiceRequest currentRequest;
+    private int changedFields;
+    // notified whenever the ElevatorMonitor is updated; not sent with the ElevatorMonitor
+    private transient Consumer<ElevatorMonitor> updateListener;
 
     /**
      * Main Constructor for ElevatorMonitor.
@@ -44,6 +65,7 @@ public class ElevatorMonitor extends SystemEvent {
         doorsState = Doors.State.OPEN;
         fault = Fault.NONE;
         hasNoRequests = true;
+        changedFields = ALL_FIELDS;
     }
 
     /**
@@ -142,6 +164,43 @@ public class ElevatorMonitor extends SystemEvent {
         return hasNoRequests;
     }
 
+    /**
+     * Gets the floor the elevator will reach next in its service direction.
+     * This is the nearest floor at which the elevator can serve a new request.
+     *
+     * @return the next floor of the elevator
+     */
+    public int getNextFloor() {
+        if (currentDirection == Direction.UP) {
+            return currentFloor + 1;
+        } else if (currentDirection == Direction.DOWN) {
+            return currentFloor - 1;
+        }
+        return currentFloor;
+    }
+
+    /**
+     * Gets whether the elevator can serve the floor of a ServiceRequest before
+     * it changes its service direction. A moving elevator must be able to reach
+     * the floor after its next floor, while a stopped elevator can also serve
+     * its current floor.
+     *
+     * @param serviceRequest a ServiceRequest
+     * @return true if the request is in the same direction and the elevator has not passed its floor, false otherwise
+     */
+    public boolean isInPathOf(ServiceRequest serviceRequest) {
+        int requestFloor = serviceRequest.getFloorNumber();
+        boolean moving = state == MovementState.ACTIVE;
+        if (currentDirection != serviceRequest.getDirection()) {
+            return false;
+        } else if (currentDirection == Direction.UP) {
+            return moving ? getNextFloor() < requestFloor : currentFloor <= requestFloor;
+        } else if (currentDirection == Direction.DOWN) {
+            return moving ? getNextFloor() > requestFloor : currentFloor >= requestFloor;
+        }
+        return false;
+    }
+
     /**
      * Gets the currentRequest that the elevator is serving
      *
@@ -160,20 +219,122 @@ public class ElevatorMonitor extends SystemEvent {
         this.currentRequest = currentRequest;
     }
 
+    /**
+     * Gets the fields that the ElevatorMonitor carries, as a combination of the field bits.
+     *
+     * @return the changed fields of the ElevatorMonitor, ALL_FIELDS if it is a keyframe
+     */
+    public int getChangedFields() {
+        return changedFields;
+    }
+
+    /**
+     * Sets the fields that the ElevatorMonitor carries when it is sent.
+     *
+     * @param changedFields a combination of the field bits, ALL_FIELDS for a keyframe
+     */
+    public void setChangedFields(int changedFields) {
+        if ((changedFields & ~ALL_FIELDS) != 0) {
+            throw new IllegalArgumentException("Error: Invalid changed fields " + changedFields + ".");
+        }
+        this.changedFields = changedFields;
+    }
+
+    /**
+     * Gets whether the ElevatorMonitor carries every field.
+     *
+     * @return true if the ElevatorMonitor is a keyframe, false if it is a delta
+     */
+    public boolean isKeyframe() {
+        return changedFields == ALL_FIELDS;
+    }
+
+    /**
+     * Returns the fields whose values differ from those of a previous ElevatorMonitor.
+     *
+     * @param previousMonitor a previous ElevatorMonitor of the same elevator
+     * @return a combination of the field bits of the fields that changed
+     */
+    public int changedFieldsSince(ElevatorMonitor previousMonitor) {
+        int fields = 0;
+        if (currentFloor != previousMonitor.currentFloor) {
+            fields |= CURRENT_FLOOR;
+        }
+        if (currentDirection != previousMonitor.currentDirection) {
+            fields |= SERVICE_DIRECTION;
+        }
+        if (state != previousMonitor.state) {
+            fields |= MOVEMENT_STATE;
+        }
+        if (movementDirection != previousMonitor.movementDirection) {
+            fields |= MOVEMENT_DIRECTION;
+        }
+        if (doorsState != previousMonitor.doorsState) {
+            fields |= DOORS_STATE;
+        }
+        if (fault != previousMonitor.fault) {
+            fields |= FAULT;
+        }
+        if (hasNoRequests != previousMonitor.hasNoRequests) {
+            fields |= HAS_NO_REQUESTS;
+        }
+        if (Double.compare(queueTime, previousMonitor.queueTime) != 0) {
+            fields |= QUEUE_TIME;
+        }
+        if (!Objects.equals(currentRequest, previousMonitor.currentRequest)) {
+            fields |= CURRENT_REQUEST;
+        }
+        return fields;
+    }
+
     /**
      * Updates the ElevatorMonitor with the latest ElevatorMonitor information.
+     * Only the changed fields of the latest ElevatorMonitor are applied, so it may be a delta.
      *
      * @param elevatorMonitor an elevator monitor containing new elevator information
      */
     public void updateMonitor(ElevatorMonitor elevatorMonitor) {
-        this.queueTime = elevatorMonitor.getQueueTime();
-        this.state = elevatorMonitor.getState();
-        this.currentFloor = elevatorMonitor.getCurrentFloor();
-        this.currentDirection = elevatorMonitor.getDirection();
-        movementDirection = elevatorMonitor.getMovementDirection();
-        doorsState = elevatorMonitor.getDoorsState();
-        fault = elevatorMonitor.getFault();
-        this.hasNoRequests = elevatorMonitor.hasNoRequests();
+        int fields = elevatorMonitor.getChangedFields();
+        if ((fields & QUEUE_TIME) != 0) {
+            this.queueTime = elevatorMonitor.getQueueTime();
+        }
+        if ((fields & MOVEMENT_STATE) != 0) {
+            this.state = elevatorMonitor.getState();
+        }
+        if ((fields & CURRENT_FLOOR) != 0) {
+            this.currentFloor = elevatorMonitor.getCurrentFloor();
+        }
+        if ((fields & SERVICE_DIRECTION) != 0) {
+            this.currentDirection = elevatorMonitor.getDirection();
+        }
+        if ((fields & MOVEMENT_DIRECTION) != 0) {
+            movementDirection = elevatorMonitor.getMovementDirection();
+        }
+        if ((fields & DOORS_STATE) != 0) {
+            doorsState = elevatorMonitor.getDoorsState();
+        }
+        if ((fields & FAULT) != 0) {
+            fault = elevatorMonitor.getFault();
+        }
+        if ((fields & HAS_NO_REQUESTS) != 0) {
+            this.hasNoRequests = elevatorMonitor.hasNoRequests();
+        }
+        if ((fields & CURRENT_REQUEST) != 0) {
+            currentRequest = elevatorMonitor.getCurrentRequest();
+        }
+        if (updateListener != null) {
+            updateListener.accept(this);
+        }
+    }
+
+    /**
+     * Sets the listener that is notified whenever the ElevatorMonitor is updated.
+     * This allows a Scheduler to keep an index of its ElevatorMonitors up to date.
+     *
+     * @param updateListener the listener to notify, or null for none
+     */
+    public void setUpdateListener(Consumer<ElevatorMonitor> updateListener) {
+        this.updateListener = updateListener;
     }
 
     /**
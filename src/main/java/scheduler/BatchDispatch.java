@@ -0,0 +1,129 @@
+package scheduler;
+
+import elevatorsystem.MovementState;
+import requests.ElevatorMonitor;
+import requests.ElevatorRequest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * BatchDispatch assigns a batch of ElevatorRequests to elevators jointly instead
+ * of one at a time. The cost of an elevator serving a request is estimated by
+ * EstimatedTimeDispatch, and the batch is assigned greedily with regret: the
+ * request that would lose the most by not getting its best elevator is assigned
+ * first. A request also delays the other passengers of its elevator by every
+ * stop it adds, so requests that share floors are grouped into the same elevator
+ * and the others are spread over the elevators when that is cheaper.
+ *
+ * @author Liam Tripp, Julian
+ */
+public class BatchDispatch {
+
+    private final EstimatedTimeDispatch estimatedTimeDispatch;
+
+    /**
+     * Constructor for BatchDispatch.
+     *
+     * @param elevatorTime the time for an elevator to travel between adjacent floors in milliseconds
+     * @param doorsTime the time for an elevator's doors to open or close in milliseconds
+     */
+    public BatchDispatch(int elevatorTime, int doorsTime) {
+        estimatedTimeDispatch = new EstimatedTimeDispatch(elevatorTime, doorsTime);
+    }
+
+    /**
+     * Returns the elevator numbers of the elevators assigned to a batch of ElevatorRequests.
+     *
+     * @param elevatorMonitorList the ElevatorMonitors of the elevators to choose from
+     * @param elevatorRequests the batch of ElevatorRequests
+     * @return the elevator number for each request, in the order of the requests, 0 if no elevator can perform it
+     */
+    public int[] assignElevators(List<ElevatorMonitor> elevatorMonitorList, List<ElevatorRequest> elevatorRequests) {
+        int numberOfRequests = elevatorRequests.size();
+        int numberOfElevators = elevatorMonitorList.size();
+        int stopTime = estimatedTimeDispatch.getStopTime();
+        double[][] costs = new double[numberOfRequests][numberOfElevators];
+        for (int i = 0; i < numberOfRequests; i++) {
+            for (int j = 0; j < numberOfElevators; j++) {
+                ElevatorMonitor monitor = elevatorMonitorList.get(j);
+                costs[i][j] = monitor.getState() == MovementState.STUCK ? Double.POSITIVE_INFINITY :
+                        estimatedTimeDispatch.estimateCost(monitor, elevatorRequests.get(i));
+            }
+        }
+
+        int[] assignedElevators = new int[numberOfRequests];
+        boolean[] assigned = new boolean[numberOfRequests];
+        // floors at which each elevator stops for the requests of the batch assigned to it
+        List<Set<Integer>> batchStops = new ArrayList<>();
+        for (int j = 0; j < numberOfElevators; j++) {
+            batchStops.add(new HashSet<>());
+        }
+        for (int round = 0; round < numberOfRequests; round++) {
+            int chosenRequest = -1;
+            int chosenElevator = -1;
+            double chosenRegret = -1;
+            for (int i = 0; i < numberOfRequests; i++) {
+                if (assigned[i]) {
+                    continue;
+                }
+                int bestElevator = -1;
+                double bestCost = Double.POSITIVE_INFINITY;
+                double secondBestCost = Double.POSITIVE_INFINITY;
+                for (int j = 0; j < numberOfElevators; j++) {
+                    double cost = costs[i][j];
+                    if (!batchStops.get(j).isEmpty() || !elevatorMonitorList.get(j).hasNoRequests()) {
+                        // the stops the request adds delay the other passengers of the elevator
+                        cost += addedStops(batchStops.get(j), elevatorRequests.get(i)) * stopTime;
+                    }
+                    if (cost < bestCost) {
+                        secondBestCost = bestCost;
+                        bestCost = cost;
+                        bestElevator = j;
+                    } else if (cost < secondBestCost) {
+                        secondBestCost = cost;
+                    }
+                }
+                // a request with a single possible elevator has an infinite regret
+                double regret = secondBestCost - bestCost;
+                if (bestElevator != -1 && regret > chosenRegret) {
+                    chosenRequest = i;
+                    chosenElevator = bestElevator;
+                    chosenRegret = regret;
+                }
+            }
+            if (chosenRequest == -1) {
+                // no elevator can perform the remaining requests
+                break;
+            }
+            assigned[chosenRequest] = true;
+            assignedElevators[chosenRequest] = elevatorMonitorList.get(chosenElevator).getElevatorNumber();
+            ElevatorRequest chosenElevatorRequest = elevatorRequests.get(chosenRequest);
+            batchStops.get(chosenElevator).add(chosenElevatorRequest.getFloorNumber());
+            batchStops.get(chosenElevator).add(chosenElevatorRequest.getDesiredFloor());
+        }
+        return assignedElevators;
+    }
+
+    /**
+     * Returns the number of stops that a request adds to an elevator, which are
+     * its floor and its desired floor unless the elevator already stops there
+     * for another request of the batch.
+     *
+     * @param batchStops the floors at which the elevator stops for the batch
+     * @param elevatorRequest an ElevatorRequest
+     * @return the number of stops added
+     */
+    private static int addedStops(Set<Integer> batchStops, ElevatorRequest elevatorRequest) {
+        int addedStops = 0;
+        if (!batchStops.contains(elevatorRequest.getFloorNumber())) {
+            addedStops++;
+        }
+        if (!batchStops.contains(elevatorRequest.getDesiredFloor())) {
+            addedStops++;
+        }
+        return addedStops;
+    }
+}
@@ -0,0 +1,75 @@
+package scheduler;
+
+import elevatorsystem.MovementState;
+import requests.ElevatorMonitor;
+import requests.ElevatorRequest;
+import systemwide.Direction;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DestinationDispatch groups passengers travelling to the same floor into the
+ * same elevator. Each desired floor in each direction is assigned an elevator.
+ * A request is given to that elevator while it is still serving the direction
+ * of the request and has not passed its floor. This way, the elevator makes one
+ * stop for all of them. Otherwise, the request starts a new group, whose elevator
+ * is chosen by estimated time.
+ *
+ * @author Liam Tripp, Ramit Mahajan
+ */
+public class DestinationDispatch implements DispatchStrategy {
+
+    private final DispatchStrategy groupStrategy;
+    // desired floors mapped to the elevator carrying passengers to them
+    private final Map<Integer, Integer> upGroups;
+    private final Map<Integer, Integer> downGroups;
+
+    /**
+     * Constructor for DestinationDispatch.
+     *
+     * @param elevatorTime the time for an elevator to travel between adjacent floors in milliseconds
+     * @param doorsTime the time for an elevator's doors to open or close in milliseconds
+     */
+    public DestinationDispatch(int elevatorTime, int doorsTime) {
+        groupStrategy = new EstimatedTimeDispatch(elevatorTime, doorsTime);
+        upGroups = new HashMap<>();
+        downGroups = new HashMap<>();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int chooseElevator(List<ElevatorMonitor> elevatorMonitorList, ElevatorRequest elevatorRequest) {
+        Map<Integer, Integer> groups = elevatorRequest.getDirection() == Direction.UP ? upGroups : downGroups;
+        int desiredFloor = elevatorRequest.getDesiredFloor();
+        Integer groupElevator = groups.get(desiredFloor);
+        if (groupElevator != null && canJoinGroup(elevatorMonitorList, groupElevator, elevatorRequest)) {
+            return groupElevator;
+        }
+
+        int chosenElevator = groupStrategy.chooseElevator(elevatorMonitorList, elevatorRequest);
+        if (chosenElevator != 0) {
+            groups.put(desiredFloor, chosenElevator);
+        }
+        return chosenElevator;
+    }
+
+    /**
+     * Returns whether a request can be given to the elevator of its group.
+     *
+     * @param elevatorMonitorList the ElevatorMonitors of the elevators to choose from
+     * @param groupElevator the number of the elevator of the group
+     * @param elevatorRequest an ElevatorRequest
+     * @return true if the elevator can pick up the request on its way to the desired floor, false otherwise
+     */
+    private boolean canJoinGroup(List<ElevatorMonitor> elevatorMonitorList, int groupElevator, ElevatorRequest elevatorRequest) {
+        if (groupElevator > elevatorMonitorList.size()) {
+            return false;
+        }
+        ElevatorMonitor monitor = elevatorMonitorList.get(groupElevator - 1);
+        return monitor.getState() != MovementState.STUCK && !monitor.hasNoRequests() && monitor.isInPathOf(elevatorRequest);
+    }
+}
@@ -0,0 +1,63 @@
+package scheduler;
+
+import requests.ElevatorMonitor;
+import requests.ElevatorRequest;
+
+import java.util.List;
+
+/**
+ * DirectionalDispatch is the Scheduler's original dispatch strategy. It chooses
+ * an elevator without requests, then the nearest elevator in the path of the
+ * request, using an ElevatorIndex. If there is neither, the remaining elevators
+ * are ranked by Scheduler's linear chooseElevator: elevators serving the opposite
+ * direction, then elevators that have passed the request.
+ *
+ * The ElevatorIndex is kept up to date by the ElevatorMonitors themselves, so
+ * the same ElevatorMonitors must be passed every time an elevator is chosen.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class DirectionalDispatch implements DispatchStrategy {
+
+    private final ElevatorIndex elevatorIndex;
+
+    /**
+     * Constructor for DirectionalDispatch.
+     */
+    public DirectionalDispatch() {
+        elevatorIndex = new ElevatorIndex();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int chooseElevator(List<ElevatorMonitor> elevatorMonitorList, ElevatorRequest elevatorRequest) {
+        indexElevatorMonitors(elevatorMonitorList);
+        int chosenElevator = elevatorIndex.chooseElevator(elevatorRequest);
+        if (chosenElevator == 0) {
+            // no elevator is empty or in the path of the request
+            chosenElevator = Scheduler.chooseElevator(elevatorMonitorList, elevatorRequest);
+        }
+        return chosenElevator;
+    }
+
+    /**
+     * Adds the ElevatorMonitors that are not yet in the ElevatorIndex to it.
+     * Indexed ElevatorMonitors update the ElevatorIndex whenever they are updated,
+     * including by the other Scheduler serving the same elevators.
+     *
+     * @param elevatorMonitorList the ElevatorMonitors of the elevators to choose from
+     */
+    private void indexElevatorMonitors(List<ElevatorMonitor> elevatorMonitorList) {
+        if (elevatorIndex.size() > elevatorMonitorList.size()) {
+            // the list of ElevatorMonitors was cleared
+            elevatorIndex.clear();
+        }
+        for (int i = elevatorIndex.size(); i < elevatorMonitorList.size(); i++) {
+            ElevatorMonitor monitor = elevatorMonitorList.get(i);
+            monitor.setUpdateListener(elevatorIndex::update);
+            elevatorIndex.update(monitor);
+        }
+    }
+}
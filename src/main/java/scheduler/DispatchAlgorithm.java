@@ -0,0 +1,56 @@
+package scheduler;
+
+import systemwide.Structure;
+
+import java.util.Locale;
+
+/**
+ * DispatchAlgorithm indicates the dispatch strategies that a Scheduler can be started with.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public enum DispatchAlgorithm {
+    DIRECTIONAL,
+    NEAREST_CAR,
+    ESTIMATED_TIME,
+    DESTINATION,
+    WHAT_IF;
+
+    /**
+     * Creates a new DispatchStrategy that uses the algorithm.
+     *
+     * @param structure contains the number of floors and the elevator and door times of the building
+     * @return a new DispatchStrategy
+     */
+    public DispatchStrategy createStrategy(Structure structure) {
+        return switch (this) {
+            case DIRECTIONAL -> new DirectionalDispatch();
+            case NEAREST_CAR -> new NearestCarDispatch();
+            case ESTIMATED_TIME -> new EstimatedTimeDispatch(structure.getElevatorTime(), structure.getDoorsTime());
+            case DESTINATION -> new DestinationDispatch(structure.getElevatorTime(), structure.getDoorsTime());
+            case WHAT_IF -> new WhatIfDispatch(structure.getNumberOfFloors(), structure.getElevatorTime(), structure.getDoorsTime());
+        };
+    }
+
+    /**
+     * Returns the DispatchAlgorithm given by a --dispatch=NAME argument, such as
+     * --dispatch=nearest_car. The default is DIRECTIONAL.
+     *
+     * @param args the command line arguments
+     * @return the selected DispatchAlgorithm
+     */
+    public static DispatchAlgorithm fromArgs(String[] args) {
+        String prefix = "--dispatch=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) {
+                String name = arg.substring(prefix.length()).toUpperCase(Locale.ROOT).replace('-', '_');
+                try {
+                    return valueOf(name);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Error: Unknown dispatch algorithm " + arg.substring(prefix.length()) + ".");
+                }
+            }
+        }
+        return DIRECTIONAL;
+    }
+}
@@ -0,0 +1,27 @@
+package scheduler;
+
+import requests.ElevatorMonitor;
+import requests.ElevatorRequest;
+
+import java.util.List;
+
+/**
+ * DispatchStrategy decides which elevator is assigned an ElevatorRequest.
+ * A Scheduler passes its ElevatorMonitors, which reflect the latest state of
+ * each elevator, along with every ElevatorRequest it receives. The strategy
+ * used by a Scheduler can be selected at startup with DispatchAlgorithm.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public interface DispatchStrategy {
+
+    /**
+     * Returns an elevator number corresponding to the elevator that
+     * should perform the given ElevatorRequest.
+     *
+     * @param elevatorMonitorList the ElevatorMonitors of the elevators to choose from
+     * @param elevatorRequest an ElevatorRequest
+     * @return a number corresponding to an elevator, 0 if no elevator can perform the request
+     */
+    int chooseElevator(List<ElevatorMonitor> elevatorMonitorList, ElevatorRequest elevatorRequest);
+}
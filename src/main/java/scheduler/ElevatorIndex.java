@@ -0,0 +1,172 @@
+package scheduler;
+
+import elevatorsystem.MovementState;
+import requests.ElevatorMonitor;
+import requests.ElevatorRequest;
+import systemwide.Direction;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * ElevatorIndex keeps a Scheduler's elevators indexed by their service direction
+ * and floor so that an elevator can be chosen for a request without examining
+ * every ElevatorMonitor. Elevators without requests are kept in a separate set.
+ * Elevators that are stuck are not indexed. The index is updated incrementally
+ * whenever an ElevatorMonitor changes.
+ *
+ * The index chooses an elevator without requests or, failing that, the nearest
+ * elevator in the path of the request. When neither exists, no elevator is
+ * chosen and Scheduler ranks the remaining elevators itself.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+class ElevatorIndex {
+
+    // floor of the elevators serving each direction, mapped to their elevator numbers
+    private final TreeMap<Integer, TreeSet<Integer>> upElevatorsByFloor;
+    private final TreeMap<Integer, TreeSet<Integer>> downElevatorsByFloor;
+    private final TreeSet<Integer> emptyElevators;
+    // where each elevator is indexed, so that it can be removed when its ElevatorMonitor changes
+    private final Map<Integer, IndexedPosition> positions;
+
+    /**
+     * Constructor for ElevatorIndex.
+     */
+    ElevatorIndex() {
+        upElevatorsByFloor = new TreeMap<>();
+        downElevatorsByFloor = new TreeMap<>();
+        emptyElevators = new TreeSet<>();
+        positions = new HashMap<>();
+    }
+
+    /**
+     * Returns the number of elevators that the ElevatorIndex has been updated with.
+     *
+     * @return the number of elevators
+     */
+    synchronized int size() {
+        return positions.size();
+    }
+
+    /**
+     * Removes every elevator from the ElevatorIndex.
+     */
+    synchronized void clear() {
+        upElevatorsByFloor.clear();
+        downElevatorsByFloor.clear();
+        emptyElevators.clear();
+        positions.clear();
+    }
+
+    /**
+     * Moves an elevator to the position in the index given by its ElevatorMonitor.
+     *
+     * @param monitor the ElevatorMonitor of the elevator
+     */
+    synchronized void update(ElevatorMonitor monitor) {
+        int elevatorNumber = monitor.getElevatorNumber();
+        IndexedPosition oldPosition = positions.get(elevatorNumber);
+        if (oldPosition != null) {
+            remove(elevatorNumber, oldPosition);
+        }
+        IndexedPosition newPosition = positionOf(monitor);
+        positions.put(elevatorNumber, newPosition);
+        if (newPosition.kind() == PositionKind.EMPTY) {
+            emptyElevators.add(elevatorNumber);
+        } else if (newPosition.kind() != PositionKind.STUCK) {
+            elevatorsByFloor(newPosition.kind()).computeIfAbsent(newPosition.floor(), floor -> new TreeSet<>()).add(elevatorNumber);
+        }
+    }
+
+    /**
+     * Returns an elevator number corresponding to an elevator without requests or,
+     * if every elevator has requests, the nearest elevator that has not yet passed
+     * the floor of the given ElevatorRequest in its direction. The floor the request
+     * is made from is used because an Elevator's RequestQueue decides whether it can
+     * serve a request this cycle by that floor.
+     *
+     * @param elevatorRequest an ElevatorRequest
+     * @return a number corresponding to an elevator, 0 if no elevator is empty or in the path of the request
+     */
+    synchronized int chooseElevator(ElevatorRequest elevatorRequest) {
+        if (!emptyElevators.isEmpty()) {
+            return emptyElevators.first();
+        }
+        int requestFloor = elevatorRequest.getFloorNumber();
+        Map.Entry<Integer, TreeSet<Integer>> entry;
+        if (elevatorRequest.getDirection() == Direction.UP) {
+            entry = upElevatorsByFloor.lowerEntry(requestFloor);
+        } else {
+            entry = downElevatorsByFloor.higherEntry(requestFloor);
+        }
+        return entry == null ? 0 : entry.getValue().first();
+    }
+
+    /**
+     * Removes an elevator from its position in the index.
+     *
+     * @param elevatorNumber the number of the elevator
+     * @param position the position of the elevator
+     */
+    private void remove(int elevatorNumber, IndexedPosition position) {
+        if (position.kind() == PositionKind.EMPTY) {
+            emptyElevators.remove(elevatorNumber);
+        } else if (position.kind() != PositionKind.STUCK) {
+            TreeMap<Integer, TreeSet<Integer>> elevatorsByFloor = elevatorsByFloor(position.kind());
+            TreeSet<Integer> elevatorsAtFloor = elevatorsByFloor.get(position.floor());
+            elevatorsAtFloor.remove(elevatorNumber);
+            if (elevatorsAtFloor.isEmpty()) {
+                elevatorsByFloor.remove(position.floor());
+            }
+        }
+    }
+
+    /**
+     * Returns the map of elevators by floor for a direction.
+     *
+     * @param kind UP or DOWN
+     * @return the map of the elevators serving that direction
+     */
+    private TreeMap<Integer, TreeSet<Integer>> elevatorsByFloor(PositionKind kind) {
+        return kind == PositionKind.UP ? upElevatorsByFloor : downElevatorsByFloor;
+    }
+
+    /**
+     * Determines where an elevator is indexed from its ElevatorMonitor. An elevator
+     * with requests is indexed at the floor it will reach next, as in Scheduler's
+     * linear chooseElevator.
+     *
+     * @param monitor the ElevatorMonitor of the elevator
+     * @return the position of the elevator in the index
+     */
+    private static IndexedPosition positionOf(ElevatorMonitor monitor) {
+        if (monitor.getState() == MovementState.STUCK) {
+            return new IndexedPosition(PositionKind.STUCK, 0);
+        } else if (monitor.hasNoRequests()) {
+            return new IndexedPosition(PositionKind.EMPTY, 0);
+        } else if (monitor.getDirection() == Direction.UP) {
+            return new IndexedPosition(PositionKind.UP, monitor.getNextFloor());
+        }
+        // an elevator with requests always serves either UP or DOWN
+        return new IndexedPosition(PositionKind.DOWN, monitor.getNextFloor());
+    }
+
+    /**
+     * The part of the index that an elevator is kept in.
+     */
+    private enum PositionKind {
+        EMPTY, UP, DOWN, STUCK
+    }
+
+    /**
+     * The position of an elevator in the index.
+     *
+     * @param kind the part of the index the elevator is kept in
+     * @param floor the floor the elevator is indexed at, if it is serving a direction
+     */
+    private record IndexedPosition(PositionKind kind, int floor) {
+    }
+}
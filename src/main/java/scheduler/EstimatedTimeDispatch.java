@@ -0,0 +1,99 @@
+package scheduler;
+
+import elevatorsystem.MovementState;
+import requests.ElevatorMonitor;
+import requests.ElevatorRequest;
+
+import java.util.List;
+
+/**
+ * EstimatedTimeDispatch assigns a request to the elevator with the lowest
+ * estimated cost of serving it. The cost is the estimated time until the elevator
+ * arrives at the floor of the request plus the time its stop adds for the
+ * passengers already in the elevator.
+ *
+ * Arrival times are projected in the same way as RequestQueue's getExpectedTime.
+ * An elevator in the path of the request travels straight to its floor. Any
+ * other elevator with requests first completes its queue, whose time is given
+ * by its ElevatorMonitor, and then travels back to the floor.
+ *
+ * @author Liam Tripp, Julian
+ */
+public class EstimatedTimeDispatch implements DispatchStrategy {
+
+    private final int elevatorTime;
+    private final int stopTime;
+
+    /**
+     * Constructor for EstimatedTimeDispatch.
+     *
+     * @param elevatorTime the time for an elevator to travel between adjacent floors in milliseconds
+     * @param doorsTime the time for an elevator's doors to open or close in milliseconds
+     */
+    public EstimatedTimeDispatch(int elevatorTime, int doorsTime) {
+        if (elevatorTime < 0 || doorsTime < 0) {
+            throw new IllegalArgumentException("Error: Elevator and door times must not be negative.");
+        }
+        this.elevatorTime = elevatorTime;
+        stopTime = stopTimeFor(doorsTime);
+    }
+
+    /**
+     * Returns the time an elevator spends at each stop. The dispatch strategies
+     * that estimate the time of added stops share it, so that their costs agree.
+     *
+     * @param doorsTime the time for an elevator's doors to open or close in milliseconds
+     * @return the time spent at each stop in milliseconds
+     */
+    static int stopTimeFor(int doorsTime) {
+        // the doors open and close at every stop
+        return doorsTime * 2;
+    }
+
+    /**
+     * Returns the time an elevator spends at each stop.
+     *
+     * @return the time spent at each stop in milliseconds
+     */
+    int getStopTime() {
+        return stopTime;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int chooseElevator(List<ElevatorMonitor> elevatorMonitorList, ElevatorRequest elevatorRequest) {
+        int chosenElevator = 0;
+        double chosenCost = Double.MAX_VALUE;
+        for (ElevatorMonitor monitor : elevatorMonitorList) {
+            if (monitor.getState() == MovementState.STUCK) {
+                continue;
+            }
+            double cost = estimateCost(monitor, elevatorRequest);
+            if (cost < chosenCost) {
+                chosenElevator = monitor.getElevatorNumber();
+                chosenCost = cost;
+            }
+        }
+        return chosenElevator;
+    }
+
+    /**
+     * Estimates the cost of an elevator serving an ElevatorRequest.
+     *
+     * @param monitor the ElevatorMonitor of the elevator
+     * @param elevatorRequest an ElevatorRequest
+     * @return the estimated cost in milliseconds
+     */
+    double estimateCost(ElevatorMonitor monitor, ElevatorRequest elevatorRequest) {
+        double travelTime = (double) Math.abs(monitor.getCurrentFloor() - elevatorRequest.getFloorNumber()) * elevatorTime;
+        if (monitor.hasNoRequests()) {
+            return travelTime;
+        } else if (monitor.isInPathOf(elevatorRequest)) {
+            return travelTime + stopTime;
+        }
+        // queue time is given in seconds
+        return monitor.getQueueTime() * 1000 + travelTime + stopTime;
+    }
+}
@@ -0,0 +1,44 @@
+package scheduler;
+
+import elevatorsystem.MovementState;
+import requests.ElevatorMonitor;
+import requests.ElevatorRequest;
+
+import java.util.List;
+
+/**
+ * NearestCarDispatch assigns a request to the elevator nearest to the floor it
+ * was made from. Elevators without requests and elevators in the path of the
+ * request are preferred, since they can reach the floor without turning around.
+ * Otherwise, the nearest elevator that is not stuck is chosen.
+ *
+ * @author Ryan Dash, Brady Norton
+ */
+public class NearestCarDispatch implements DispatchStrategy {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int chooseElevator(List<ElevatorMonitor> elevatorMonitorList, ElevatorRequest elevatorRequest) {
+        int requestFloor = elevatorRequest.getFloorNumber();
+        int chosenElevator = 0;
+        boolean chosenCanReach = false;
+        int chosenDistance = Integer.MAX_VALUE;
+
+        for (ElevatorMonitor monitor : elevatorMonitorList) {
+            if (monitor.getState() == MovementState.STUCK) {
+                continue;
+            }
+            boolean canReach = monitor.hasNoRequests() || monitor.isInPathOf(elevatorRequest);
+            int distance = Math.abs(monitor.getCurrentFloor() - requestFloor);
+            // an elevator that can reach the floor directly beats any that cannot
+            if ((canReach && !chosenCanReach) || (canReach == chosenCanReach && distance < chosenDistance)) {
+                chosenElevator = monitor.getElevatorNumber();
+                chosenCanReach = canReach;
+                chosenDistance = distance;
+            }
+        }
+        return chosenElevator;
+    }
+}
@@ -1,8 +1,10 @@
 package scheduler;
 
 import client_server_host.IntermediateHost;
+import client_server_host.Message;
 import client_server_host.Port;
 import client_server_host.RequestMessage;
+import client_server_host.SharedMemoryTransport;
 import elevatorsystem.MovementState;
 import requests.ElevatorMonitor;
 import requests.ElevatorRequest;
@@ -12,11 +14,11 @@ import systemwide.Origin;
 import systemwide.Structure;
 import systemwide.SystemStatus;
 
-import java.net.DatagramPacket;
+import java.io.IOException;
 import java.net.InetAddress;
-import java.net.UnknownHostException;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Timer;
 import java.util.TimerTask;
 
@@ -27,30 +29,92 @@ import java.util.TimerTask;
  */
 public class Scheduler implements Runnable {
 
-    private static ArrayList<ElevatorMonitor> elevatorMonitorList;
+    private static final ArrayList<ElevatorMonitor> sharedElevatorMonitorList = new ArrayList<>();
+    private final ArrayList<ElevatorMonitor> elevatorMonitorList;
+    private DispatchStrategy dispatchStrategy;
+    // ElevatorRequests waiting to be assigned together, null if batch dispatch is disabled
+    private BatchDispatch batchDispatch;
+    private final ArrayList<ElevatorRequest> pendingRequests;
+    private long dispatchWindowStartTime;
+    private int dispatchWindow;
     private final IntermediateHost intermediateHost;
     private static Presenter presenter;
     private final SystemStatus systemStatus;
     private static int schedulerThreadsTerminated;
+    // incremented whenever a Scheduler is created, so that the timers of earlier systems are not counted
+    private static int systemGeneration;
+    private int runningGeneration;
     private final Timer timer;
     private TimerTask timerTask;
     private long startTime = -1;
     private int delayToEndSystem = 7000; // milliseconds
+    private boolean eventBatchingEnabled = false;
+    private static final int RECEIVE_TIMEOUT = 100; // milliseconds
 
     /**
-     * Constructor for Scheduler.
+     * Constructor for Scheduler. Schedulers created with this constructor share
+     * the static list of ElevatorMonitors.
      *
      * @param portNumber the port number associated with the class's DatagramSocket
      */
     public Scheduler(int portNumber) {
-        elevatorMonitorList = new ArrayList<>();
-        intermediateHost = new IntermediateHost(portNumber);
+        this(new IntermediateHost(portNumber), clearSharedElevatorMonitorList());
+    }
+
+    /**
+     * Constructor for Scheduler serving one bank of elevators. The Schedulers serving
+     * the same bank must be given the same list of ElevatorMonitors.
+     *
+     * @param portNumber the port number associated with the class's DatagramSocket
+     * @param subsystemPortNumber the port number of the subsystem that receives the Scheduler's events
+     * @param elevatorMonitorList the list of ElevatorMonitors of the bank of elevators
+     */
+    public Scheduler(int portNumber, int subsystemPortNumber, ArrayList<ElevatorMonitor> elevatorMonitorList) {
+        this(new IntermediateHost(portNumber, subsystemPortNumber), elevatorMonitorList);
+    }
+
+    /**
+     * Constructor for Scheduler that communicates through the specified IntermediateHost.
+     * Schedulers created with this constructor share the static list of ElevatorMonitors.
+     *
+     * @param intermediateHost the IntermediateHost that sends and receives the Scheduler's messages
+     */
+    public Scheduler(IntermediateHost intermediateHost) {
+        this(intermediateHost, clearSharedElevatorMonitorList());
+    }
+
+    /**
+     * Constructor for Scheduler.
+     *
+     * @param intermediateHost the IntermediateHost that sends and receives the Scheduler's messages
+     * @param elevatorMonitorList the list of ElevatorMonitors used to choose elevators
+     */
+    private Scheduler(IntermediateHost intermediateHost, ArrayList<ElevatorMonitor> elevatorMonitorList) {
+        this.elevatorMonitorList = elevatorMonitorList;
+        dispatchStrategy = new DirectionalDispatch();
+        batchDispatch = null;
+        pendingRequests = new ArrayList<>();
+        this.intermediateHost = intermediateHost;
+        // stop waiting for packets periodically so that termination is noticed when no messages are sent
+        intermediateHost.setReceiveTimeout(RECEIVE_TIMEOUT);
         presenter = null;
         systemStatus = new SystemStatus(false);
         schedulerThreadsTerminated = 0;
+        systemGeneration++;
+        runningGeneration = 0;
         timer = new Timer();
     }
 
+    /**
+     * Removes every ElevatorMonitor from the static list of ElevatorMonitors.
+     *
+     * @return the static list of ElevatorMonitors
+     */
+    private static ArrayList<ElevatorMonitor> clearSharedElevatorMonitorList() {
+        sharedElevatorMonitorList.clear();
+        return sharedElevatorMonitorList;
+    }
+
     /**
      * Add ElevatorMonitor to elevatorMonitorList.
      *
@@ -60,6 +124,16 @@ public class Scheduler implements Runnable {
         elevatorMonitorList.add(new ElevatorMonitor(elevatorNumber));
     }
 
+    /**
+     * Sets the DispatchStrategy used to choose elevators for ElevatorRequests.
+     * The default is DirectionalDispatch.
+     *
+     * @param dispatchStrategy a DispatchStrategy
+     */
+    public void setDispatchStrategy(DispatchStrategy dispatchStrategy) {
+        this.dispatchStrategy = dispatchStrategy;
+    }
+
     /**
      * Sets the Scheduler's presenter to a valid presenter.
      * This will allow for output to the GUI's view.
@@ -76,7 +150,7 @@ public class Scheduler implements Runnable {
      * @return a list of elevator monitors
      */
     public static ArrayList<ElevatorMonitor> getElevatorMonitorList() {
-        return elevatorMonitorList;
+        return sharedElevatorMonitorList;
     }
 
     /**
@@ -93,55 +167,149 @@ public class Scheduler implements Runnable {
     }
 
     /**
-     * Takes a DatagramPacket from the IntermediateHost and processes it.
+     * Takes a Message from the IntermediateHost and processes it.
      * If it's data (i.e. contains a SystemEvent), it is processed by Scheduler.
-     * Otherwise, it's a request for data.
+     * A batch of SystemEvents is processed together and acknowledged once.
+     * Otherwise, it's a request for data or a subscription.
      */
-    private void receiveAndProcessPacket() {
-        DatagramPacket receivePacket = intermediateHost.receivePacket();
-        Object object = intermediateHost.convertToObject(receivePacket);
-
-        // respond to Data Request
-        if (object instanceof String) {
-            Object dataObject;
-
-            // queue is not empty, return data
-            // otherwise, send dummy message notifying empty status
-            if (!intermediateHost.queueIsEmpty()) {
-                if (this.startTime == -1) {
-                    this.startTime = System.nanoTime();
-                    System.out.print("time started with string");
-                }
-
-                dataObject = intermediateHost.getPacketFromQueue();
-
-                if (dataObject instanceof ElevatorRequest elevatorRequest) {
-                    int chosenElevator = chooseElevator(elevatorRequest);
-                    elevatorRequest.setElevatorNumber(chosenElevator);
+    private void receiveAndProcessMessage() {
+        Message receiveMessage = intermediateHost.receiveMessage();
+        if (receiveMessage == null) {
+            // no message received before the timeout
+            return;
+        }
+        processMessage(receiveMessage);
+    }
 
-                    String messageToPrint = LocalTime.now() + "\n";
-                    messageToPrint += "Scheduler assigned to Elevator #" + chosenElevator + " the " +
-                            elevatorRequest.getClass().getSimpleName() + ": " + elevatorRequest + ".\n";
-                    System.out.println(messageToPrint);
-                }
-                //Resets the inactivity timer when there's activity.
-                resetTimer();
+    /**
+     * Processes a Message received by the IntermediateHost.
+     *
+     * @param receiveMessage a message received by the IntermediateHost
+     */
+    void processMessage(Message receiveMessage) {
+        Object object = receiveMessage.getContent();
+
+        if (object instanceof String message) {
+            if (message.equals(RequestMessage.SUBSCRIBE.getMessage())) {
+                // send any events that arrived before the subscription
+                intermediateHost.addSubscriber(receiveMessage);
+                pushQueuedEvents();
             } else {
-                dataObject = RequestMessage.EMPTYQUEUE.getMessage();
+                // respond to Data Request
+                // queue is not empty, return data
+                // otherwise, send dummy message notifying empty status
+                Object dataObject = takeEventFromQueue();
+                if (dataObject == null) {
+                    dataObject = RequestMessage.EMPTYQUEUE.getMessage();
+                }
+                // send the object right away
+                intermediateHost.sendObject(dataObject, receiveMessage.getAddress(), receiveMessage.getPort());
             }
-            // send the object right away
-            intermediateHost.sendObject(dataObject, receivePacket.getAddress(), receivePacket.getPort());
-
         } else if (object instanceof SystemEvent systemEvent) {
-            if (this.startTime == -1) {
-                this.startTime = System.nanoTime();
-                System.out.print("time started with string");
-            }
+            startTimerIfNeeded();
 
-            intermediateHost.acknowledgeDataReception(receivePacket);
+            intermediateHost.acknowledgeDataReception(receiveMessage);
             processData(systemEvent);
             //Resets the inactivity timer when there's activity.
             resetTimer();
+        } else if (object instanceof List<?> events) {
+            startTimerIfNeeded();
+
+            intermediateHost.acknowledgeDataReception(receiveMessage);
+            for (Object event : events) {
+                processEvent((SystemEvent) event);
+            }
+            pushQueuedEvents();
+            //Resets the inactivity timer when there's activity.
+            resetTimer();
+        }
+    }
+
+    /**
+     * Removes the next event from the IntermediateHost's queue and prepares it to be sent.
+     * ElevatorRequests are assigned to an Elevator.
+     *
+     * @return the next event to send, null if the queue is empty
+     */
+    private synchronized SystemEvent takeEventFromQueue() {
+        if (intermediateHost.queueIsEmpty()) {
+            return null;
+        }
+        startTimerIfNeeded();
+
+        SystemEvent event = intermediateHost.getPacketFromQueue();
+
+        // requests assigned in a batch already have an elevator
+        if (event instanceof ElevatorRequest elevatorRequest && (batchDispatch == null || elevatorRequest.getElevatorNumber() == 0)) {
+            assignElevator(elevatorRequest, chooseElevator(elevatorRequest));
+        }
+        //Resets the inactivity timer when there's activity.
+        resetTimer();
+        return event;
+    }
+
+    /**
+     * Assigns an ElevatorRequest to an elevator.
+     *
+     * @param elevatorRequest an ElevatorRequest
+     * @param chosenElevator the number of the elevator to perform the request
+     */
+    private void assignElevator(ElevatorRequest elevatorRequest, int chosenElevator) {
+        elevatorRequest.setElevatorNumber(chosenElevator);
+
+        String messageToPrint = LocalTime.now() + "\n";
+        messageToPrint += "Scheduler assigned to Elevator #" + chosenElevator + " the " +
+                elevatorRequest.getClass().getSimpleName() + ": " + elevatorRequest + ".\n";
+        System.out.println(messageToPrint);
+    }
+
+    /**
+     * Assigns the pending ElevatorRequests to elevators together once the dispatch
+     * window has passed since the first of them arrived, then sends them with the
+     * other queued events. This is checked whenever the Scheduler receives a packet
+     * or stops waiting for one.
+     */
+    void dispatchPendingRequests() {
+        if (pendingRequests.isEmpty() || System.nanoTime() - dispatchWindowStartTime < dispatchWindow * 1000000L) {
+            return;
+        }
+        int[] chosenElevators = batchDispatch.assignElevators(elevatorMonitorList, pendingRequests);
+        for (int i = 0; i < pendingRequests.size(); i++) {
+            ElevatorRequest elevatorRequest = pendingRequests.get(i);
+            if (chosenElevators[i] != 0) {
+                assignElevator(elevatorRequest, chosenElevators[i]);
+            }
+            intermediateHost.addEventToQueue(elevatorRequest);
+        }
+        pendingRequests.clear();
+        pushQueuedEvents();
+        //Resets the inactivity timer when there's activity.
+        resetTimer();
+    }
+
+    /**
+     * Sends every queued event to the IntermediateHost's subscribers, if there are any.
+     * If event batching is enabled, the events are packed into as few packets as possible.
+     */
+    private void pushQueuedEvents() {
+        if (!intermediateHost.hasSubscribers()) {
+            return;
+        }
+        SystemEvent event;
+        if (!eventBatchingEnabled) {
+            while ((event = takeEventFromQueue()) != null) {
+                intermediateHost.sendToSubscribers(event);
+            }
+            return;
+        }
+        List<SystemEvent> events = new ArrayList<>();
+        while ((event = takeEventFromQueue()) != null) {
+            events.add(event);
+        }
+        if (events.size() == 1) {
+            intermediateHost.sendToSubscribers(events.get(0));
+        } else if (!events.isEmpty()) {
+            intermediateHost.sendBatchToSubscribers(events);
         }
     }
 
@@ -152,15 +320,37 @@ public class Scheduler implements Runnable {
      * @param event a systemEvent to be processed
      */
     public void processData(SystemEvent event) {
+        processEvent(event);
+        if (!(event instanceof ElevatorMonitor)) {
+            pushQueuedEvents();
+        }
+    }
 
+    /**
+     * Updates the ElevatorMonitors with an ElevatorMonitor or queues any other
+     * event to be sent to the other subsystem.
+     *
+     * @param event a systemEvent to be processed
+     */
+    private void processEvent(SystemEvent event) {
         if (event instanceof ElevatorMonitor elevatorMonitor) {
-            elevatorMonitorList.get(elevatorMonitor.getElevatorNumber() - 1).updateMonitor(elevatorMonitor);
+            // the ElevatorMonitor may be a delta, so the view shows the updated ElevatorMonitor
+            ElevatorMonitor updatedMonitor = elevatorMonitorList.get(elevatorMonitor.getElevatorNumber() - 1);
+            updatedMonitor.updateMonitor(elevatorMonitor);
             if (presenter != null) {
-                presenter.updateElevatorView(elevatorMonitor);
+                presenter.updateElevatorView(updatedMonitor);
             }
         } else {
             event.setOrigin(Origin.changeOrigin(event.getOrigin()));
-            intermediateHost.addEventToQueue(event);
+            if (batchDispatch != null && event instanceof ElevatorRequest elevatorRequest) {
+                // hold the request until it can be assigned with the others that arrive in the dispatch window
+                if (pendingRequests.isEmpty()) {
+                    dispatchWindowStartTime = System.nanoTime();
+                }
+                pendingRequests.add(elevatorRequest);
+            } else {
+                intermediateHost.addEventToQueue(event);
+            }
         }
     }
 
@@ -173,19 +363,35 @@ public class Scheduler implements Runnable {
      */
     public void enableSystem(Structure structure, InetAddress inetAddress, int portNumber) {
         systemStatus.setSystemActivated(true);
+        eventBatchingEnabled = structure.getBatchLingerTime() >= 0;
+        dispatchWindow = structure.getDispatchWindow();
+        batchDispatch = dispatchWindow >= 0 ? new BatchDispatch(structure.getElevatorTime(), structure.getDoorsTime()) : null;
         intermediateHost.sendObject(structure, inetAddress, portNumber);
         delayToEndSystem = (structure.getDoorsTime() + structure.getElevatorTime()) * 3;
     }
 
     /**
      * Returns an elevator number corresponding to an elevator that is
-     * best suited to perform the given ElevatorRequest based on
-     * expected time to fulfill the request and direction of elevator.
+     * best suited to perform the given ElevatorRequest, as chosen by
+     * the Scheduler's DispatchStrategy.
      *
      * @param elevatorRequest an ElevatorRequest
      * @return a number corresponding to an elevator
      */
     public int chooseElevator(ElevatorRequest elevatorRequest) {
+        return dispatchStrategy.chooseElevator(elevatorMonitorList, elevatorRequest);
+    }
+
+    /**
+     * Returns an elevator number corresponding to an elevator that is
+     * best suited to perform the given ElevatorRequest based on the
+     * specified ElevatorMonitors.
+     *
+     * @param elevatorMonitorList the ElevatorMonitors of the elevators to choose from
+     * @param elevatorRequest an ElevatorRequest
+     * @return a number corresponding to an elevator, 0 if no elevator can perform the request
+     */
+    public static int chooseElevator(List<ElevatorMonitor> elevatorMonitorList, ElevatorRequest elevatorRequest) {
 
         double elevatorBestExpectedTime = 0.0;
         // Best elevator is an elevator traveling in path that collides with request floor
@@ -253,6 +459,16 @@ public class Scheduler implements Runnable {
         return chosenBestElevator;
     }
 
+    /**
+     * Starts measuring the time the Scheduler takes to complete when it
+     * receives its first event.
+     */
+    private void startTimerIfNeeded() {
+        if (startTime == -1) {
+            startTime = System.nanoTime();
+        }
+    }
+
     /**
      * Resets the inactivity timer to show that the scheduler did work
      */
@@ -264,7 +480,10 @@ public class Scheduler implements Runnable {
                     long timeElapsed = (System.nanoTime() - startTime) / 1000000 - delayToEndSystem;
                     System.out.println(Thread.currentThread().getName() + " took " + timeElapsed + " milliseconds to complete.");
                     systemStatus.setSystemActivated(false);
-                    schedulerThreadsTerminated++;
+                    // a Scheduler left running by an earlier system must not end the current one
+                    if (runningGeneration == systemGeneration) {
+                        schedulerThreadsTerminated++;
+                    }
                     timer.cancel();
                 }
             };
@@ -280,6 +499,7 @@ public class Scheduler implements Runnable {
      */
     @Override
     public void run() {
+        runningGeneration = systemGeneration;
 
         //Starts the inactivity timer and performance measurement
         resetTimer();
@@ -289,24 +509,75 @@ public class Scheduler implements Runnable {
             causing a SocketException. Must wait for both to be closed.
          */
         while (schedulerThreadsTerminated < 2) {
-            receiveAndProcessPacket();
+            receiveAndProcessMessage();
+            dispatchPendingRequests();
         }
+        terminate();
+    }
+
+    /**
+     * Terminates the subsystem receiving the Scheduler's events and closes the Scheduler's socket.
+     */
+    void terminate() {
         System.out.println(Thread.currentThread().getName() + " terminated");
         intermediateHost.terminateSystem();
     }
 
-    public static void main(String[] args) {
+    /**
+     * Creates the Structure of the system, with the optional modes enabled by the command line arguments.
+     * Every mode is disabled unless its argument is given:
+     * --push pushes events to the subsystems instead of the subsystems requesting them,
+     * --batch-linger=MILLISECONDS sends pending events together in batches,
+     * --dispatch-window=MILLISECONDS assigns the requests arriving within a window together,
+     * --monitor-keyframes=INTERVAL sends ElevatorMonitors as deltas between keyframes and
+     * --local-stops lets Elevators decide where to stop without waiting for their ApproachEvents.
+     *
+     * @param args the command line arguments
+     * @return the Structure of the system
+     */
+    static Structure createStructure(String[] args) {
         Structure structure = new Structure(20, 4, 1000, 1000);
+        for (String arg : args) {
+            if (arg.equals("--push")) {
+                structure.setPushDeliveryEnabled(true);
+            } else if (arg.startsWith("--batch-linger=")) {
+                structure.setBatchLingerTime(Integer.parseInt(arg.substring("--batch-linger=".length())));
+            } else if (arg.startsWith("--dispatch-window=")) {
+                structure.setDispatchWindow(Integer.parseInt(arg.substring("--dispatch-window=".length())));
+            } else if (arg.startsWith("--monitor-keyframes=")) {
+                structure.setMonitorKeyframeInterval(Integer.parseInt(arg.substring("--monitor-keyframes=".length())));
+            } else if (arg.equals("--local-stops")) {
+                structure.setLocalStopDecisionsEnabled(true);
+            }
+        }
+        return structure;
+    }
+
+    public static void main(String[] args) {
+        Structure structure = createStructure(args);
 
         ElevatorViewContainer elevatorViewContainer = new ElevatorViewContainer(structure.getNumberOfElevators());
         Presenter presenter = new Presenter();
         presenter.addView(elevatorViewContainer);
         presenter.startGUI();
 
-        Scheduler schedulerClient = new Scheduler(Port.CLIENT_TO_SERVER.getNumber());
-        Scheduler schedulerServer = new Scheduler(Port.SERVER_TO_CLIENT.getNumber());
+        // exchange messages with subsystem processes on the same host through shared memory with the argument --shared-memory
+        boolean sharedMemoryEnabled = List.of(args).contains("--shared-memory");
+        Scheduler schedulerClient;
+        Scheduler schedulerServer;
+        if (sharedMemoryEnabled) {
+            schedulerClient = new Scheduler(new IntermediateHost(new SharedMemoryTransport(
+                    SharedMemoryTransport.DEFAULT_DIRECTORY, Port.CLIENT_TO_SERVER.getNumber()), Port.SERVER.getNumber()));
+            schedulerServer = new Scheduler(new IntermediateHost(new SharedMemoryTransport(
+                    SharedMemoryTransport.DEFAULT_DIRECTORY, Port.SERVER_TO_CLIENT.getNumber()), Port.CLIENT.getNumber()));
+        } else {
+            schedulerClient = new Scheduler(Port.CLIENT_TO_SERVER.getNumber());
+            schedulerServer = new Scheduler(Port.SERVER_TO_CLIENT.getNumber());
+        }
 
         schedulerClient.setPresenter(presenter);
+        // choose elevators with another algorithm with the argument --dispatch=NAME, e.g. --dispatch=estimated_time
+        schedulerClient.setDispatchStrategy(DispatchAlgorithm.fromArgs(args).createStrategy(structure));
 
         for (int i = 1; i <= structure.getNumberOfElevators(); i++) {
             schedulerClient.addElevatorMonitor(i);
@@ -315,11 +586,20 @@ public class Scheduler implements Runnable {
         try {
             schedulerClient.enableSystem(structure, InetAddress.getLocalHost(), Port.SERVER.getNumber());
             schedulerServer.enableSystem(structure, InetAddress.getLocalHost(), Port.CLIENT.getNumber());
-        } catch (UnknownHostException e) {
+
+            if (sharedMemoryEnabled) {
+                // shared memory cannot be selected, so each Scheduler waits for messages on its own thread
+                new Thread(schedulerClient, "Scheduler: FloorToElevator").start();
+                new Thread(schedulerServer, "Scheduler: ElevatorToFloor").start();
+                return;
+            }
+            // serve both Schedulers on one thread
+            SchedulerSelector schedulerSelector = new SchedulerSelector();
+            schedulerSelector.addScheduler(schedulerClient);
+            schedulerSelector.addScheduler(schedulerServer);
+            new Thread(schedulerSelector, "Scheduler").start();
+        } catch (IOException e) {
             e.printStackTrace();
         }
-
-        new Thread(schedulerClient, "Scheduler: FloorToElevator").start();
-        new Thread(schedulerServer, "Scheduler: ElevatorToFloor").start();
     }
 }
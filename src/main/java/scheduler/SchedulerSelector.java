@@ -0,0 +1,125 @@
+package scheduler;
+
+import client_server_host.Message;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.Iterator;
+
+/**
+ * SchedulerSelector serves any number of Schedulers on a single thread.
+ * Each Scheduler's IntermediateHost is registered with a Selector, and
+ * packets are processed by the Scheduler whose socket received them.
+ * This allows one process to serve several buildings or banks of elevators
+ * without a thread per socket.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class SchedulerSelector implements Runnable {
+
+    private final Selector selector;
+    private final ArrayList<Scheduler> schedulerList;
+    // time to wait for packets before checking whether the Schedulers are still activated
+    private static final int SELECT_TIMEOUT = 100; // milliseconds
+
+    /**
+     * Constructor for SchedulerSelector.
+     *
+     * @throws IOException if the Selector could not be opened
+     */
+    public SchedulerSelector() throws IOException {
+        selector = Selector.open();
+        schedulerList = new ArrayList<>();
+    }
+
+    /**
+     * Adds a Scheduler to be served by the SchedulerSelector. Schedulers must
+     * be added before the SchedulerSelector is run, and their IntermediateHosts
+     * must communicate through a SelectableTransport.
+     *
+     * @param scheduler a Scheduler
+     * @throws IOException if the Scheduler's IntermediateHost could not be registered
+     * @throws IllegalArgumentException if the Scheduler's IntermediateHost cannot be selected
+     */
+    public void addScheduler(Scheduler scheduler) throws IOException {
+        if (!scheduler.getIntermediateHost().isSelectable()) {
+            throw new IllegalArgumentException("Error: A Scheduler that does not communicate through a SelectableTransport cannot be selected.");
+        }
+        scheduler.getIntermediateHost().register(selector, scheduler);
+        schedulerList.add(scheduler);
+    }
+
+    /**
+     * Returns the list of Schedulers served by the SchedulerSelector.
+     *
+     * @return the list of Schedulers
+     */
+    public ArrayList<Scheduler> getSchedulerList() {
+        return schedulerList;
+    }
+
+    /**
+     * Processes the packets received by the Schedulers until every Scheduler has
+     * been deactivated, then terminates the Schedulers.
+     */
+    @Override
+    public void run() {
+        // start the inactivity timers and performance measurements
+        for (Scheduler scheduler : schedulerList) {
+            scheduler.resetTimer();
+        }
+        while (anySchedulerActivated()) {
+            try {
+                selector.select(SELECT_TIMEOUT);
+            } catch (IOException e) {
+                e.printStackTrace();
+                break;
+            }
+            Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+            while (iterator.hasNext()) {
+                SelectionKey key = iterator.next();
+                iterator.remove();
+                processAvailableMessages((Scheduler) key.attachment());
+            }
+            for (Scheduler scheduler : schedulerList) {
+                scheduler.dispatchPendingRequests();
+            }
+        }
+        for (Scheduler scheduler : schedulerList) {
+            scheduler.terminate();
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Processes every message that a Scheduler's IntermediateHost can receive without blocking.
+     *
+     * @param scheduler the Scheduler whose IntermediateHost is ready to receive
+     */
+    private void processAvailableMessages(Scheduler scheduler) {
+        Message receiveMessage;
+        while ((receiveMessage = scheduler.getIntermediateHost().receiveAvailableMessage()) != null) {
+            scheduler.processMessage(receiveMessage);
+        }
+    }
+
+    /**
+     * Determines whether any Scheduler is still activated.
+     *
+     * @return true if at least one Scheduler is activated, false otherwise
+     */
+    private boolean anySchedulerActivated() {
+        for (Scheduler scheduler : schedulerList) {
+            if (scheduler.getSystemStatus().activated()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,137 @@
+package scheduler;
+
+import client_server_host.Client;
+import client_server_host.InMemoryNetwork;
+import client_server_host.IntermediateHost;
+import client_server_host.Port;
+import elevatorsystem.ElevatorSubsystem;
+import floorsystem.FloorSubsystem;
+import systemwide.Structure;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SystemLauncher runs the Schedulers, the ElevatorSubsystem and the FloorSubsystem in one
+ * process. The systems are connected by an InMemoryNetwork, so events are passed between
+ * them without being encoded and no socket is bound. This suits running many short
+ * simulations, where starting processes and sending packets would take most of the time.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class SystemLauncher {
+
+    private final Structure structure;
+    private final Scheduler schedulerFloorsToElevators;
+    private final Scheduler schedulerElevatorsToFloors;
+    private final ElevatorSubsystem elevatorSubsystem;
+    private final FloorSubsystem floorSubsystem;
+    private final List<Thread> schedulerThreads;
+
+    /**
+     * Constructor for SystemLauncher. Connects the systems, which are started by start.
+     *
+     * @param structure contains the information to initialize the systems
+     */
+    public SystemLauncher(Structure structure) {
+        this.structure = structure;
+        // the systems use the default Ports, which only exist within the network
+        InMemoryNetwork network = new InMemoryNetwork();
+        schedulerFloorsToElevators = new Scheduler(new IntermediateHost(
+                network.connect(Port.CLIENT_TO_SERVER.getNumber()), Port.SERVER.getNumber()));
+        schedulerElevatorsToFloors = new Scheduler(new IntermediateHost(
+                network.connect(Port.SERVER_TO_CLIENT.getNumber()), Port.CLIENT.getNumber()));
+        for (int i = 1; i <= structure.getNumberOfElevators(); i++) {
+            schedulerFloorsToElevators.addElevatorMonitor(i);
+        }
+        elevatorSubsystem = new ElevatorSubsystem(new Client(network.connect(Port.SERVER.getNumber()),
+                Port.SERVER_TO_CLIENT.getNumber(), Port.CLIENT_TO_SERVER.getNumber()));
+        floorSubsystem = new FloorSubsystem(new Client(network.connect(Port.CLIENT.getNumber()),
+                Port.CLIENT_TO_SERVER.getNumber(), Port.SERVER_TO_CLIENT.getNumber()));
+        schedulerThreads = new ArrayList<>();
+    }
+
+    /**
+     * Returns the Scheduler that sends the FloorSubsystem's events to the ElevatorSubsystem.
+     *
+     * @return the Scheduler that chooses elevators
+     */
+    public Scheduler getSchedulerFloorsToElevators() {
+        return schedulerFloorsToElevators;
+    }
+
+    /**
+     * Returns the Scheduler that sends the ElevatorSubsystem's events to the FloorSubsystem.
+     *
+     * @return the Scheduler that serves the floors
+     */
+    public Scheduler getSchedulerElevatorsToFloors() {
+        return schedulerElevatorsToFloors;
+    }
+
+    /**
+     * Returns the ElevatorSubsystem run by the SystemLauncher.
+     *
+     * @return the ElevatorSubsystem
+     */
+    public ElevatorSubsystem getElevatorSubsystem() {
+        return elevatorSubsystem;
+    }
+
+    /**
+     * Returns the FloorSubsystem run by the SystemLauncher.
+     *
+     * @return the FloorSubsystem
+     */
+    public FloorSubsystem getFloorSubsystem() {
+        return floorSubsystem;
+    }
+
+    /**
+     * Initializes the subsystems with the Structure and starts the threads of every system.
+     */
+    public void start() {
+        InetAddress localAddress = InetAddress.getLoopbackAddress();
+        schedulerFloorsToElevators.enableSystem(structure, localAddress, Port.SERVER.getNumber());
+        elevatorSubsystem.initializeElevators(elevatorSubsystem.receiveStructure());
+        new Thread(elevatorSubsystem, elevatorSubsystem.getClass().getSimpleName()).start();
+        elevatorSubsystem.initializeElevatorThreads();
+
+        schedulerElevatorsToFloors.enableSystem(structure, localAddress, Port.CLIENT.getNumber());
+        floorSubsystem.initializeFloors(floorSubsystem.receiveStructure());
+        new Thread(floorSubsystem, floorSubsystem.getClass().getSimpleName()).start();
+
+        schedulerThreads.add(new Thread(schedulerFloorsToElevators, "Scheduler: FloorToElevator"));
+        schedulerThreads.add(new Thread(schedulerElevatorsToFloors, "Scheduler: ElevatorToFloor"));
+        for (Thread schedulerThread : schedulerThreads) {
+            schedulerThread.start();
+        }
+    }
+
+    /**
+     * Waits until the Schedulers have terminated the system.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public void awaitTermination() throws InterruptedException {
+        for (Thread schedulerThread : schedulerThreads) {
+            schedulerThread.join();
+        }
+    }
+
+    public static void main(String[] args) {
+        // the optional modes are enabled with the same arguments as Scheduler.main
+        Structure structure = Scheduler.createStructure(args);
+
+        SystemLauncher systemLauncher = new SystemLauncher(structure);
+        // choose elevators with another algorithm with the argument --dispatch=NAME, e.g. --dispatch=estimated_time
+        systemLauncher.getSchedulerFloorsToElevators().setDispatchStrategy(DispatchAlgorithm.fromArgs(args).createStrategy(structure));
+        systemLauncher.start();
+        try {
+            systemLauncher.awaitTermination();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package scheduler;
+
+import elevatorsystem.MovementState;
+import elevatorsystem.RequestQueue;
+import requests.ElevatorMonitor;
+import requests.ElevatorRequest;
+import requests.ServiceRequest;
+import systemwide.Direction;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * WhatIfDispatch assigns a request to the elevator whose RequestQueue would serve
+ * it at the lowest cost. For each elevator, a copy of its RequestQueue is made with
+ * the request added, and the copy is served in the order an Elevator would serve it.
+ * The cost is the time until the passenger is picked up plus the time the request
+ * adds to the elevator's route, which delays its other passengers.
+ *
+ * The Scheduler does not receive the elevators' RequestQueues, so WhatIfDispatch keeps
+ * a mirror of each one with the requests it assigned. A mirror is brought up to date with
+ * an elevator's ElevatorMonitor before each assignment: the requests that the elevator
+ * has passed are removed, and the mirror is emptied when the elevator has no requests.
+ * The mirrors are backed by floor bitsets, so copying them does not copy trees of requests.
+ *
+ * The elevators are evaluated in parallel on a ForkJoinPool when there are more than
+ * a threshold of them, so that the Scheduler thread does not evaluate large banks alone.
+ *
+ * @author Liam Tripp, Julian
+ */
+public class WhatIfDispatch implements DispatchStrategy {
+
+    // banks of at most this many elevators are evaluated on the calling thread
+    private static final int DEFAULT_SEQUENTIAL_THRESHOLD = 16;
+
+    private final int numberOfFloors;
+    private final int elevatorTime;
+    private final int stopTime;
+    private final ForkJoinPool forkJoinPool;
+    private final int sequentialThreshold;
+    // elevator numbers mapped to the mirrors of their RequestQueues
+    private final Map<Integer, RequestQueue> mirrorQueues;
+
+    /**
+     * Constructor for WhatIfDispatch that evaluates large banks on the common ForkJoinPool.
+     *
+     * @param numberOfFloors the number of floors in the building
+     * @param elevatorTime the time for an elevator to travel between adjacent floors in milliseconds
+     * @param doorsTime the time for an elevator's doors to open or close in milliseconds
+     */
+    public WhatIfDispatch(int numberOfFloors, int elevatorTime, int doorsTime) {
+        this(numberOfFloors, elevatorTime, doorsTime, ForkJoinPool.commonPool(), DEFAULT_SEQUENTIAL_THRESHOLD);
+    }
+
+    /**
+     * Constructor for WhatIfDispatch.
+     *
+     * @param numberOfFloors the number of floors in the building
+     * @param elevatorTime the time for an elevator to travel between adjacent floors in milliseconds
+     * @param doorsTime the time for an elevator's doors to open or close in milliseconds
+     * @param forkJoinPool the pool to evaluate elevators on
+     * @param sequentialThreshold the number of elevators at or below which they are evaluated on the calling thread
+     */
+    WhatIfDispatch(int numberOfFloors, int elevatorTime, int doorsTime, ForkJoinPool forkJoinPool, int sequentialThreshold) {
+        if (elevatorTime < 0 || doorsTime < 0) {
+            throw new IllegalArgumentException("Error: Elevator and door times must not be negative.");
+        }
+        this.numberOfFloors = numberOfFloors;
+        this.elevatorTime = elevatorTime;
+        stopTime = EstimatedTimeDispatch.stopTimeFor(doorsTime);
+        this.forkJoinPool = forkJoinPool;
+        this.sequentialThreshold = Math.max(1, sequentialThreshold);
+        mirrorQueues = new HashMap<>();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int chooseElevator(List<ElevatorMonitor> elevatorMonitorList, ElevatorRequest elevatorRequest) {
+        int numberOfElevators = elevatorMonitorList.size();
+        RequestQueue[] mirrors = new RequestQueue[numberOfElevators];
+        for (int i = 0; i < numberOfElevators; i++) {
+            mirrors[i] = updateMirror(elevatorMonitorList.get(i));
+        }
+
+        double[] costs = new double[numberOfElevators];
+        CostTask costTask = new CostTask(elevatorMonitorList, mirrors, elevatorRequest, costs, 0, numberOfElevators);
+        if (numberOfElevators <= sequentialThreshold) {
+            costTask.compute();
+        } else {
+            forkJoinPool.invoke(costTask);
+        }
+
+        int chosenIndex = -1;
+        for (int i = 0; i < numberOfElevators; i++) {
+            if (costs[i] != Double.POSITIVE_INFINITY && (chosenIndex == -1 || costs[i] < costs[chosenIndex])) {
+                chosenIndex = i;
+            }
+        }
+        if (chosenIndex == -1) {
+            return 0;
+        }
+        ElevatorMonitor chosenMonitor = elevatorMonitorList.get(chosenIndex);
+        mirrors[chosenIndex].addRequest(startFloor(chosenMonitor), chosenMonitor.getDirection(), elevatorRequest);
+        return chosenMonitor.getElevatorNumber();
+    }
+
+    /**
+     * Brings the mirror of an elevator's RequestQueue up to date with its ElevatorMonitor.
+     *
+     * @param monitor the ElevatorMonitor of the elevator
+     * @return the mirror of the elevator's RequestQueue
+     */
+    private RequestQueue updateMirror(ElevatorMonitor monitor) {
+        int elevatorNumber = monitor.getElevatorNumber();
+        if (monitor.hasNoRequests()) {
+            RequestQueue emptyMirror = new RequestQueue(numberOfFloors);
+            mirrorQueues.put(elevatorNumber, emptyMirror);
+            return emptyMirror;
+        }
+        RequestQueue mirror = mirrorQueues.computeIfAbsent(elevatorNumber, number -> new RequestQueue(numberOfFloors));
+        // remove the requests in the elevator's direction that it has passed, which it has served
+        int startFloor = startFloor(monitor);
+        while (!mirror.isEmpty()) {
+            if (mirror.isCurrentQueueEmpty()) {
+                mirror.swapQueues();
+            }
+            ServiceRequest nextRequest = mirror.peekNextRequest();
+            int floorNumber = nextRequest.getFloorNumber();
+            boolean passed = (monitor.getDirection() == Direction.UP && floorNumber < startFloor) ||
+                    (monitor.getDirection() == Direction.DOWN && floorNumber > startFloor);
+            if (nextRequest.getDirection() != monitor.getDirection() || !passed) {
+                break;
+            }
+            mirror.removeRequest();
+        }
+        return mirror;
+    }
+
+    /**
+     * Returns the floor from which an elevator can serve new requests, which is
+     * its next floor if it is moving and its current floor otherwise.
+     *
+     * @param monitor the ElevatorMonitor of the elevator
+     * @return the floor the elevator serves new requests from
+     */
+    private static int startFloor(ElevatorMonitor monitor) {
+        return monitor.getState() == MovementState.ACTIVE ? monitor.getNextFloor() : monitor.getCurrentFloor();
+    }
+
+    /**
+     * Estimates the cost of an elevator serving an ElevatorRequest by serving a copy
+     * of its RequestQueue with and without the request.
+     *
+     * @param monitor the ElevatorMonitor of the elevator
+     * @param mirror the mirror of the elevator's RequestQueue, which is not changed
+     * @param elevatorRequest an ElevatorRequest
+     * @return the cost in milliseconds, infinity if the elevator cannot serve the request
+     */
+    double estimateCost(ElevatorMonitor monitor, RequestQueue mirror, ElevatorRequest elevatorRequest) {
+        if (monitor.getState() == MovementState.STUCK) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int startFloor = startFloor(monitor);
+        RequestQueue queueWithRequest = mirror.copy();
+        queueWithRequest.addRequest(startFloor, monitor.getDirection(), elevatorRequest);
+
+        // index 0 is the time until the passenger is picked up, index 1 is the time to serve every request
+        long[] timesWithRequest = serve(queueWithRequest, startFloor, elevatorRequest);
+        long[] timesWithoutRequest = serve(mirror.copy(), startFloor, elevatorRequest);
+        return timesWithRequest[0] + timesWithRequest[1] - timesWithoutRequest[1];
+    }
+
+    /**
+     * Serves a RequestQueue in the order an Elevator would, removing its requests.
+     *
+     * @param requestQueue the RequestQueue to serve
+     * @param startFloor the floor the elevator starts from
+     * @param elevatorRequest the request whose passenger is being picked up
+     * @return the time until the passenger is picked up and the time to serve every request, in milliseconds
+     */
+    private long[] serve(RequestQueue requestQueue, int startFloor, ElevatorRequest elevatorRequest) {
+        long time = 0;
+        long pickUpTime = -1;
+        long firstStopTime = -1;
+        int floor = startFloor;
+        while (!requestQueue.isEmpty()) {
+            if (requestQueue.isCurrentQueueEmpty()) {
+                requestQueue.swapQueues();
+            }
+            ServiceRequest servedRequest = requestQueue.removeRequest();
+            time += (long) Math.abs(servedRequest.getFloorNumber() - floor) * elevatorTime;
+            floor = servedRequest.getFloorNumber();
+            // any stop at the floor in the direction of the request picks up the passenger
+            if (floor == elevatorRequest.getFloorNumber()) {
+                if (pickUpTime == -1 && servedRequest.getDirection() == elevatorRequest.getDirection()) {
+                    pickUpTime = time;
+                } else if (firstStopTime == -1) {
+                    firstStopTime = time;
+                }
+            }
+            time += stopTime;
+        }
+        // a queue holds one request per floor, so the request may have been merged with one in the other direction
+        return new long[]{pickUpTime != -1 ? pickUpTime : Math.max(firstStopTime, 0), time};
+    }
+
+    /**
+     * CostTask estimates the costs of a range of elevators, splitting the range
+     * in half until it is at most the sequential threshold. CostTasks are
+     * never serialized.
+     */
+    @SuppressWarnings("serial")
+    private class CostTask extends RecursiveAction {
+
+        private final List<ElevatorMonitor> elevatorMonitorList;
+        private final RequestQueue[] mirrors;
+        private final ElevatorRequest elevatorRequest;
+        private final double[] costs;
+        private final int start;
+        private final int end;
+
+        /**
+         * Constructor for CostTask.
+         *
+         * @param elevatorMonitorList the ElevatorMonitors of the elevators
+         * @param mirrors the mirrors of the elevators' RequestQueues
+         * @param elevatorRequest the ElevatorRequest to assign
+         * @param costs the array to store the cost of each elevator in
+         * @param start the index of the first elevator of the range
+         * @param end the index after the last elevator of the range
+         */
+        CostTask(List<ElevatorMonitor> elevatorMonitorList, RequestQueue[] mirrors, ElevatorRequest elevatorRequest,
+                 double[] costs, int start, int end) {
+            this.elevatorMonitorList = elevatorMonitorList;
+            this.mirrors = mirrors;
+            this.elevatorRequest = elevatorRequest;
+            this.costs = costs;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= sequentialThreshold) {
+                for (int i = start; i < end; i++) {
+                    costs[i] = estimateCost(elevatorMonitorList.get(i), mirrors[i], elevatorRequest);
+                }
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new CostTask(elevatorMonitorList, mirrors, elevatorRequest, costs, start, middle),
+                    new CostTask(elevatorMonitorList, mirrors, elevatorRequest, costs, middle, end));
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package simulation;
+
+import requests.ElevatorMonitor;
+import requests.ElevatorRequest;
+import requests.SystemEvent;
+import scheduler.BatchDispatch;
+import scheduler.DispatchAlgorithm;
+import scheduler.DispatchStrategy;
+import systemwide.InputFileReader;
+import systemwide.Structure;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BuildingSimulation simulates a building's elevators on a virtual clock.
+ * Requests arrive at their scheduled virtual times, as the FloorSubsystem would
+ * send them, and are assigned to SimulatedElevators by a DispatchStrategy. Nothing sleeps, so a day of traffic runs in seconds.
+ * The simulation ends when every request has been served.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class BuildingSimulation {
+
+    private final Structure structure;
+    private final DiscreteEventSimulator simulator;
+    private final ArrayList<SimulatedElevator> elevatorList;
+    private final ArrayList<ElevatorMonitor> elevatorMonitorList;
+    private final DispatchStrategy dispatchStrategy;
+    private final BatchDispatch batchDispatch;
+    // ElevatorRequests waiting to be assigned together when the dispatch window ends
+    private final ArrayList<ElevatorRequest> pendingRequests;
+    private final ArrayList<Long> pendingRequestTimes;
+    private long dispatchWindow;
+    private int requestsDispatched;
+
+    /**
+     * Constructor for BuildingSimulation that assigns requests with the Scheduler's default DispatchStrategy.
+     *
+     * @param structure contains the information for initializing the elevators
+     */
+    public BuildingSimulation(Structure structure) {
+        this(structure, DispatchAlgorithm.DIRECTIONAL.createStrategy(structure));
+    }
+
+    /**
+     * Constructor for BuildingSimulation.
+     *
+     * @param structure contains the information for initializing the elevators
+     * @param dispatchStrategy the DispatchStrategy that assigns requests to elevators
+     */
+    public BuildingSimulation(Structure structure, DispatchStrategy dispatchStrategy) {
+        this.structure = structure;
+        this.dispatchStrategy = dispatchStrategy;
+        batchDispatch = new BatchDispatch(structure.getElevatorTime(), structure.getDoorsTime());
+        pendingRequests = new ArrayList<>();
+        pendingRequestTimes = new ArrayList<>();
+        dispatchWindow = -1;
+        simulator = new DiscreteEventSimulator();
+        elevatorList = new ArrayList<>();
+        elevatorMonitorList = new ArrayList<>();
+        for (int i = 1; i <= structure.getNumberOfElevators(); i++) {
+            SimulatedElevator elevator = new SimulatedElevator(i, simulator, structure.getNumberOfFloors(),
+                    structure.getElevatorTime(), structure.getDoorsTime());
+            elevatorList.add(elevator);
+            elevatorMonitorList.add(elevator.makeElevatorMonitor());
+        }
+        requestsDispatched = 0;
+    }
+
+    /**
+     * Sets how long requests are collected before they are assigned to elevators
+     * together, as the Scheduler does with a dispatch window. A negative time
+     * assigns each request with the DispatchStrategy as soon as it is made.
+     *
+     * @param dispatchWindow the dispatch window in milliseconds
+     */
+    public void setDispatchWindow(long dispatchWindow) {
+        this.dispatchWindow = dispatchWindow;
+    }
+
+    /**
+     * Schedules an ElevatorRequest to be made at the specified virtual time.
+     *
+     * @param arrivalTime the virtual time the request is made at, in milliseconds
+     * @param elevatorRequest the request
+     */
+    public void addRequest(long arrivalTime, ElevatorRequest elevatorRequest) {
+        simulator.scheduleAt(arrivalTime, () -> dispatchRequest(elevatorRequest));
+    }
+
+    /**
+     * Schedules ElevatorRequests to be made one after another with the specified interval,
+     * starting at the current virtual time. Events that are not ElevatorRequests are ignored.
+     *
+     * @param events the events to make requests for
+     * @param interval the virtual time between requests, in milliseconds
+     */
+    public void addRequests(List<SystemEvent> events, long interval) {
+        long arrivalTime = simulator.getClock().now();
+        for (SystemEvent event : events) {
+            if (event instanceof ElevatorRequest elevatorRequest) {
+                addRequest(arrivalTime, elevatorRequest);
+                arrivalTime += interval;
+            }
+        }
+    }
+
+    /**
+     * Assigns an ElevatorRequest to the elevator chosen by the DispatchStrategy, or holds it
+     * until the dispatch window ends. The ElevatorMonitors are updated first, as the Scheduler's
+     * would be by the elevators.
+     *
+     * @param elevatorRequest the request to assign
+     */
+    private void dispatchRequest(ElevatorRequest elevatorRequest) {
+        if (dispatchWindow >= 0) {
+            if (pendingRequests.isEmpty()) {
+                simulator.schedule(dispatchWindow, this::dispatchPendingRequests);
+            }
+            pendingRequests.add(elevatorRequest);
+            pendingRequestTimes.add(simulator.getClock().now());
+            return;
+        }
+        updateElevatorMonitors();
+        int chosenElevator = dispatchStrategy.chooseElevator(elevatorMonitorList, elevatorRequest);
+        // simulated elevators do not get stuck, so an elevator is always chosen
+        elevatorList.get(chosenElevator - 1).addRequest(elevatorRequest);
+        requestsDispatched++;
+    }
+
+    /**
+     * Assigns the requests collected during the dispatch window to elevators together.
+     */
+    private void dispatchPendingRequests() {
+        updateElevatorMonitors();
+        int[] chosenElevators = batchDispatch.assignElevators(elevatorMonitorList, pendingRequests);
+        for (int i = 0; i < pendingRequests.size(); i++) {
+            elevatorList.get(chosenElevators[i] - 1).addRequest(pendingRequests.get(i), pendingRequestTimes.get(i));
+            requestsDispatched++;
+        }
+        pendingRequests.clear();
+        pendingRequestTimes.clear();
+    }
+
+    /**
+     * Updates the ElevatorMonitors with the current state of the elevators.
+     */
+    private void updateElevatorMonitors() {
+        for (int i = 0; i < elevatorList.size(); i++) {
+            elevatorMonitorList.get(i).updateMonitor(elevatorList.get(i).makeElevatorMonitor());
+        }
+    }
+
+    /**
+     * Runs the simulation until every request has been served.
+     */
+    public void run() {
+        simulator.run();
+    }
+
+    /**
+     * Returns the list of SimulatedElevators.
+     *
+     * @return the list of SimulatedElevators
+     */
+    public ArrayList<SimulatedElevator> getElevatorList() {
+        return elevatorList;
+    }
+
+    /**
+     * Returns the DiscreteEventSimulator that runs the simulation.
+     *
+     * @return the DiscreteEventSimulator
+     */
+    public DiscreteEventSimulator getSimulator() {
+        return simulator;
+    }
+
+    /**
+     * Returns the number of requests assigned to elevators.
+     *
+     * @return the number of requests dispatched
+     */
+    public int getRequestsDispatched() {
+        return requestsDispatched;
+    }
+
+    /**
+     * Returns the average time passengers waited for an elevator to pick them up.
+     *
+     * @return the average wait time in milliseconds, 0 if no passenger was picked up
+     */
+    public double getAverageWaitTime() {
+        long totalWaitTime = 0;
+        int passengersPickedUp = 0;
+        for (SimulatedElevator elevator : elevatorList) {
+            totalWaitTime += elevator.getTotalWaitTime();
+            passengersPickedUp += elevator.getPassengersPickedUp();
+        }
+        return passengersPickedUp == 0 ? 0 : (double) totalWaitTime / passengersPickedUp;
+    }
+
+    /**
+     * Returns whether every elevator has served all of its requests.
+     *
+     * @return true if no elevator has requests, false otherwise
+     */
+    public boolean allRequestsServed() {
+        for (SimulatedElevator elevator : elevatorList) {
+            if (!elevator.hasNoRequests()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Prints the virtual time the simulation took, the average wait time, and the work done by each elevator.
+     */
+    public void printSummary() {
+        System.out.println("Served " + requestsDispatched + " requests with " + structure.getNumberOfElevators() +
+                " elevators in " + simulator.getClock().now() + " simulated milliseconds.");
+        System.out.println("Average wait time: " + Math.round(getAverageWaitTime()) + " simulated milliseconds.");
+        for (SimulatedElevator elevator : elevatorList) {
+            System.out.println("Elevator #" + elevator.getElevatorNumber() + ": " + elevator.getStops() +
+                    " stops, " + elevator.getFloorsTraveled() + " floors traveled");
+        }
+    }
+
+    public static void main(String[] args) {
+        Structure structure = new Structure(20, 4, 1000, 1000);
+        // compare dispatch algorithms with the argument --dispatch=NAME, e.g. --dispatch=destination
+        DispatchAlgorithm dispatchAlgorithm = DispatchAlgorithm.fromArgs(args);
+        BuildingSimulation buildingSimulation = new BuildingSimulation(structure, dispatchAlgorithm.createStrategy(structure));
+        // assign the requests made within a window together with the argument --dispatch-window=MILLISECONDS
+        for (String arg : args) {
+            if (arg.startsWith("--dispatch-window=")) {
+                buildingSimulation.setDispatchWindow(Long.parseLong(arg.substring("--dispatch-window=".length())));
+            }
+        }
+        // send requests at the same rate as the FloorSubsystem
+        long interval = (structure.getElevatorTime() + structure.getDoorsTime()) / 5 + 100;
+        buildingSimulation.addRequests(new InputFileReader().readInputFile(InputFileReader.INPUTS_FILENAME), interval);
+
+        long startTime = System.nanoTime();
+        buildingSimulation.run();
+        System.out.println("Dispatch algorithm: " + dispatchAlgorithm);
+        buildingSimulation.printSummary();
+        System.out.println("Simulation took " + (System.nanoTime() - startTime) / 1000000 + " milliseconds to complete.");
+    }
+}
@@ -0,0 +1,118 @@
+package simulation;
+
+import java.util.PriorityQueue;
+
+/**
+ * DiscreteEventSimulator runs actions in order of their virtual time.
+ * Scheduled actions are kept in a priority queue ordered by time, and
+ * actions scheduled for the same time run in the order they were scheduled.
+ * Running an action advances the SimulationClock to its time, so a
+ * simulation runs as fast as its actions can be processed.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class DiscreteEventSimulator {
+
+    private final SimulationClock clock;
+    private final PriorityQueue<ScheduledAction> actionQueue;
+    private long actionsScheduled;
+    private long actionsProcessed;
+
+    /**
+     * Constructor for DiscreteEventSimulator.
+     */
+    public DiscreteEventSimulator() {
+        clock = new SimulationClock();
+        actionQueue = new PriorityQueue<>();
+        actionsScheduled = 0;
+        actionsProcessed = 0;
+    }
+
+    /**
+     * Returns the SimulationClock of the DiscreteEventSimulator.
+     *
+     * @return the SimulationClock
+     */
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Schedules an action to run after the specified delay.
+     *
+     * @param delay the virtual time to wait before running the action, in milliseconds
+     * @param action the action to run
+     */
+    public void schedule(long delay, Runnable action) {
+        if (delay < 0) {
+            throw new IllegalArgumentException("Error: An action cannot be scheduled in the past.");
+        }
+        scheduleAt(clock.now() + delay, action);
+    }
+
+    /**
+     * Schedules an action to run at the specified virtual time.
+     *
+     * @param time the virtual time to run the action at, in milliseconds
+     * @param action the action to run
+     */
+    public void scheduleAt(long time, Runnable action) {
+        if (time < clock.now()) {
+            throw new IllegalArgumentException("Error: An action cannot be scheduled in the past.");
+        }
+        actionQueue.add(new ScheduledAction(time, actionsScheduled++, action));
+    }
+
+    /**
+     * Runs scheduled actions until there are none left.
+     */
+    public void run() {
+        runUntil(Long.MAX_VALUE);
+    }
+
+    /**
+     * Runs the scheduled actions up to and including the specified virtual time.
+     * Actions scheduled after that time remain scheduled.
+     *
+     * @param endTime the virtual time to stop at, in milliseconds
+     */
+    public void runUntil(long endTime) {
+        while (!actionQueue.isEmpty() && actionQueue.peek().time() <= endTime) {
+            ScheduledAction scheduledAction = actionQueue.poll();
+            clock.advanceTo(scheduledAction.time());
+            scheduledAction.action().run();
+            actionsProcessed++;
+        }
+    }
+
+    /**
+     * Returns whether there are any scheduled actions that have not run.
+     *
+     * @return true if there are no scheduled actions, false otherwise
+     */
+    public boolean isIdle() {
+        return actionQueue.isEmpty();
+    }
+
+    /**
+     * Returns the number of actions that have run.
+     *
+     * @return the number of actions processed
+     */
+    public long getActionsProcessed() {
+        return actionsProcessed;
+    }
+
+    /**
+     * ScheduledAction is an action with the virtual time to run it at.
+     * The sequence number orders actions that are scheduled for the same time.
+     */
+    private record ScheduledAction(long time, long sequenceNumber, Runnable action) implements Comparable<ScheduledAction> {
+
+        @Override
+        public int compareTo(ScheduledAction other) {
+            int timeComparison = Long.compare(time, other.time);
+            return timeComparison != 0 ? timeComparison : Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+    }
+}
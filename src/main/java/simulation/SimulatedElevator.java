@@ -0,0 +1,241 @@
+package simulation;
+
+import elevatorsystem.Doors;
+import elevatorsystem.ElevatorMotor;
+import elevatorsystem.Fault;
+import elevatorsystem.RequestQueue;
+import requests.ElevatorMonitor;
+import requests.ElevatorRequest;
+import requests.ServiceRequest;
+import systemwide.Direction;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SimulatedElevator is an Elevator driven by a DiscreteEventSimulator.
+ * It serves its RequestQueue in the same order as an Elevator, but instead of
+ * waiting for the travel and door times to pass, it schedules its next step
+ * after them on the SimulationClock.
+ *
+ * @author Liam Tripp, Brady Norton
+ */
+public class SimulatedElevator {
+
+    private final int elevatorNumber;
+    private final DiscreteEventSimulator simulator;
+    private final RequestQueue requestQueue;
+    private final ElevatorMotor motor;
+    private final Doors doors;
+    private final int travelTime;
+    private final int doorTime;
+    private int currentFloor;
+    private int nextFloor;
+    private Direction serviceDirection;
+    private boolean stepScheduled;
+    private int stops;
+    private int floorsTraveled;
+    // for each direction, floors with passengers waiting to travel in that direction, mapped to the times they started waiting
+    private final Map<Direction, Map<Integer, ArrayList<Long>>> passengersWaiting;
+    private int passengersPickedUp;
+    private long totalWaitTime;
+
+    /**
+     * Constructor for SimulatedElevator.
+     *
+     * @param elevatorNumber the number of the elevator
+     * @param simulator the DiscreteEventSimulator that schedules the elevator's steps
+     * @param numberOfFloors the number of floors in the building
+     * @param travelTime the time to travel between adjacent floors in milliseconds
+     * @param doorTime the time to open or close the doors in milliseconds
+     */
+    public SimulatedElevator(int elevatorNumber, DiscreteEventSimulator simulator, int numberOfFloors, int travelTime, int doorTime) {
+        this.elevatorNumber = elevatorNumber;
+        this.simulator = simulator;
+        this.travelTime = travelTime;
+        this.doorTime = doorTime;
+        requestQueue = new RequestQueue(numberOfFloors);
+        motor = new ElevatorMotor();
+        doors = new Doors();
+        currentFloor = 1;
+        nextFloor = 1;
+        serviceDirection = Direction.UP;
+        stepScheduled = false;
+        stops = 0;
+        floorsTraveled = 0;
+        passengersWaiting = new EnumMap<>(Direction.class);
+        passengersPickedUp = 0;
+        totalWaitTime = 0;
+    }
+
+    /**
+     * Adds a request to the RequestQueue and starts the elevator if it is idle.
+     *
+     * @param serviceRequest a service request for the elevator to perform
+     */
+    public void addRequest(ServiceRequest serviceRequest) {
+        addRequest(serviceRequest, simulator.getClock().now());
+    }
+
+    /**
+     * Adds a request that was made at the specified virtual time to the RequestQueue
+     * and starts the elevator if it is idle. The passenger of an ElevatorRequest is
+     * considered to be waiting since that time.
+     *
+     * @param serviceRequest a service request for the elevator to perform
+     * @param requestTime the virtual time the request was made at, in milliseconds
+     */
+    public void addRequest(ServiceRequest serviceRequest, long requestTime) {
+        // a moving elevator has already passed its current floor, so it can only stop at the next one
+        int elevatorFloorToPass = motor.isActive() ? nextFloor : currentFloor;
+        requestQueue.addRequest(elevatorFloorToPass, serviceDirection, serviceRequest);
+        if (serviceRequest instanceof ElevatorRequest) {
+            passengersWaiting.computeIfAbsent(serviceRequest.getDirection(), direction -> new HashMap<>())
+                    .computeIfAbsent(serviceRequest.getFloorNumber(), floor -> new ArrayList<>()).add(requestTime);
+        }
+        if (!stepScheduled) {
+            scheduleStep(0);
+        }
+    }
+
+    /**
+     * Serves the next request in the RequestQueue by moving one floor towards it
+     * or by stopping at its floor, then schedules the next step.
+     */
+    private void step() {
+        stepScheduled = false;
+        if (doors.areOpen()) {
+            doors.close();
+        }
+        if (requestQueue.isCurrentQueueEmpty() && requestQueue.swapQueues()) {
+            serviceDirection = Direction.swapDirection(serviceDirection);
+        }
+        if (requestQueue.isCurrentQueueEmpty()) {
+            motor.stop();
+            return;
+        }
+
+        int requestFloor = requestQueue.peekNextRequest().getFloorNumber();
+        if (currentFloor == requestFloor) {
+            // open and close the doors at the floor
+            requestQueue.removeRequest();
+            motor.stop();
+            doors.open();
+            stops++;
+            pickUpPassengers();
+            scheduleStep(doorTime * 2L);
+        } else {
+            nextFloor = motor.move(currentFloor, requestFloor);
+            motor.startMoving();
+            motor.changeDirection(currentFloor, nextFloor);
+            floorsTraveled++;
+            stepScheduled = true;
+            simulator.schedule(travelTime, () -> {
+                currentFloor = nextFloor;
+                step();
+            });
+        }
+    }
+
+    /**
+     * Picks up the passengers waiting at the current floor to travel in the service direction
+     * and records how long they waited. Passengers travelling in the other direction are
+     * picked up when the elevator serves their direction, as the RequestQueue keeps them apart.
+     */
+    private void pickUpPassengers() {
+        Map<Integer, ArrayList<Long>> floorsWaiting = passengersWaiting.get(serviceDirection);
+        ArrayList<Long> waitingSince = floorsWaiting == null ? null : floorsWaiting.remove(currentFloor);
+        if (waitingSince == null) {
+            return;
+        }
+        long now = simulator.getClock().now();
+        for (long time : waitingSince) {
+            totalWaitTime += now - time;
+        }
+        passengersPickedUp += waitingSince.size();
+    }
+
+    /**
+     * Schedules the elevator's next step after the specified delay.
+     *
+     * @param delay the virtual time before the next step in milliseconds
+     */
+    private void scheduleStep(long delay) {
+        stepScheduled = true;
+        simulator.schedule(delay, this::step);
+    }
+
+    /**
+     * Creates an ElevatorMonitor with the elevator's current state.
+     *
+     * @return an ElevatorMonitor for the elevator
+     */
+    public ElevatorMonitor makeElevatorMonitor() {
+        return new ElevatorMonitor(elevatorNumber, currentFloor, serviceDirection, motor.getMovementState(), motor.getDirection(), doors.getState(), Fault.NONE, requestQueue.isEmpty(), requestQueue.getExpectedTime(currentFloor, doorTime * 2, travelTime));
+    }
+
+    /**
+     * Returns the elevator number.
+     *
+     * @return an integer corresponding to the elevator's number
+     */
+    public int getElevatorNumber() {
+        return elevatorNumber;
+    }
+
+    /**
+     * Returns the floor the elevator is at.
+     *
+     * @return the current floor of the elevator
+     */
+    public int getCurrentFloor() {
+        return currentFloor;
+    }
+
+    /**
+     * Returns whether the RequestQueue is empty.
+     *
+     * @return true if the RequestQueue is empty, false otherwise
+     */
+    public boolean hasNoRequests() {
+        return requestQueue.isEmpty();
+    }
+
+    /**
+     * Returns the number of times the elevator stopped at a floor.
+     *
+     * @return the number of stops
+     */
+    public int getStops() {
+        return stops;
+    }
+
+    /**
+     * Returns the number of floors the elevator traveled.
+     *
+     * @return the number of floors traveled
+     */
+    public int getFloorsTraveled() {
+        return floorsTraveled;
+    }
+
+    /**
+     * Returns the number of passengers the elevator picked up.
+     *
+     * @return the number of passengers picked up
+     */
+    public int getPassengersPickedUp() {
+        return passengersPickedUp;
+    }
+
+    /**
+     * Returns the total time the passengers picked up by the elevator waited for it.
+     *
+     * @return the total wait time in milliseconds
+     */
+    public long getTotalWaitTime() {
+        return totalWaitTime;
+    }
+}
@@ -0,0 +1,41 @@
+package simulation;
+
+/**
+ * SimulationClock keeps the virtual time of a discrete-event simulation.
+ * Time only advances when the DiscreteEventSimulator processes an event,
+ * so no wall-clock time passes while the simulated system waits.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class SimulationClock {
+
+    private long currentTime;
+
+    /**
+     * Constructor for SimulationClock. The clock starts at time 0.
+     */
+    public SimulationClock() {
+        currentTime = 0;
+    }
+
+    /**
+     * Returns the current virtual time.
+     *
+     * @return the current virtual time in milliseconds
+     */
+    public long now() {
+        return currentTime;
+    }
+
+    /**
+     * Advances the clock to the specified time.
+     *
+     * @param time the new virtual time in milliseconds
+     */
+    void advanceTo(long time) {
+        if (time < currentTime) {
+            throw new IllegalArgumentException("Error: The SimulationClock cannot move backwards in time.");
+        }
+        currentTime = time;
+    }
+}
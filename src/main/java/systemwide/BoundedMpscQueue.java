@@ -0,0 +1,216 @@
+package systemwide;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * BoundedMpscQueue is a bounded first-in-first-out queue for many producer threads
+ * and a single consumer thread. It is used by the subsystems to hand events from
+ * the threads that create them to the thread that sends them.
+ *
+ * The elements are kept in a ring buffer. A producer claims a slot by advancing the
+ * producer index with a compare-and-set, then stores its element in the slot, so
+ * producers never block each other with a lock. The consumer takes elements in the
+ * order their slots were claimed and frees each slot by clearing it.
+ *
+ * When the queue is full, offer fails immediately, and the timed offer waits for the
+ * consumer to free a slot. This applies backpressure to the producers instead of
+ * letting the queue grow without bound.
+ *
+ * @param <E> the type of the elements in the queue
+ * @author Liam Tripp, Julian
+ */
+public class BoundedMpscQueue<E> {
+
+    // time a producer waits between attempts to add to a full queue
+    private static final long PRODUCER_BACKOFF_TIME = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AtomicReferenceArray<E> buffer;
+    private final int capacity;
+    private final int mask;
+    // index of the next slot to claim; only advanced by producers
+    private final AtomicLong producerIndex;
+    // index of the next slot to take from; only written by the consumer
+    private volatile long consumerIndex;
+    // the consumer thread while it waits for an element, null otherwise
+    private volatile Thread waitingConsumer;
+
+    /**
+     * Constructor for BoundedMpscQueue.
+     *
+     * @param capacity the minimum number of elements the queue can hold, rounded up to a power of two
+     */
+    public BoundedMpscQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Error: The capacity must be between 1 and 2^30.");
+        }
+        this.capacity = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        mask = this.capacity - 1;
+        buffer = new AtomicReferenceArray<>(this.capacity);
+        producerIndex = new AtomicLong();
+        consumerIndex = 0;
+    }
+
+    /**
+     * Adds an element to the end of the queue if it is not full.
+     * This may be called by any thread.
+     *
+     * @param element the element to add
+     * @return true if the element was added, false if the queue is full
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException("Error: The queue cannot hold null elements.");
+        }
+        long index;
+        do {
+            index = producerIndex.get();
+            if (index - consumerIndex >= capacity) {
+                return false;
+            }
+        } while (!producerIndex.compareAndSet(index, index + 1));
+        // the slot is claimed; storing the element makes it visible to the consumer
+        buffer.set((int) index & mask, element);
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * Adds an element to the end of the queue, waiting up to the specified time
+     * for the consumer to make space if the queue is full.
+     * This may be called by any thread.
+     *
+     * @param element the element to add
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return true if the element was added, false if the queue was still full after the timeout
+     */
+    public boolean offer(E element, long timeout, TimeUnit unit) {
+        if (offer(element)) {
+            return true;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!offer(element)) {
+            long remainingTime = deadline - System.nanoTime();
+            if (remainingTime <= 0) {
+                return false;
+            }
+            LockSupport.parkNanos(this, Math.min(remainingTime, PRODUCER_BACKOFF_TIME));
+        }
+        return true;
+    }
+
+    /**
+     * Removes the element at the front of the queue.
+     * This must only be called by the consumer thread.
+     *
+     * @return the element at the front of the queue, null if the queue is empty
+     */
+    public E poll() {
+        long index = consumerIndex;
+        int offset = (int) index & mask;
+        E element = buffer.get(offset);
+        if (element == null) {
+            if (index == producerIndex.get()) {
+                return null;
+            }
+            // a producer has claimed the slot but has not stored its element yet
+            do {
+                Thread.onSpinWait();
+                element = buffer.get(offset);
+            } while (element == null);
+        }
+        buffer.lazySet(offset, null);
+        // publishing the new index frees the slot for the producers
+        consumerIndex = index + 1;
+        return element;
+    }
+
+    /**
+     * Removes the element at the front of the queue, waiting up to the
+     * specified time for an element to be added if the queue is empty.
+     * This must only be called by the consumer thread.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit the unit of the timeout
+     * @return the element at the front of the queue, null if the queue was still empty after the timeout
+     * @throws InterruptedException if the consumer thread is interrupted while waiting
+     */
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E element = poll();
+        if (element != null) {
+            return element;
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        waitingConsumer = Thread.currentThread();
+        try {
+            // producers check for a waiting consumer after adding, so the queue is checked again after waiting starts
+            while ((element = poll()) == null) {
+                long remainingTime = deadline - System.nanoTime();
+                if (remainingTime <= 0) {
+                    return null;
+                }
+                LockSupport.parkNanos(this, remainingTime);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            return element;
+        } finally {
+            waitingConsumer = null;
+        }
+    }
+
+    /**
+     * Removes every element in the queue and adds them to a collection in order.
+     * This must only be called by the consumer thread.
+     *
+     * @param collection the collection to add the elements to
+     * @return the number of elements removed
+     */
+    public int drainTo(Collection<? super E> collection) {
+        int elementsRemoved = 0;
+        E element;
+        while ((element = poll()) != null) {
+            collection.add(element);
+            elementsRemoved++;
+        }
+        return elementsRemoved;
+    }
+
+    /**
+     * Returns the number of elements in the queue. Elements that are being
+     * added concurrently may or may not be counted.
+     *
+     * @return the number of elements in the queue
+     */
+    public int size() {
+        long currentConsumerIndex = consumerIndex;
+        long size = producerIndex.get() - currentConsumerIndex;
+        return (int) Math.max(0, Math.min(capacity, size));
+    }
+
+    /**
+     * Determines whether the queue is empty.
+     *
+     * @return true if the queue has no elements, false otherwise
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the maximum number of elements the queue can hold.
+     *
+     * @return the capacity of the queue
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -13,6 +13,11 @@ public class Structure implements Serializable {
     private int numberOfElevators;
     private int elevatorTime;
     private int doorsTime;
+    private boolean pushDeliveryEnabled;
+    private int batchLingerTime;
+    private int dispatchWindow;
+    private int monitorKeyframeInterval;
+    private boolean localStopDecisionsEnabled;
 
     /**
      * Constructor for Structure.
@@ -27,6 +32,11 @@ public class Structure implements Serializable {
         this.numberOfElevators = numberOfElevators;
         this.elevatorTime = elevatorTime;
         this.doorsTime = doorsTime;
+        pushDeliveryEnabled = false;
+        batchLingerTime = -1;
+        dispatchWindow = -1;
+        monitorKeyframeInterval = 1;
+        localStopDecisionsEnabled = false;
     }
 
     /**
@@ -100,4 +110,107 @@ public class Structure implements Serializable {
     public void setDoorsTime(int time) {
         doorsTime = time;
     }
+
+    /**
+     * Indicates whether the Scheduler pushes events to the subsystems
+     * instead of the subsystems requesting them.
+     *
+     * @return true if events are pushed to the subsystems, false otherwise
+     */
+    public boolean isPushDeliveryEnabled() {
+        return pushDeliveryEnabled;
+    }
+
+    /**
+     * Sets whether the Scheduler pushes events to the subsystems.
+     *
+     * @param pushDeliveryEnabled true if events are pushed to the subsystems, false otherwise
+     */
+    public void setPushDeliveryEnabled(boolean pushDeliveryEnabled) {
+        this.pushDeliveryEnabled = pushDeliveryEnabled;
+    }
+
+    /**
+     * Returns how long systems wait for more events before sending their pending
+     * events together in a batch. A negative time means that events are not batched.
+     *
+     * @return the batch linger time in milliseconds
+     */
+    public int getBatchLingerTime() {
+        return batchLingerTime;
+    }
+
+    /**
+     * Sets how long systems wait for more events before sending their pending
+     * events together in a batch. A negative time disables batching and zero
+     * batches only the events that are already pending.
+     *
+     * @param batchLingerTime the batch linger time in milliseconds
+     */
+    public void setBatchLingerTime(int batchLingerTime) {
+        this.batchLingerTime = batchLingerTime;
+    }
+
+    /**
+     * Returns how long the Scheduler collects ElevatorRequests before assigning
+     * them to elevators together. A negative time means that each ElevatorRequest
+     * is assigned as soon as it arrives.
+     *
+     * @return the dispatch window in milliseconds
+     */
+    public int getDispatchWindow() {
+        return dispatchWindow;
+    }
+
+    /**
+     * Sets how long the Scheduler collects ElevatorRequests before assigning
+     * them to elevators together. A negative time disables batch dispatch.
+     *
+     * @param dispatchWindow the dispatch window in milliseconds
+     */
+    public void setDispatchWindow(int dispatchWindow) {
+        this.dispatchWindow = dispatchWindow;
+    }
+
+    /**
+     * Returns how often the ElevatorSubsystem sends an elevator's ElevatorMonitor in full.
+     * The ElevatorMonitors between two keyframes only carry the fields that changed.
+     *
+     * @return the number of ElevatorMonitors of an elevator sent per keyframe
+     */
+    public int getMonitorKeyframeInterval() {
+        return monitorKeyframeInterval;
+    }
+
+    /**
+     * Sets how often the ElevatorSubsystem sends an elevator's ElevatorMonitor in full.
+     * An interval of 1 sends every ElevatorMonitor in full, which disables deltas.
+     *
+     * @param monitorKeyframeInterval the number of ElevatorMonitors of an elevator sent per keyframe
+     */
+    public void setMonitorKeyframeInterval(int monitorKeyframeInterval) {
+        if (monitorKeyframeInterval < 1) {
+            throw new IllegalArgumentException("Error: The keyframe interval must be at least 1.");
+        }
+        this.monitorKeyframeInterval = monitorKeyframeInterval;
+    }
+
+    /**
+     * Returns whether Elevators decide where to stop without waiting for their ApproachEvents to return.
+     *
+     * @return true if stops are decided locally, false otherwise
+     */
+    public boolean isLocalStopDecisionsEnabled() {
+        return localStopDecisionsEnabled;
+    }
+
+    /**
+     * Sets whether Elevators decide where to stop without waiting for their ApproachEvents to return.
+     * Returned ApproachEvents then only verify the Elevators' arrival sensors.
+     *
+     * @param localStopDecisionsEnabled true if stops are decided locally, false otherwise
+     */
+    public void setLocalStopDecisionsEnabled(boolean localStopDecisionsEnabled) {
+        this.localStopDecisionsEnabled = localStopDecisionsEnabled;
+    }
 }
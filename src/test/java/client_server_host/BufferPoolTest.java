@@ -0,0 +1,54 @@
+package client_server_host;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BufferPoolTest ensures that a BufferPool reuses the buffers released to it.
+ *
+ * @author Liam Tripp, Julian
+ */
+public class BufferPoolTest {
+
+    @Test
+    void testReleasedBufferIsReusedCleared() {
+        BufferPool bufferPool = new BufferPool(64, false, 2);
+        ByteBuffer buffer = bufferPool.acquire();
+        buffer.putInt(7).flip();
+        bufferPool.release(buffer);
+
+        ByteBuffer reusedBuffer = bufferPool.acquire();
+        assertSame(buffer, reusedBuffer);
+        assertEquals(0, reusedBuffer.position());
+        assertEquals(64, reusedBuffer.limit());
+        assertEquals(0, bufferPool.getPooledBufferCount());
+    }
+
+    @Test
+    void testBuffersBeyondMaximumAreDiscarded() {
+        BufferPool bufferPool = new BufferPool(64, false, 2);
+        ByteBuffer[] buffers = {bufferPool.acquire(), bufferPool.acquire(), bufferPool.acquire()};
+        for (ByteBuffer buffer : buffers) {
+            bufferPool.release(buffer);
+        }
+        assertEquals(2, bufferPool.getPooledBufferCount());
+    }
+
+    @Test
+    void testDirectBuffersAllocated() {
+        BufferPool bufferPool = new BufferPool(64, true, 2);
+        ByteBuffer buffer = bufferPool.acquire();
+        assertTrue(buffer.isDirect());
+        assertEquals(64, buffer.capacity());
+    }
+
+    @Test
+    void testBufferOfAnotherCapacityIsRejected() {
+        BufferPool bufferPool = new BufferPool(64, false, 2);
+        assertThrows(IllegalArgumentException.class, () -> bufferPool.release(ByteBuffer.allocate(32)));
+        assertThrows(IllegalArgumentException.class, () -> new BufferPool(0, false, 2));
+    }
+}
@@ -0,0 +1,107 @@
+package client_server_host;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import requests.ApproachEvent;
+import requests.ElevatorRequest;
+import requests.SystemEvent;
+import systemwide.Direction;
+import systemwide.Origin;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * InMemoryTransportTest ensures that InMemoryTransports connected by an InMemoryNetwork
+ * pass messages to each other by reference.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class InMemoryTransportTest {
+
+    private InMemoryNetwork network;
+    private InMemoryTransport sender;
+    private InMemoryTransport receiver;
+    private InetSocketAddress receiverAddress;
+    private ElevatorRequest elevatorRequest;
+
+    @BeforeEach
+    void setUp() {
+        network = new InMemoryNetwork();
+        sender = network.connect(Port.CLIENT.getNumber());
+        receiver = network.connect(Port.CLIENT_TO_SERVER.getNumber());
+        receiver.setReceiveTimeout(100);
+        receiverAddress = new InetSocketAddress(InetAddress.getLoopbackAddress(), receiver.getPortNumber());
+        elevatorRequest = new ElevatorRequest(LocalTime.now(), 2, Direction.UP, 4, Origin.FLOOR_SYSTEM);
+    }
+
+    @Test
+    void testSentEventIsReceivedWithoutCopy() {
+        sender.send(elevatorRequest, receiverAddress);
+
+        Message message = receiver.receive();
+        assertSame(elevatorRequest, message.getContent());
+        assertEquals(Port.CLIENT.getNumber(), message.getPort());
+        assertNull(receiver.receiveAvailable());
+    }
+
+    @Test
+    void testIntermediateHostIsNotSelectable() {
+        // an InMemoryTransport has no channel to select on
+        assertFalse(new IntermediateHost(receiver, Port.SERVER.getNumber()).isSelectable());
+    }
+
+    @Test
+    void testReplySentToSenderOfMessage() {
+        sender.setReceiveTimeout(100);
+        sender.send(RequestMessage.REQUEST.getMessage(), receiverAddress);
+        Message request = receiver.receive();
+        receiver.send(RequestMessage.EMPTYQUEUE.getMessage(), request.getSender());
+
+        assertEquals(RequestMessage.EMPTYQUEUE.getMessage(), sender.receive().getContent());
+    }
+
+    @Test
+    void testBatchIsReceivedAsOneList() {
+        ApproachEvent approachEvent = new ApproachEvent(elevatorRequest, 3, 1);
+        assertEquals(1, sender.sendBatch(List.of(elevatorRequest, approachEvent), receiverAddress));
+
+        List<?> events = (List<?>) receiver.receive().getContent();
+        assertEquals(2, events.size());
+        assertSame(elevatorRequest, events.get(0));
+        assertSame(approachEvent, events.get(1));
+    }
+
+    @Test
+    void testReceiveReturnsNullAfterTimeout() {
+        assertNull(receiver.receive());
+    }
+
+    @Test
+    void testMessagesToClosedTransportAreDiscarded() {
+        receiver.close();
+        sender.send(elevatorRequest, receiverAddress);
+
+        assertNull(receiver.receive());
+        assertNull(receiver.receiveAvailable());
+        // the port is free again once the transport is closed
+        assertEquals(receiver.getPortNumber(), network.connect(receiver.getPortNumber()).getPortNumber());
+    }
+
+    @Test
+    void testPortInUseIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> network.connect(Port.CLIENT.getNumber()));
+        InMemoryTransport anyPortTransport = network.connect(0);
+        assertNotEquals(0, anyPortTransport.getPortNumber());
+    }
+
+    @Test
+    void testBatchedEventsTakeNoSpaceInFrame() {
+        SystemEvent event = elevatorRequest;
+        assertEquals(0, sender.batchedLength(event));
+    }
+}
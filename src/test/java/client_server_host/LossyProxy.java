@@ -0,0 +1,188 @@
+package client_server_host;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LossyProxy relays datagrams between the sockets that send to it and a target socket,
+ * dropping, duplicating and delaying a fraction of them to simulate an unreliable network.
+ * Delayed datagrams may overtake others, so they also arrive out of order.
+ *
+ * @author Liam Tripp, Julian
+ */
+public class LossyProxy {
+
+    // maximum time that a delayed datagram is held
+    private static final int MAX_DELAY = 15; // milliseconds
+
+    private final DatagramSocket frontSocket;
+    private final DatagramSocket backSocket;
+    private final SocketAddress target;
+    private final double lossRate;
+    private final double duplicateRate;
+    private final double delayRate;
+    private final Random random;
+    private final ScheduledExecutorService delayedSender;
+    // number of the next datagrams from clients that are dropped regardless of the loss rate
+    private final AtomicInteger datagramsToDrop;
+    // the first datagram relayed from a client, kept to be sent again late
+    private volatile byte[] firstDatagramFromClients;
+    private volatile SocketAddress client;
+
+    /**
+     * Constructor for LossyProxy.
+     *
+     * @param targetPortNumber the port of the local socket that datagrams are relayed to
+     * @param lossRate the fraction of datagrams that are dropped
+     * @param duplicateRate the fraction of datagrams that are sent twice
+     * @param delayRate the fraction of datagrams that are delayed
+     * @param seed the seed of the random choices
+     * @throws IOException if the proxy's sockets could not be opened
+     */
+    public LossyProxy(int targetPortNumber, double lossRate, double duplicateRate, double delayRate, long seed) throws IOException {
+        frontSocket = new DatagramSocket(0);
+        backSocket = new DatagramSocket(0);
+        target = new InetSocketAddress(InetAddress.getLocalHost(), targetPortNumber);
+        this.lossRate = lossRate;
+        this.duplicateRate = duplicateRate;
+        this.delayRate = delayRate;
+        random = new Random(seed);
+        delayedSender = Executors.newSingleThreadScheduledExecutor();
+        datagramsToDrop = new AtomicInteger();
+    }
+
+    /**
+     * Sends the first datagram that a client sent to the target again,
+     * as a network that delayed a copy of it for a long time would.
+     */
+    public void resendFirstFromClients() {
+        send(firstDatagramFromClients, target, backSocket);
+    }
+
+    /**
+     * Drops the next datagrams that clients send, in addition to those dropped at the loss rate.
+     *
+     * @param numberOfDatagrams the number of datagrams to drop
+     */
+    public void dropNextFromClients(int numberOfDatagrams) {
+        datagramsToDrop.set(numberOfDatagrams);
+    }
+
+    /**
+     * Returns the port that clients send to in order to reach the target.
+     *
+     * @return the port number of the proxy
+     */
+    public int getPortNumber() {
+        return frontSocket.getLocalPort();
+    }
+
+    /**
+     * Starts relaying datagrams in both directions.
+     */
+    public void start() {
+        startRelay(frontSocket, true);
+        startRelay(backSocket, false);
+    }
+
+    /**
+     * Stops relaying datagrams and closes the proxy's sockets.
+     */
+    public void close() {
+        frontSocket.close();
+        backSocket.close();
+        delayedSender.shutdownNow();
+    }
+
+    /**
+     * Starts a thread that relays the datagrams received by one of the proxy's sockets.
+     *
+     * @param socket the socket to receive from
+     * @param fromClient true if the socket receives from clients, false if it receives from the target
+     */
+    private void startRelay(DatagramSocket socket, boolean fromClient) {
+        Thread relay = new Thread(() -> {
+            byte[] data = new byte[2048];
+            DatagramPacket packet = new DatagramPacket(data, data.length);
+            while (!socket.isClosed()) {
+                try {
+                    packet.setLength(data.length);
+                    socket.receive(packet);
+                } catch (IOException e) {
+                    return;
+                }
+                if (fromClient) {
+                    client = packet.getSocketAddress();
+                    if (datagramsToDrop.getAndUpdate(count -> Math.max(count - 1, 0)) > 0) {
+                        continue;
+                    }
+                }
+                SocketAddress destination = fromClient ? target : client;
+                DatagramSocket sendingSocket = fromClient ? backSocket : frontSocket;
+                byte[] datagram = Arrays.copyOf(data, packet.getLength());
+                if (fromClient && firstDatagramFromClients == null) {
+                    firstDatagramFromClients = datagram;
+                }
+                relay(datagram, destination, sendingSocket);
+            }
+        }, "LossyProxy Relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    /**
+     * Drops, duplicates, delays or forwards a datagram.
+     *
+     * @param datagram the datagram to relay
+     * @param destination the address to relay the datagram to
+     * @param socket the socket to send the datagram from
+     */
+    private void relay(byte[] datagram, SocketAddress destination, DatagramSocket socket) {
+        double lossChoice;
+        double duplicateChoice;
+        double delayChoice;
+        int delay;
+        synchronized (random) {
+            lossChoice = random.nextDouble();
+            duplicateChoice = random.nextDouble();
+            delayChoice = random.nextDouble();
+            delay = random.nextInt(MAX_DELAY) + 1;
+        }
+        if (lossChoice < lossRate) {
+            return;
+        }
+        int copies = duplicateChoice < duplicateRate ? 2 : 1;
+        for (int i = 0; i < copies; i++) {
+            if (delayChoice < delayRate) {
+                delayedSender.schedule(() -> send(datagram, destination, socket), delay, TimeUnit.MILLISECONDS);
+            } else {
+                send(datagram, destination, socket);
+            }
+        }
+    }
+
+    /**
+     * Sends a datagram, ignoring failures, which the network may also cause.
+     *
+     * @param datagram the datagram to send
+     * @param destination the address to send the datagram to
+     * @param socket the socket to send the datagram from
+     */
+    private void send(byte[] datagram, SocketAddress destination, DatagramSocket socket) {
+        try {
+            socket.send(new DatagramPacket(datagram, datagram.length, destination));
+        } catch (IOException e) {
+            // the datagram is lost
+        }
+    }
+}
@@ -10,11 +10,13 @@ import systemwide.Direction;
 import systemwide.Origin;
 import systemwide.Structure;
 
+import java.io.UncheckedIOException;
 import java.net.DatagramPacket;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * MessageTransferTest ensures the encoding/decoding and send/receive methods
@@ -100,6 +102,148 @@ public class MessageTransferTest {
         assertEquals(requestOut.getElevatorNumber(), approachEvent.getElevatorNumber());
     }
 
+    @Test
+    void testEncodingWithElevatorMonitor() {
+        elevatorMonitor.setCurrentRequest(serviceRequest);
+        byte[] requestIn = msgTransfer.encodeObject(elevatorMonitor);
+        Object objectOut = msgTransfer.decodeObject(requestIn);
+
+        //Test for correct class instance
+        assertTrue(objectOut instanceof ElevatorMonitor);
+
+        //Test for proper attributes
+        ElevatorMonitor monitorOut = (ElevatorMonitor) objectOut;
+        assertEquals(elevatorMonitor.getTime(), monitorOut.getTime());
+        assertEquals(elevatorMonitor.getOrigin(), monitorOut.getOrigin());
+        assertEquals(elevatorMonitor.getElevatorNumber(), monitorOut.getElevatorNumber());
+        assertEquals(elevatorMonitor.getCurrentFloor(), monitorOut.getCurrentFloor());
+        assertEquals(elevatorMonitor.getDirection(), monitorOut.getDirection());
+        assertEquals(elevatorMonitor.getState(), monitorOut.getState());
+        assertEquals(elevatorMonitor.getMovementDirection(), monitorOut.getMovementDirection());
+        assertEquals(elevatorMonitor.getDoorsState(), monitorOut.getDoorsState());
+        assertEquals(elevatorMonitor.getFault(), monitorOut.getFault());
+        assertEquals(elevatorMonitor.hasNoRequests(), monitorOut.hasNoRequests());
+        assertEquals(elevatorMonitor.getQueueTime(), monitorOut.getQueueTime());
+        assertEquals(serviceRequest.getFloorNumber(), monitorOut.getCurrentRequest().getFloorNumber());
+    }
+
+    @Test
+    void testEncodingWithElevatorMonitorDelta() {
+        ElevatorMonitor movedMonitor = new ElevatorMonitor(0, 2, Direction.UP, MovementState.ACTIVE, Direction.UP,
+                Doors.State.CLOSED, Fault.NONE, true, 0);
+        movedMonitor.setCurrentRequest(serviceRequest);
+        movedMonitor.setChangedFields(movedMonitor.changedFieldsSince(elevatorMonitor));
+        assertEquals(ElevatorMonitor.CURRENT_FLOOR | ElevatorMonitor.MOVEMENT_STATE |
+                ElevatorMonitor.DOORS_STATE | ElevatorMonitor.CURRENT_REQUEST, movedMonitor.getChangedFields());
+        assertFalse(movedMonitor.isKeyframe());
+
+        byte[] deltaBytes = msgTransfer.encodeObject(movedMonitor);
+        movedMonitor.setChangedFields(ElevatorMonitor.CURRENT_FLOOR);
+        byte[] floorDeltaBytes = msgTransfer.encodeObject(movedMonitor);
+        movedMonitor.setChangedFields(ElevatorMonitor.ALL_FIELDS);
+        assertTrue(floorDeltaBytes.length < deltaBytes.length);
+        assertTrue(deltaBytes.length < msgTransfer.encodeObject(movedMonitor).length);
+
+        // a delta only updates the fields it carries
+        ElevatorMonitor monitorOut = (ElevatorMonitor) msgTransfer.decodeObject(deltaBytes);
+        assertEquals(movedMonitor.getTime(), monitorOut.getTime());
+        ElevatorMonitor schedulerMonitor = new ElevatorMonitor(0, 1, Direction.DOWN, MovementState.IDLE, Direction.UP,
+                Doors.State.OPEN, Fault.NONE, false, 12.5);
+        schedulerMonitor.updateMonitor(monitorOut);
+        assertEquals(2, schedulerMonitor.getCurrentFloor());
+        assertEquals(MovementState.ACTIVE, schedulerMonitor.getState());
+        assertEquals(Doors.State.CLOSED, schedulerMonitor.getDoorsState());
+        assertEquals(serviceRequest.getFloorNumber(), schedulerMonitor.getCurrentRequest().getFloorNumber());
+        assertEquals(Direction.DOWN, schedulerMonitor.getDirection());
+        assertFalse(schedulerMonitor.hasNoRequests());
+        assertEquals(12.5, schedulerMonitor.getQueueTime());
+
+        // a keyframe updates every field
+        schedulerMonitor.updateMonitor((ElevatorMonitor) msgTransfer.decodeObject(msgTransfer.encodeObject(movedMonitor)));
+        assertEquals(Direction.UP, schedulerMonitor.getDirection());
+        assertTrue(schedulerMonitor.hasNoRequests());
+        assertEquals(0, schedulerMonitor.getQueueTime());
+    }
+
+    @Test
+    void testEncodingWithStringAndStructure() {
+        String message = RequestMessage.ACKNOWLEDGE.getMessage();
+        assertEquals(message, msgTransfer.decodeObject(msgTransfer.encodeObject(message)));
+
+        Object objectOut = msgTransfer.decodeObject(msgTransfer.encodeObject(structure));
+        assertTrue(objectOut instanceof Structure);
+        Structure structureOut = (Structure) objectOut;
+        assertEquals(structure.getNumberOfFloors(), structureOut.getNumberOfFloors());
+        assertEquals(structure.getNumberOfElevators(), structureOut.getNumberOfElevators());
+        assertEquals(structure.getElevatorTime(), structureOut.getElevatorTime());
+        assertEquals(structure.getDoorsTime(), structureOut.getDoorsTime());
+
+        structure.setMonitorKeyframeInterval(16);
+        structureOut = (Structure) msgTransfer.decodeObject(msgTransfer.encodeObject(structure));
+        assertEquals(16, structureOut.getMonitorKeyframeInterval());
+        assertFalse(structureOut.isLocalStopDecisionsEnabled());
+
+        structure.setLocalStopDecisionsEnabled(true);
+        structureOut = (Structure) msgTransfer.decodeObject(msgTransfer.encodeObject(structure));
+        assertTrue(structureOut.isLocalStopDecisionsEnabled());
+    }
+
+    @Test
+    void testEncodingWithBatch() {
+        List<SystemEvent> events = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            events.add(i % 2 == 0 ? elevatorMonitor : approachEvent);
+        }
+        List<byte[]> frames = msgTransfer.encodeBatch(events);
+        // the events do not fit into a single packet
+        assertTrue(frames.size() > 1);
+
+        List<Object> eventsOut = new ArrayList<>();
+        for (byte[] frame : frames) {
+            assertTrue(frame.length <= MessageTransfer.MAX_BYTE_ARRAY_SIZE);
+            Object objectOut = msgTransfer.decodeObject(frame);
+            assertTrue(objectOut instanceof List<?>);
+            eventsOut.addAll((List<?>) objectOut);
+        }
+        assertEquals(events.size(), eventsOut.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(events.get(i).getClass(), eventsOut.get(i).getClass());
+        }
+        ApproachEvent approachEventOut = (ApproachEvent) eventsOut.get(1);
+        assertEquals(approachEvent.getFloorNumber(), approachEventOut.getFloorNumber());
+        assertEquals(approachEvent.getFloorToVisit(), approachEventOut.getFloorToVisit());
+    }
+
+    @Test
+    void testBatchedLengthMatchesEncoding() {
+        ElevatorMonitor movedMonitor = new ElevatorMonitor(0, 2, Direction.UP, MovementState.ACTIVE, Direction.UP,
+                Doors.State.CLOSED, Fault.NONE, true, 0);
+        movedMonitor.setCurrentRequest(elevatorRequest);
+        ElevatorMonitor deltaMonitor = new ElevatorMonitor(0, 2, Direction.UP, MovementState.ACTIVE, Direction.UP,
+                Doors.State.CLOSED, Fault.NONE, true, 0);
+        deltaMonitor.setCurrentRequest(approachEvent);
+        deltaMonitor.setChangedFields(deltaMonitor.changedFieldsSince(elevatorMonitor) | ElevatorMonitor.QUEUE_TIME);
+        List<SystemEvent> events = List.of(elevatorRequest, serviceRequest, approachEvent, elevatorMonitor,
+                movedMonitor, deltaMonitor, new SystemEvent(timeNow, Origin.SCHEDULER));
+
+        // a batch frame holds one version byte for all of its events
+        for (SystemEvent event : events) {
+            assertEquals(msgTransfer.encodeObject(event).length - 1, msgTransfer.batchedLength(event), event.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    void testDecodingInvalidMessageThrowsException() {
+        byte[] byteArray = msgTransfer.encodeObject(elevatorRequest);
+        byte[] truncatedArray = new byte[byteArray.length / 2];
+        System.arraycopy(byteArray, 0, truncatedArray, 0, truncatedArray.length);
+        assertThrows(IllegalArgumentException.class, () -> msgTransfer.decodeObject(truncatedArray));
+
+        byteArray[0] = MessageCodec.VERSION + 1;
+        assertThrows(IllegalArgumentException.class, () -> msgTransfer.decodeObject(byteArray));
+        assertThrows(IllegalArgumentException.class, () -> msgTransfer.encodeObject(new Object()));
+    }
+
     @Test
     void testMaxByteArraySizeOfMessageNotExceeded() {
         int maxByteArraySize = MessageTransfer.MAX_BYTE_ARRAY_SIZE;
@@ -137,4 +281,10 @@ public class MessageTransferTest {
         assertTrue(object instanceof SystemEvent);
         assertTrue(object instanceof ElevatorRequest);
     }
+
+    @Test
+    void testPortInUseIsReportedByConstructor() {
+        // the port is already bound by msgTransfer
+        assertThrows(UncheckedIOException.class, () -> new MessageTransfer(portNumber));
+    }
 }
@@ -0,0 +1,241 @@
+package client_server_host;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import requests.ServiceRequest;
+import systemwide.Direction;
+import systemwide.Origin;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.DatagramPacket;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * ReliableDatagramChannelTest ensures that messages sent through MessageTransfers
+ * are received exactly once and in order over a LossyProxy that drops, duplicates
+ * and reorders packets, and that request and reply exchanges do not stall.
+ *
+ * @author Liam Tripp, Julian
+ */
+public class ReliableDatagramChannelTest {
+
+    private static final int NUMBER_OF_MESSAGES = 300;
+    // each exchange waits for its reply, so lost packets are only recovered by timeouts
+    private static final int NUMBER_OF_EXCHANGES = 100;
+    // a receive that times out means that a message was not delivered
+    private static final int RECEIVE_TIMEOUT = 10000; // milliseconds
+
+    private final List<MessageTransfer> messageTransfers = new ArrayList<>();
+    private LossyProxy lossyProxy;
+
+    @AfterEach
+    void tearDown() {
+        if (lossyProxy != null) {
+            lossyProxy.close();
+        }
+        for (MessageTransfer messageTransfer : messageTransfers) {
+            messageTransfer.closeSocket();
+        }
+    }
+
+    private MessageTransfer createMessageTransfer() {
+        return createMessageTransfer(false);
+    }
+
+    private MessageTransfer createMessageTransfer(boolean directBuffers) {
+        MessageTransfer messageTransfer = new MessageTransfer(0, directBuffers);
+        messageTransfer.setReceiveTimeout(RECEIVE_TIMEOUT);
+        messageTransfers.add(messageTransfer);
+        return messageTransfer;
+    }
+
+    /**
+     * Sends numbered messages from one MessageTransfer to another through the proxy and
+     * asserts that they are received in order without gaps or duplicates.
+     */
+    private void assertMessagesReceivedInOrder(MessageTransfer sender, MessageTransfer receiver) {
+        Thread senderThread = new Thread(() -> {
+            for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+                sender.sendMessage(sender.createPacket(sender.encodeObject(String.valueOf(i)), lossyProxy.getPortNumber()));
+            }
+        });
+        senderThread.start();
+        for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+            DatagramPacket packet = receiver.receiveMessage();
+            assertNotNull(packet, "Message " + i + " was not received.");
+            assertEquals(String.valueOf(i), receiver.decodeObject(packet.getData(), packet.getOffset(), packet.getLength()));
+        }
+        try {
+            senderThread.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    void testMessagesReceivedOnceInOrderDespiteLoss() throws IOException {
+        MessageTransfer sender = createMessageTransfer();
+        MessageTransfer receiver = createMessageTransfer();
+        lossyProxy = new LossyProxy(receiver.getPortNumber(), 0.2, 0.1, 0.2, 1);
+        lossyProxy.start();
+
+        assertMessagesReceivedInOrder(sender, receiver);
+        assertTrue(sender.getRetransmissionCount() > 0);
+    }
+
+    @Test
+    void testDuplicatedAndReorderedMessagesReceivedOnceInOrder() throws IOException {
+        MessageTransfer sender = createMessageTransfer();
+        MessageTransfer receiver = createMessageTransfer();
+        lossyProxy = new LossyProxy(receiver.getPortNumber(), 0, 0.5, 0.5, 2);
+        lossyProxy.start();
+
+        assertMessagesReceivedInOrder(sender, receiver);
+        // nothing more arrives after the last message
+        receiver.setReceiveTimeout(100);
+        assertNull(receiver.receiveMessage());
+    }
+
+    @Test
+    void testRepliesReceivedWhenAcknowledgementsAreLost() throws IOException {
+        IntermediateHost intermediateHost = new IntermediateHost(0, 0);
+        intermediateHost.setReceiveTimeout(RECEIVE_TIMEOUT);
+        lossyProxy = new LossyProxy(intermediateHost.getPortNumber(), 0.3, 0, 0.1, 3);
+        lossyProxy.start();
+        Client client = new Client(0, lossyProxy.getPortNumber(), lossyProxy.getPortNumber());
+        client.setReceiveTimeout(RECEIVE_TIMEOUT);
+
+        // the host acknowledges every event, as the Scheduler does, then terminates the client
+        Thread hostThread = new Thread(() -> {
+            Message message = null;
+            for (int i = 0; i < NUMBER_OF_EXCHANGES; i++) {
+                message = intermediateHost.receiveMessage();
+                intermediateHost.acknowledgeDataReception(message);
+            }
+            intermediateHost.sendObject(RequestMessage.TERMINATE.getMessage(), message.getAddress(), message.getPort());
+        });
+        hostThread.start();
+        for (int i = 0; i < NUMBER_OF_EXCHANGES; i++) {
+            ServiceRequest serviceRequest = new ServiceRequest(LocalTime.now(), i % 20 + 1, Direction.UP, Origin.FLOOR_SYSTEM);
+            assertEquals(RequestMessage.ACKNOWLEDGE.getMessage(), client.sendAndReceiveReply(serviceRequest));
+        }
+        try {
+            hostThread.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        assertEquals(RequestMessage.TERMINATE.getMessage(), client.receive());
+    }
+
+    @Test
+    void testMessagesReadInPlaceReceivedOnceInOrder() throws IOException {
+        MessageTransfer sender = createMessageTransfer();
+        MessageTransfer receiver = createMessageTransfer(true);
+        lossyProxy = new LossyProxy(receiver.getPortNumber(), 0.2, 0.2, 0.3, 5);
+        lossyProxy.start();
+
+        Thread senderThread = new Thread(() -> {
+            for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+                sender.sendMessage(sender.createPacket(sender.encodeObject(String.valueOf(i)), lossyProxy.getPortNumber()));
+            }
+        });
+        senderThread.start();
+        // messages that arrive early are held in their buffers until the ones before them arrive
+        for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+            assertEquals(String.valueOf(i), receiver.receiveMessage((buffer, address) -> receiver.decodeObject(buffer)));
+        }
+        try {
+            senderThread.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    void testReceivingInPlaceReusesBuffers() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        MessageTransfer sender = createMessageTransfer();
+        MessageTransfer receiver = createMessageTransfer();
+        int numberOfMessages = 10 * NUMBER_OF_MESSAGES;
+        Thread senderThread = new Thread(() -> {
+            DatagramPacket packet = sender.createPacket(sender.encodeObject(RequestMessage.REQUEST.getMessage()), receiver.getPortNumber());
+            for (int i = 0; i < 2 * numberOfMessages; i++) {
+                sender.sendMessage(packet);
+            }
+        });
+        senderThread.start();
+
+        // the first half fills the pool, the second half is received in the steady state
+        for (int i = 0; i < numberOfMessages; i++) {
+            assertNotNull(receiver.receiveMessage((buffer, address) -> buffer.remaining()));
+        }
+        long allocatedBytes = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < numberOfMessages; i++) {
+            assertNotNull(receiver.receiveMessage((buffer, address) -> buffer.remaining()));
+        }
+        allocatedBytes = threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBytes;
+        // a buffer allocated for every message would take more than a kilobyte each
+        assertTrue(allocatedBytes / numberOfMessages < 100, allocatedBytes / numberOfMessages + " bytes allocated per message");
+        try {
+            senderThread.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Test
+    void testMessagesAfterLostFirstMessageStayWithinReceiverWindow() throws IOException {
+        MessageTransfer sender = createMessageTransfer();
+        MessageTransfer receiver = createMessageTransfer();
+        lossyProxy = new LossyProxy(receiver.getPortNumber(), 0, 0, 0, 6);
+        lossyProxy.start();
+        // the first message is lost while the ones after it, more than a window, are acknowledged
+        lossyProxy.dropNextFromClients(1);
+
+        assertMessagesReceivedInOrder(sender, receiver);
+        // messages beyond the receiver's window would be discarded as duplicates and sent again
+        assertTrue(receiver.getDuplicateCount() <= 1, receiver.getDuplicateCount() + " duplicates received");
+    }
+
+    @Test
+    void testRestartedSenderIsNotTakenForDuplicate() throws IOException {
+        MessageTransfer receiver = createMessageTransfer();
+        lossyProxy = new LossyProxy(receiver.getPortNumber(), 0, 0, 0, 4);
+        lossyProxy.start();
+        MessageTransfer firstSender = createMessageTransfer();
+        assertMessagesReceivedInOrder(firstSender, receiver);
+        firstSender.closeSocket();
+
+        // the proxy relays the new sender from the same address, with sequence numbers that start again
+        MessageTransfer secondSender = createMessageTransfer();
+        assertMessagesReceivedInOrder(secondSender, receiver);
+    }
+
+    @Test
+    void testDelayedPacketFromPreviousSessionIsDiscarded() throws IOException {
+        MessageTransfer receiver = createMessageTransfer();
+        lossyProxy = new LossyProxy(receiver.getPortNumber(), 0, 0, 0, 7);
+        lossyProxy.start();
+        MessageTransfer firstSender = createMessageTransfer();
+        assertMessagesReceivedInOrder(firstSender, receiver);
+        firstSender.closeSocket();
+        MessageTransfer secondSender = createMessageTransfer();
+        assertMessagesReceivedInOrder(secondSender, receiver);
+
+        // the first sender's first message arrives again after the second sender took over the address
+        lossyProxy.resendFirstFromClients();
+        secondSender.sendMessage(secondSender.createPacket(secondSender.encodeObject("last"), lossyProxy.getPortNumber()));
+        DatagramPacket packet = receiver.receiveMessage();
+        assertNotNull(packet);
+        assertEquals("last", receiver.decodeObject(packet.getData(), packet.getOffset(), packet.getLength()));
+        receiver.setReceiveTimeout(100);
+        assertNull(receiver.receiveMessage());
+    }
+}
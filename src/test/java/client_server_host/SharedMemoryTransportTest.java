@@ -0,0 +1,141 @@
+package client_server_host;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import requests.ApproachEvent;
+import requests.ElevatorRequest;
+import systemwide.Direction;
+import systemwide.Origin;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SharedMemoryTransportTest ensures that SharedMemoryTransports sharing a directory
+ * exchange messages through their rings.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class SharedMemoryTransportTest {
+
+    @TempDir
+    Path directory;
+    private SharedMemoryTransport sender;
+    private SharedMemoryTransport receiver;
+    private InetSocketAddress receiverAddress;
+    private ElevatorRequest elevatorRequest;
+
+    @BeforeEach
+    void setUp() {
+        sender = new SharedMemoryTransport(directory, Port.CLIENT.getNumber());
+        receiver = new SharedMemoryTransport(directory, Port.CLIENT_TO_SERVER.getNumber());
+        receiver.setReceiveTimeout(1000);
+        receiverAddress = new InetSocketAddress(InetAddress.getLoopbackAddress(), receiver.getPortNumber());
+        elevatorRequest = new ElevatorRequest(LocalTime.now(), 2, Direction.UP, 4, Origin.FLOOR_SYSTEM);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sender.close();
+        receiver.close();
+    }
+
+    @Test
+    void testSentEventIsReceived() {
+        sender.send(elevatorRequest, receiverAddress);
+
+        Message message = receiver.receive();
+        ElevatorRequest receivedRequest = (ElevatorRequest) message.getContent();
+        assertNotSame(elevatorRequest, receivedRequest);
+        assertEquals(elevatorRequest.getFloorNumber(), receivedRequest.getFloorNumber());
+        assertEquals(elevatorRequest.getDirection(), receivedRequest.getDirection());
+        assertEquals(elevatorRequest.getDesiredFloor(), receivedRequest.getDesiredFloor());
+        assertEquals(Port.CLIENT.getNumber(), message.getPort());
+        assertNull(receiver.receiveAvailable());
+    }
+
+    @Test
+    void testReplySentToSenderOfMessage() {
+        sender.setReceiveTimeout(1000);
+        sender.send(RequestMessage.REQUEST.getMessage(), receiverAddress);
+        Message request = receiver.receive();
+        receiver.send(RequestMessage.EMPTYQUEUE.getMessage(), request.getSender());
+
+        assertEquals(RequestMessage.EMPTYQUEUE.getMessage(), sender.receive().getContent());
+    }
+
+    @Test
+    void testBatchIsReceivedAsList() {
+        ApproachEvent approachEvent = new ApproachEvent(elevatorRequest, 3, 1);
+        assertEquals(1, sender.sendBatch(List.of(elevatorRequest, approachEvent), receiverAddress));
+
+        List<?> events = (List<?>) receiver.receive().getContent();
+        assertEquals(2, events.size());
+        assertInstanceOf(ElevatorRequest.class, events.get(0));
+        assertEquals(3, ((ApproachEvent) events.get(1)).getFloorNumber());
+    }
+
+    @Test
+    void testMessagesAreReceivedInOrderAcrossRingWrapAround() {
+        // enough messages to wrap around the ring many times
+        int numberOfMessages = 20000;
+        List<Integer> receivedFloors = new ArrayList<>();
+        Thread receiverThread = new Thread(() -> {
+            while (receivedFloors.size() < numberOfMessages) {
+                Message message = receiver.receive();
+                if (message == null) {
+                    return;
+                }
+                receivedFloors.add(((ElevatorRequest) message.getContent()).getFloorNumber());
+            }
+        });
+        receiverThread.start();
+
+        for (int i = 0; i < numberOfMessages; i++) {
+            sender.send(new ElevatorRequest(LocalTime.now(), i, Direction.UP, i + 1, Origin.FLOOR_SYSTEM), receiverAddress);
+        }
+        try {
+            receiverThread.join(10000);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+
+        assertEquals(numberOfMessages, receivedFloors.size());
+        for (int i = 0; i < numberOfMessages; i++) {
+            assertEquals(i, receivedFloors.get(i));
+        }
+    }
+
+    @Test
+    void testReceiveReturnsNullAfterTimeout() {
+        receiver.setReceiveTimeout(50);
+        assertNull(receiver.receive());
+    }
+
+    @Test
+    void testCloseDeletesRingsToTransport() throws IOException {
+        sender.send(elevatorRequest, receiverAddress);
+        assertTrue(Files.exists(directory.resolve(Port.CLIENT.getNumber() + "-" + Port.CLIENT_TO_SERVER.getNumber() + ".ring")));
+
+        receiver.close();
+        try (var ringFiles = Files.list(directory)) {
+            assertEquals(0, ringFiles.count());
+        }
+        assertNull(receiver.receive());
+    }
+
+    @Test
+    void testPortIsRequired() {
+        assertThrows(IllegalArgumentException.class, () -> new SharedMemoryTransport(directory, 0));
+    }
+}
@@ -1,11 +1,16 @@
 package elevatorsystem;
 
+import client_server_host.Client;
+import client_server_host.InMemoryNetwork;
+import client_server_host.Port;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import requests.ApproachEvent;
 import requests.ServiceRequest;
 import systemwide.Direction;
 import systemwide.Origin;
 
+import java.time.Duration;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.concurrent.TimeUnit;
@@ -28,7 +33,9 @@ public class ElevatorFaultTest {
 
     @BeforeEach
     void setUp() {
-        elevatorSubsystem = new ElevatorSubsystem();
+        // the elevators do not exchange messages, so the subsystem does not need a socket
+        elevatorSubsystem = new ElevatorSubsystem(new Client(new InMemoryNetwork().connect(Port.SERVER.getNumber()),
+                Port.SERVER_TO_CLIENT.getNumber(), Port.CLIENT_TO_SERVER.getNumber()));
         threads = new ArrayList<>();
         elevatorList = new ArrayList<>();
     }
@@ -146,6 +153,100 @@ public class ElevatorFaultTest {
         assertTrue(elevator1.hasNoRequests());
     }
 
+    @Test
+    void testArrivalSensorFailWithoutTravelTime() {
+        initNumberOfElevators(1);
+        Elevator elevator1 = elevatorList.get(0);
+        elevator1.addRequest(new ServiceRequest(LocalTime.now(), 3, Direction.UP, Origin.ELEVATOR_SYSTEM));
+        // no ApproachEvents are sent because the ElevatorSubsystem is not running
+        elevator1.setApproachEventTimeout(travelTime);
+
+        initElevatorThreads();
+        try {
+            threads.get(0).join(travelTime * 5L);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+
+        assertFalse(threads.get(0).isAlive());
+        assertEquals(Fault.ARRIVAL_SENSOR_FAIL, elevator1.getFault());
+    }
+
+    @Test
+    void testApproachEventWakesParkedElevator() {
+        initNumberOfElevators(1);
+        Elevator elevator1 = elevatorList.get(0);
+        elevator1.addRequest(new ServiceRequest(LocalTime.now(), 3, Direction.UP, Origin.ELEVATOR_SYSTEM));
+
+        initElevatorThreads();
+        Thread elevatorThread = threads.get(0);
+        // respond to each approach once the elevator is parked waiting for it
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            while (elevatorThread.isAlive()) {
+                if (elevator1.isWaitingForApproachEvent()) {
+                    elevator1.receiveApproachEvent(new ApproachEvent(LocalTime.now(), elevator1.getCurrentFloor(),
+                            Direction.UP, elevator1.getElevatorNumber(), Origin.SCHEDULER));
+                }
+                Thread.onSpinWait();
+            }
+        });
+
+        assertEquals(Fault.NONE, elevator1.getFault());
+        assertTrue(elevator1.hasNoRequests());
+        assertEquals(3, elevator1.getCurrentFloor());
+    }
+
+    @Test
+    void testLocalStopDecisionsDoNotWaitForApproachEvents() {
+        initNumberOfElevators(1);
+        Elevator elevator1 = elevatorList.get(0);
+        elevator1.setLocalStopDecisionsEnabled(true);
+        elevator1.addRequest(new ServiceRequest(LocalTime.now(), 3, Direction.UP, Origin.ELEVATOR_SYSTEM));
+
+        // no ApproachEvents are returned because the ElevatorSubsystem is not running
+        initElevatorThreads();
+        try {
+            threads.get(0).join(travelTime);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+
+        assertFalse(threads.get(0).isAlive());
+        assertEquals(Fault.NONE, elevator1.getFault());
+        assertTrue(elevator1.hasNoRequests());
+        assertEquals(3, elevator1.getCurrentFloor());
+        // the returned ApproachEvents verify the approaches
+        int unverifiedApproaches = elevator1.getUnverifiedApproachCount();
+        assertTrue(unverifiedApproaches > 0);
+        for (int i = 0; i < unverifiedApproaches; i++) {
+            elevator1.receiveApproachEvent(new ApproachEvent(LocalTime.now(), i + 2,
+                    Direction.UP, elevator1.getElevatorNumber(), Origin.SCHEDULER));
+        }
+        assertEquals(0, elevator1.getUnverifiedApproachCount());
+    }
+
+    @Test
+    void testArrivalSensorFailWithLocalStopDecisions() {
+        initNumberOfElevators(1);
+        Elevator elevator1 = elevatorList.get(0);
+        elevator1.setLocalStopDecisionsEnabled(true);
+        elevator1.setApproachEventTimeout(travelTime);
+        elevator1.addRequest(new ServiceRequest(LocalTime.now(), 3, Direction.UP, Origin.ELEVATOR_SYSTEM));
+
+        // the idle elevator detects the ApproachEvents that never return
+        Thread elevatorThread = new Thread(elevator1);
+        elevatorThread.start();
+        try {
+            elevatorThread.join(travelTime * 5L);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+
+        assertFalse(elevatorThread.isAlive());
+        assertEquals(Fault.ARRIVAL_SENSOR_FAIL, elevator1.getFault());
+        assertEquals(0, elevator1.getUnverifiedApproachCount());
+    }
+
     @Test
     void testDoorsStuckOnClosing() {
         // from OPEN to CLOSED
@@ -1,7 +1,11 @@
 package elevatorsystem;
 
+import client_server_host.Client;
+import client_server_host.InMemoryNetwork;
+import client_server_host.Port;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import requests.ApproachEvent;
 import requests.ElevatorMonitor;
 import requests.ElevatorRequest;
 import requests.ServiceRequest;
@@ -31,7 +35,9 @@ class ElevatorTest {
 
     @BeforeEach
     void setUp() {
-        elevatorSubsystem = new ElevatorSubsystem();
+        // the elevators do not exchange messages, so the subsystem does not need a socket
+        elevatorSubsystem = new ElevatorSubsystem(new Client(new InMemoryNetwork().connect(Port.SERVER.getNumber()),
+                Port.SERVER_TO_CLIENT.getNumber(), Port.CLIENT_TO_SERVER.getNumber()));
         threads = new ArrayList<>();
         elevatorList = new ArrayList<>();
         InputFileReader inputFileReader = new InputFileReader();
@@ -224,4 +230,83 @@ class ElevatorTest {
 
         assertNull(elevatorList.get(0).getCurrentRequest());
     }
+
+    @Test
+    void testUnsentElevatorMonitorsAreCoalesced() {
+        ElevatorMonitor firstMonitorOf1 = new ElevatorMonitor(1);
+        ElevatorMonitor latestMonitorOf1 = new ElevatorMonitor(1);
+        ElevatorMonitor monitorOf2 = new ElevatorMonitor(2);
+        ApproachEvent approachEvent = new ApproachEvent(LocalTime.now(), 2, Direction.UP, 1, Origin.ELEVATOR_SYSTEM);
+
+        elevatorSubsystem.addEventToQueue(firstMonitorOf1);
+        elevatorSubsystem.addEventToQueue(approachEvent);
+        elevatorSubsystem.addEventToQueue(new ElevatorMonitor(1));
+        elevatorSubsystem.addEventToQueue(monitorOf2);
+        elevatorSubsystem.addEventToQueue(latestMonitorOf1);
+        assertEquals(2, elevatorSubsystem.getCoalescedMonitorCount());
+
+        // the latest monitor takes the place of the first, and the other events keep their order
+        assertSame(latestMonitorOf1, elevatorSubsystem.pollEvent());
+        assertSame(approachEvent, elevatorSubsystem.pollEvent());
+        assertSame(monitorOf2, elevatorSubsystem.pollEvent());
+        assertNull(elevatorSubsystem.pollEvent());
+
+        // a monitor added after the previous one was sent is queued again
+        ElevatorMonitor nextMonitorOf1 = new ElevatorMonitor(1);
+        elevatorSubsystem.addEventToQueue(nextMonitorOf1);
+        assertSame(nextMonitorOf1, elevatorSubsystem.pollEvent());
+        assertEquals(2, elevatorSubsystem.getCoalescedMonitorCount());
+    }
+
+    @Test
+    void testMonitorReplacedWhileWaitingForSpaceIsCountedAsDropped() throws InterruptedException {
+        // fill the event queue, which drops events at once while the subsystem is not running
+        while (elevatorSubsystem.getDroppedEventCount() == 0) {
+            elevatorSubsystem.addEventToQueue(new ApproachEvent(LocalTime.now(), 2, Direction.UP, 1, Origin.ELEVATOR_SYSTEM));
+        }
+        elevatorSubsystem.getSystemStatus().setSystemActivated(true);
+
+        // the first monitor waits for space, and a newer one replaces it in the meantime
+        Thread waitingThread = new Thread(() -> elevatorSubsystem.addEventToQueue(new ElevatorMonitor(1)));
+        waitingThread.start();
+        while (elevatorSubsystem.getThreadsWaitingForSpace() == 0) {
+            Thread.onSpinWait();
+        }
+        elevatorSubsystem.addEventToQueue(new ElevatorMonitor(1));
+        assertEquals(1, elevatorSubsystem.getCoalescedMonitorCount());
+        waitingThread.join();
+        assertEquals(3, elevatorSubsystem.getDroppedEventCount());
+
+        elevatorSubsystem.getSystemStatus().setSystemActivated(false);
+        SystemEvent event;
+        while ((event = elevatorSubsystem.pollEvent()) != null) {
+            assertTrue(event instanceof ApproachEvent);
+        }
+        // neither monitor is left waiting, so the next one is queued
+        ElevatorMonitor nextMonitorOf1 = new ElevatorMonitor(1);
+        elevatorSubsystem.addEventToQueue(nextMonitorOf1);
+        assertSame(nextMonitorOf1, elevatorSubsystem.pollEvent());
+    }
+
+    @Test
+    void testMonitorsBetweenKeyframesAreDeltas() {
+        elevatorSubsystem.setMonitorKeyframeInterval(3);
+        ElevatorMonitor[] monitors = {
+                new ElevatorMonitor(1, 1, Direction.UP, MovementState.IDLE, Direction.NONE, Doors.State.OPEN, Fault.NONE, false, 0),
+                new ElevatorMonitor(1, 1, Direction.UP, MovementState.IDLE, Direction.NONE, Doors.State.CLOSED, Fault.NONE, false, 0),
+                new ElevatorMonitor(1, 2, Direction.UP, MovementState.ACTIVE, Direction.UP, Doors.State.CLOSED, Fault.NONE, false, 0),
+                new ElevatorMonitor(1, 3, Direction.UP, MovementState.ACTIVE, Direction.UP, Doors.State.CLOSED, Fault.NONE, false, 0)
+        };
+        int[] expectedChangedFields = {
+                ElevatorMonitor.ALL_FIELDS,
+                ElevatorMonitor.DOORS_STATE,
+                ElevatorMonitor.CURRENT_FLOOR | ElevatorMonitor.MOVEMENT_STATE | ElevatorMonitor.MOVEMENT_DIRECTION,
+                ElevatorMonitor.ALL_FIELDS
+        };
+        for (int i = 0; i < monitors.length; i++) {
+            elevatorSubsystem.addEventToQueue(monitors[i]);
+            assertSame(monitors[i], elevatorSubsystem.pollEvent());
+            assertEquals(expectedChangedFields[i], monitors[i].getChangedFields());
+        }
+    }
 }
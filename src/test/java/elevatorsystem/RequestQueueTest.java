@@ -8,8 +8,10 @@ import systemwide.Direction;
 import systemwide.Origin;
 
 import java.time.LocalTime;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -360,4 +362,138 @@ class RequestQueueTest {
         testQueue.addRequest(1, Direction.UP, serviceRequest2);
         assertFalse(testQueue.toString().contains(","));
     }
+
+    @Test
+    void testExpectedTimeFollowsQueueChanges() {
+        int loadTime = 2000;
+        int travelTime = 1000;
+        assertEquals(0.0, testQueue.getExpectedTime(1, loadTime, travelTime));
+
+        // current: 3, 5; opposite: 8; missed: 0
+        testQueue.addRequest(1, Direction.UP, new ServiceRequest(LocalTime.now(), 5, Direction.UP, Origin.FLOOR_SYSTEM));
+        testQueue.addRequest(1, Direction.UP, new ServiceRequest(LocalTime.now(), 3, Direction.UP, Origin.FLOOR_SYSTEM));
+        testQueue.addRequest(1, Direction.UP, new ServiceRequest(LocalTime.now(), 8, Direction.DOWN, Origin.FLOOR_SYSTEM));
+        testQueue.addRequest(1, Direction.UP, new ServiceRequest(LocalTime.now(), 0, Direction.UP, Origin.FLOOR_SYSTEM));
+        // route 1 -> 3 -> 5 -> 8 -> 0: 4 stops, 15 floors
+        assertEquals(23.0, testQueue.getExpectedTime(1, loadTime, travelTime));
+        // route 3 -> 5 -> 8 -> 0: 3 stops, 13 floors
+        assertEquals(19.0, testQueue.getExpectedTime(3, loadTime, travelTime));
+
+        testQueue.removeRequest();
+        // route 5 -> 8 -> 0: 2 stops, 11 floors
+        assertEquals(15.0, testQueue.getExpectedTime(5, loadTime, travelTime));
+
+        // opposite: 8, 5
+        testQueue.addRequest(5, Direction.UP, new ServiceRequest(LocalTime.now(), 5, Direction.DOWN, Origin.FLOOR_SYSTEM));
+        // route 5 -> 8 -> 5 -> 0: 3 stops, 11 floors
+        assertEquals(17.0, testQueue.getExpectedTime(5, loadTime, travelTime));
+
+        testQueue.removeRequest();
+        assertTrue(testQueue.swapQueues());
+        // current: 8, 5; opposite: 0, route 5 -> 8 -> 5 -> 0: 3 stops, 11 floors
+        assertEquals(17.0, testQueue.getExpectedTime(5, loadTime, travelTime));
+        testQueue.removeRequest();
+        testQueue.removeRequest();
+        // route 8 -> 0 with the elevator at floor 5: 1 stop, 5 floors
+        assertEquals(7.0, testQueue.getExpectedTime(5, loadTime, travelTime));
+    }
+
+    @Test
+    void testBitSetQueueMatchesTreeSetQueue() {
+        int numberOfFloors = 5000;
+        RequestQueue bitSetQueue = new RequestQueue(100);
+        Random random = new Random(42);
+        int elevatorFloor = 0;
+        Direction serviceDirection = Direction.UP;
+
+        for (int i = 0; i < 2000; i++) {
+            if (random.nextInt(3) > 0) {
+                // floors above the initial capacity of the bitset are accepted
+                int floor = random.nextInt(numberOfFloors);
+                Direction direction = random.nextBoolean() ? Direction.UP : Direction.DOWN;
+                ServiceRequest request = new ServiceRequest(LocalTime.now(), floor, direction, Origin.FLOOR_SYSTEM);
+                testQueue.addRequest(elevatorFloor, serviceDirection, request);
+                bitSetQueue.addRequest(elevatorFloor, serviceDirection, request);
+            } else {
+                if (testQueue.isCurrentQueueEmpty()) {
+                    assertEquals(testQueue.swapQueues(), bitSetQueue.swapQueues());
+                    serviceDirection = serviceDirection == Direction.UP ? Direction.DOWN : Direction.UP;
+                }
+                ServiceRequest removedRequest = testQueue.removeRequest();
+                assertEquals(removedRequest, bitSetQueue.removeRequest());
+                if (removedRequest != null) {
+                    elevatorFloor = removedRequest.getFloorNumber();
+                }
+            }
+            assertEquals(testQueue.toString(), bitSetQueue.toString());
+            assertEquals(testQueue.getExpectedTime(elevatorFloor, 2000, 1000),
+                    bitSetQueue.getExpectedTime(elevatorFloor, 2000, 1000));
+        }
+    }
+
+    @Test
+    void testCopyIsIndependentOfQueue() {
+        for (RequestQueue requestQueue : new RequestQueue[]{testQueue, new RequestQueue(20)}) {
+            requestQueue.addRequest(1, Direction.UP, new ServiceRequest(LocalTime.now(), 5, Direction.UP, Origin.FLOOR_SYSTEM));
+            requestQueue.addRequest(1, Direction.UP, new ServiceRequest(LocalTime.now(), 8, Direction.DOWN, Origin.FLOOR_SYSTEM));
+            RequestQueue copy = requestQueue.copy();
+            assertEquals(requestQueue.toString(), copy.toString());
+
+            // serving the copy does not change the queue
+            assertEquals(5, copy.removeRequest().getFloorNumber());
+            assertTrue(copy.swapQueues());
+            assertEquals(8, copy.removeRequest().getFloorNumber());
+            assertTrue(copy.isEmpty());
+            assertEquals(5, requestQueue.peekNextRequest().getFloorNumber());
+            assertFalse(requestQueue.isOppositeQueueEmpty());
+
+            // nor does adding to the queue change the copy
+            requestQueue.addRequest(1, Direction.UP, new ServiceRequest(LocalTime.now(), 3, Direction.UP, Origin.FLOOR_SYSTEM));
+            assertTrue(copy.isEmpty());
+        }
+    }
+
+    @Test
+    void testAwaitRequestWakesWhenRequestAdded() throws InterruptedException {
+        // an empty queue times out
+        assertFalse(testQueue.awaitRequest(20));
+
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            testQueue.addRequest(0, Direction.UP, new ServiceRequest(LocalTime.now(), 4, Direction.UP, Origin.FLOOR_SYSTEM));
+        });
+        producer.start();
+        long startTime = System.nanoTime();
+        assertTrue(testQueue.awaitRequest(5000));
+        // woken by the request rather than the timeout
+        assertTrue(System.nanoTime() - startTime < TimeUnit.SECONDS.toNanos(4));
+        producer.join();
+
+        // a queue with a request returns immediately
+        assertTrue(testQueue.awaitRequest(0));
+    }
+
+    @Test
+    void testPeekWhileAnotherThreadAddsRequests() throws InterruptedException {
+        // the bitset queue grows past its 20 floors while it is being read
+        for (RequestQueue requestQueue : new RequestQueue[]{testQueue, new RequestQueue(20)}) {
+            requestQueue.addRequest(0, Direction.UP, new ServiceRequest(LocalTime.now(), 1, Direction.UP, Origin.FLOOR_SYSTEM));
+            Thread producer = new Thread(() -> {
+                for (int floor = 2; floor <= 500; floor++) {
+                    requestQueue.addRequest(0, Direction.UP, new ServiceRequest(LocalTime.now(), floor, Direction.UP, Origin.FLOOR_SYSTEM));
+                }
+            });
+            producer.start();
+            while (producer.isAlive()) {
+                assertFalse(requestQueue.isEmpty());
+                assertEquals(1, requestQueue.peekNextRequest().getFloorNumber());
+            }
+            producer.join();
+            assertEquals(1, requestQueue.peekNextRequest().getFloorNumber());
+        }
+    }
 }
@@ -1,5 +1,8 @@
 package floorsystem;
 
+import client_server_host.Client;
+import client_server_host.InMemoryNetwork;
+import client_server_host.Port;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import requests.ApproachEvent;
@@ -22,7 +25,9 @@ public class FloorSubsystemTest {
 
     @BeforeEach
     void setUp() {
-        floorSubsystem = new FloorSubsystem();
+        // the floors do not exchange messages, so the subsystem does not need a socket
+        floorSubsystem = new FloorSubsystem(new Client(new InMemoryNetwork().connect(Port.CLIENT.getNumber()),
+                Port.CLIENT_TO_SERVER.getNumber(), Port.SERVER_TO_CLIENT.getNumber()));
 
         int numberOfFloors = 10;
         for (int i = 1; i <= numberOfFloors; i++) {
@@ -1,5 +1,8 @@
 package floorsystem;
 
+import client_server_host.Client;
+import client_server_host.InMemoryNetwork;
+import client_server_host.Port;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import requests.ApproachEvent;
@@ -24,7 +27,9 @@ public class FloorTest {
 
     @BeforeEach
     void setUp() {
-        FloorSubsystem floorSubsystem = new FloorSubsystem();
+        // the floor does not exchange messages, so the subsystem does not need a socket
+        FloorSubsystem floorSubsystem = new FloorSubsystem(new Client(new InMemoryNetwork().connect(Port.CLIENT.getNumber()),
+                Port.CLIENT_TO_SERVER.getNumber(), Port.SERVER_TO_CLIENT.getNumber()));
         floor = new Floor(1, floorSubsystem);
     }
 
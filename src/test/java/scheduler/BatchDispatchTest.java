@@ -0,0 +1,60 @@
+package scheduler;
+
+import elevatorsystem.Doors;
+import elevatorsystem.Fault;
+import elevatorsystem.MovementState;
+import org.junit.jupiter.api.Test;
+import requests.ElevatorMonitor;
+import systemwide.Direction;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static scheduler.DispatchFixtures.emptyElevator;
+import static scheduler.DispatchFixtures.request;
+
+/**
+ * BatchDispatchTest ensures that a batch of ElevatorRequests is assigned
+ * to elevators jointly rather than in the order the requests arrived.
+ *
+ * @author Liam Tripp, Julian
+ */
+public class BatchDispatchTest {
+
+    private static final int ELEVATOR_TIME = 1000;
+    // long door times make every added stop costly
+    private static final int DOORS_TIME = 5000;
+
+    @Test
+    void testRequestWithMostToLoseIsAssignedFirst() {
+        BatchDispatch batchDispatch = new BatchDispatch(ELEVATOR_TIME, DOORS_TIME);
+        List<ElevatorMonitor> monitorList = List.of(emptyElevator(1, 5), emptyElevator(2, 15));
+
+        // both requests are nearest to elevator 1, but the second would wait longer for elevator 2
+        // a request-by-request assignment would send the second request to elevator 2
+        int[] chosenElevators = batchDispatch.assignElevators(monitorList,
+                List.of(request(6, Direction.UP, 8), request(4, Direction.UP, 9)));
+        assertArrayEquals(new int[]{2, 1}, chosenElevators);
+    }
+
+    @Test
+    void testRequestsSharingFloorsAreGrouped() {
+        BatchDispatch batchDispatch = new BatchDispatch(ELEVATOR_TIME, DOORS_TIME);
+        List<ElevatorMonitor> monitorList = List.of(emptyElevator(1, 1), emptyElevator(2, 2));
+
+        // the passengers to floor 10 add no stops to each other, while floor 12 would add one
+        int[] chosenElevators = batchDispatch.assignElevators(monitorList,
+                List.of(request(1, Direction.UP, 10), request(1, Direction.UP, 12), request(1, Direction.UP, 10)));
+        assertArrayEquals(new int[]{1, 2, 1}, chosenElevators);
+    }
+
+    @Test
+    void testNoElevatorAssignedWhenAllAreStuck() {
+        BatchDispatch batchDispatch = new BatchDispatch(ELEVATOR_TIME, DOORS_TIME);
+        List<ElevatorMonitor> monitorList = List.of(new ElevatorMonitor(1, 3, Direction.UP, MovementState.STUCK,
+                Direction.NONE, Doors.State.OPEN, Fault.ELEVATOR_STUCK, true, 0.0));
+
+        assertArrayEquals(new int[]{0, 0}, batchDispatch.assignElevators(monitorList,
+                List.of(request(1, Direction.UP, 10), request(5, Direction.DOWN, 2))));
+    }
+}
@@ -0,0 +1,64 @@
+package scheduler;
+
+import elevatorsystem.Doors;
+import elevatorsystem.Fault;
+import elevatorsystem.MovementState;
+import requests.ElevatorMonitor;
+import requests.ElevatorRequest;
+import systemwide.Direction;
+import systemwide.Origin;
+
+import java.time.LocalTime;
+
+/**
+ * DispatchFixtures creates the ElevatorMonitors and ElevatorRequests
+ * that the dispatch tests choose elevators for.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+final class DispatchFixtures {
+
+    /**
+     * Constructor for DispatchFixtures, which only has static methods.
+     */
+    private DispatchFixtures() {
+    }
+
+    /**
+     * Creates an ElevatorMonitor for an elevator that is moving with requests.
+     *
+     * @param elevatorNumber the number of the elevator
+     * @param currentFloor the floor the elevator is on
+     * @param serviceDirection the direction the elevator is moving and serving
+     * @param queueTime the expected time to serve the elevator's requests
+     * @return the ElevatorMonitor of the moving elevator
+     */
+    static ElevatorMonitor movingElevator(int elevatorNumber, int currentFloor, Direction serviceDirection, double queueTime) {
+        return new ElevatorMonitor(elevatorNumber, currentFloor, serviceDirection, MovementState.ACTIVE,
+                serviceDirection, Doors.State.CLOSED, Fault.NONE, false, queueTime);
+    }
+
+    /**
+     * Creates an ElevatorMonitor for an elevator without requests.
+     *
+     * @param elevatorNumber the number of the elevator
+     * @param currentFloor the floor the elevator is idle on
+     * @return the ElevatorMonitor of the empty elevator
+     */
+    static ElevatorMonitor emptyElevator(int elevatorNumber, int currentFloor) {
+        return new ElevatorMonitor(elevatorNumber, currentFloor, Direction.UP, MovementState.IDLE,
+                Direction.NONE, Doors.State.OPEN, Fault.NONE, true, 0.0);
+    }
+
+    /**
+     * Creates an ElevatorRequest made by a passenger at a floor.
+     *
+     * @param floorNumber the floor the passenger is waiting on
+     * @param direction the direction the passenger is going
+     * @param desiredFloor the floor the passenger is going to
+     * @return the ElevatorRequest of the passenger
+     */
+    static ElevatorRequest request(int floorNumber, Direction direction, int desiredFloor) {
+        return new ElevatorRequest(LocalTime.now(), floorNumber, direction, desiredFloor, Origin.FLOOR_SYSTEM);
+    }
+}
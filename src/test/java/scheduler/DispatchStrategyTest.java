@@ -0,0 +1,126 @@
+package scheduler;
+
+import elevatorsystem.Doors;
+import elevatorsystem.Fault;
+import elevatorsystem.MovementState;
+import org.junit.jupiter.api.Test;
+import requests.ElevatorMonitor;
+import requests.ElevatorRequest;
+import systemwide.Direction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static scheduler.DispatchFixtures.emptyElevator;
+import static scheduler.DispatchFixtures.movingElevator;
+import static scheduler.DispatchFixtures.request;
+
+/**
+ * DispatchStrategyTest ensures that each DispatchStrategy chooses the
+ * elevator its algorithm prefers and that algorithms can be selected by name.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class DispatchStrategyTest {
+
+    private static final int ELEVATOR_TIME = 1000;
+    private static final int DOORS_TIME = 100;
+
+    @Test
+    void testNearestCarPrefersElevatorsInPath() {
+        List<ElevatorMonitor> monitorList = List.of(
+                movingElevator(1, 2, Direction.UP, 10.0),
+                movingElevator(2, 12, Direction.DOWN, 10.0),
+                movingElevator(3, 7, Direction.UP, 10.0),
+                new ElevatorMonitor(4, 13, Direction.UP, MovementState.STUCK, Direction.NONE,
+                        Doors.State.OPEN, Fault.ELEVATOR_STUCK, true, 0.0));
+        NearestCarDispatch nearestCarDispatch = new NearestCarDispatch();
+
+        // elevator 3 is nearer, but has passed floor 7
+        assertEquals(1, nearestCarDispatch.chooseElevator(monitorList, request(7, Direction.UP, 10)));
+        assertEquals(2, nearestCarDispatch.chooseElevator(monitorList, request(8, Direction.DOWN, 1)));
+        // no elevator is in the path, so the nearest one that is not stuck is chosen
+        assertEquals(2, nearestCarDispatch.chooseElevator(monitorList, request(13, Direction.DOWN, 1)));
+    }
+
+    @Test
+    void testEstimatedTimeCostsFollowProjectedArrival() {
+        EstimatedTimeDispatch estimatedTimeDispatch = new EstimatedTimeDispatch(ELEVATOR_TIME, DOORS_TIME);
+        ElevatorMonitor emptyMonitor = emptyElevator(1, 20);
+        ElevatorMonitor movingMonitor = movingElevator(2, 5, Direction.UP, 2.0);
+        List<ElevatorMonitor> monitorList = List.of(emptyMonitor, movingMonitor);
+
+        // the moving elevator travels 3 floors and adds a stop
+        assertEquals(3200, estimatedTimeDispatch.estimateCost(movingMonitor, request(8, Direction.UP, 12)));
+        assertEquals(2, estimatedTimeDispatch.chooseElevator(monitorList, request(8, Direction.UP, 12)));
+        // the moving elevator has passed floor 3, so it completes its queue first
+        assertEquals(4200, estimatedTimeDispatch.estimateCost(movingMonitor, request(3, Direction.UP, 12)));
+        assertEquals(17000, estimatedTimeDispatch.estimateCost(emptyMonitor, request(3, Direction.UP, 12)));
+        assertEquals(1, estimatedTimeDispatch.chooseElevator(monitorList, request(18, Direction.DOWN, 1)));
+    }
+
+    @Test
+    void testDestinationDispatchGroupsPassengersByDesiredFloor() {
+        DestinationDispatch destinationDispatch = new DestinationDispatch(ELEVATOR_TIME, DOORS_TIME);
+        ArrayList<ElevatorMonitor> monitorList = new ArrayList<>(List.of(
+                movingElevator(1, 4, Direction.UP, 5.0),
+                movingElevator(2, 3, Direction.UP, 5.0)));
+
+        // the first passenger to floor 10 starts a group with the elevator that arrives first
+        assertEquals(1, destinationDispatch.chooseElevator(monitorList, request(6, Direction.UP, 10)));
+        monitorList.set(0, movingElevator(1, 2, Direction.UP, 5.0));
+        // elevator 2 would arrive first now, but passengers to floor 10 join elevator 1
+        assertEquals(1, destinationDispatch.chooseElevator(monitorList, request(6, Direction.UP, 10)));
+        assertEquals(2, destinationDispatch.chooseElevator(monitorList, request(6, Direction.UP, 12)));
+
+        // once elevator 1 has passed floor 6, it cannot pick up more passengers there
+        monitorList.set(0, movingElevator(1, 7, Direction.UP, 5.0));
+        assertEquals(2, destinationDispatch.chooseElevator(monitorList, request(6, Direction.UP, 10)));
+    }
+
+    @Test
+    void testWhatIfCostsFollowRequestQueues() {
+        WhatIfDispatch whatIfDispatch = new WhatIfDispatch(20, ELEVATOR_TIME, DOORS_TIME);
+        ArrayList<ElevatorMonitor> monitorList = new ArrayList<>(List.of(emptyElevator(1, 1), emptyElevator(2, 10)));
+
+        // the nearest empty elevator travels 4 floors and the request adds 9 floors and 2 stops to its route
+        assertEquals(2, whatIfDispatch.chooseElevator(monitorList, request(6, Direction.DOWN, 1)));
+        monitorList.set(1, movingElevator(2, 8, Direction.DOWN, 9.0));
+        // elevator 2 already stops at floor 1, so a passenger at floor 3 only adds a stop
+        assertEquals(2, whatIfDispatch.chooseElevator(monitorList, request(3, Direction.DOWN, 1)));
+        // a passenger behind elevator 2 waits for it to serve its queue, so elevator 1 is chosen
+        assertEquals(1, whatIfDispatch.chooseElevator(monitorList, request(9, Direction.DOWN, 2)));
+    }
+
+    @Test
+    void testWhatIfParallelEvaluationMatchesSequential() {
+        Random random = new Random(42);
+        ArrayList<ElevatorMonitor> monitorList = new ArrayList<>();
+        for (int i = 1; i <= 64; i++) {
+            Direction serviceDirection = random.nextBoolean() ? Direction.UP : Direction.DOWN;
+            monitorList.add(movingElevator(i, 2 + random.nextInt(98), serviceDirection, 0.0));
+        }
+        WhatIfDispatch sequentialDispatch = new WhatIfDispatch(100, ELEVATOR_TIME, DOORS_TIME, ForkJoinPool.commonPool(), 64);
+        WhatIfDispatch parallelDispatch = new WhatIfDispatch(100, ELEVATOR_TIME, DOORS_TIME, ForkJoinPool.commonPool(), 1);
+
+        for (int i = 0; i < 200; i++) {
+            int floor = 1 + random.nextInt(100);
+            int desiredFloor = floor == 100 ? 1 : floor + 1;
+            ElevatorRequest elevatorRequest = request(floor, desiredFloor > floor ? Direction.UP : Direction.DOWN, desiredFloor);
+            assertEquals(sequentialDispatch.chooseElevator(monitorList, elevatorRequest),
+                    parallelDispatch.chooseElevator(monitorList, elevatorRequest));
+        }
+    }
+
+    @Test
+    void testDispatchAlgorithmSelectedByArgument() {
+        assertEquals(DispatchAlgorithm.DIRECTIONAL, DispatchAlgorithm.fromArgs(new String[0]));
+        assertEquals(DispatchAlgorithm.NEAREST_CAR, DispatchAlgorithm.fromArgs(new String[]{"--dispatch=nearest-car"}));
+        assertEquals(DispatchAlgorithm.DESTINATION, DispatchAlgorithm.fromArgs(new String[]{"--virtual-threads", "--dispatch=DESTINATION"}));
+        assertThrows(IllegalArgumentException.class, () -> DispatchAlgorithm.fromArgs(new String[]{"--dispatch=random"}));
+    }
+}
@@ -0,0 +1,118 @@
+package scheduler;
+
+import elevatorsystem.Doors;
+import elevatorsystem.Fault;
+import elevatorsystem.MovementState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import requests.ElevatorMonitor;
+import systemwide.Direction;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static scheduler.DispatchFixtures.movingElevator;
+import static scheduler.DispatchFixtures.request;
+
+/**
+ * ElevatorIndexTest ensures that ElevatorIndex chooses elevators by
+ * direction and floor and stays up to date as ElevatorMonitors change.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class ElevatorIndexTest {
+
+    private ElevatorIndex elevatorIndex;
+    private ArrayList<ElevatorMonitor> monitorList;
+
+    @BeforeEach
+    void setUp() {
+        elevatorIndex = new ElevatorIndex();
+        monitorList = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            ElevatorMonitor monitor = new ElevatorMonitor(i);
+            monitor.setUpdateListener(elevatorIndex::update);
+            elevatorIndex.update(monitor);
+            monitorList.add(monitor);
+        }
+    }
+
+    /**
+     * Updates an elevator's ElevatorMonitor to show that it is moving with requests.
+     */
+    private void moveElevator(int elevatorNumber, int currentFloor, Direction serviceDirection) {
+        monitorList.get(elevatorNumber - 1).updateMonitor(movingElevator(elevatorNumber, currentFloor, serviceDirection, 10.0));
+    }
+
+    @Test
+    void testEmptyElevatorChosenFirst() {
+        assertEquals(1, elevatorIndex.chooseElevator(request(5, Direction.UP, 9)));
+        moveElevator(1, 3, Direction.UP);
+        moveElevator(2, 6, Direction.DOWN);
+        assertEquals(3, elevatorIndex.chooseElevator(request(5, Direction.UP, 9)));
+    }
+
+    @Test
+    void testNearestElevatorInPathChosen() {
+        moveElevator(1, 2, Direction.UP);
+        moveElevator(2, 6, Direction.UP);
+        moveElevator(3, 12, Direction.DOWN);
+        moveElevator(4, 15, Direction.DOWN);
+
+        // elevators going up are indexed at floors 3 and 7
+        assertEquals(2, elevatorIndex.chooseElevator(request(8, Direction.UP, 10)));
+        assertEquals(1, elevatorIndex.chooseElevator(request(5, Direction.UP, 9)));
+        // elevators going down are indexed at floors 11 and 14
+        assertEquals(3, elevatorIndex.chooseElevator(request(9, Direction.DOWN, 4)));
+        assertEquals(4, elevatorIndex.chooseElevator(request(13, Direction.DOWN, 12)));
+        // no elevator going down is above floor 14
+        assertEquals(0, elevatorIndex.chooseElevator(request(18, Direction.DOWN, 16)));
+    }
+
+    @Test
+    void testElevatorsThatPassedRequestNotChosen() {
+        moveElevator(1, 10, Direction.UP);
+        moveElevator(2, 12, Direction.UP);
+        moveElevator(3, 15, Direction.UP);
+        moveElevator(4, 20, Direction.UP);
+        // every elevator going up has passed floor 3
+        assertEquals(0, elevatorIndex.chooseElevator(request(3, Direction.UP, 5)));
+        assertEquals(1, elevatorIndex.chooseElevator(request(12, Direction.UP, 14)));
+    }
+
+    @Test
+    void testStuckElevatorsNotChosen() {
+        moveElevator(1, 10, Direction.UP);
+        moveElevator(2, 12, Direction.UP);
+        moveElevator(3, 15, Direction.UP);
+        // a stuck elevator has its requests removed, but cannot serve new ones
+        monitorList.get(3).updateMonitor(new ElevatorMonitor(4, 1, Direction.UP, MovementState.STUCK,
+                Direction.NONE, Doors.State.OPEN, Fault.ELEVATOR_STUCK, true, 0.0));
+        assertEquals(1, elevatorIndex.chooseElevator(request(12, Direction.UP, 14)));
+
+        for (int i = 1; i <= 3; i++) {
+            monitorList.get(i - 1).updateMonitor(new ElevatorMonitor(i, 1, Direction.UP, MovementState.STUCK,
+                    Direction.NONE, Doors.State.OPEN, Fault.ELEVATOR_STUCK, true, 0.0));
+        }
+        assertEquals(0, elevatorIndex.chooseElevator(request(12, Direction.UP, 14)));
+    }
+
+    @Test
+    void testElevatorMovesWithinIndex() {
+        moveElevator(1, 2, Direction.UP);
+        moveElevator(2, 5, Direction.UP);
+        moveElevator(3, 9, Direction.UP);
+        moveElevator(4, 9, Direction.DOWN);
+        assertEquals(2, elevatorIndex.chooseElevator(request(7, Direction.UP, 8)));
+
+        // elevator 2 passes floor 7 and elevator 1 becomes the nearest
+        moveElevator(2, 8, Direction.UP);
+        assertEquals(1, elevatorIndex.chooseElevator(request(7, Direction.UP, 8)));
+
+        // elevator 3 finishes its requests
+        monitorList.get(2).updateMonitor(new ElevatorMonitor(3, 10, Direction.UP, MovementState.IDLE,
+                Direction.NONE, Doors.State.OPEN, Fault.NONE, true, 0.0));
+        assertEquals(3, elevatorIndex.chooseElevator(request(7, Direction.UP, 8)));
+        assertEquals(4, elevatorIndex.size());
+    }
+}
@@ -1,14 +1,19 @@
 package scheduler;
 
+import client_server_host.Client;
 import client_server_host.Port;
 import elevatorsystem.Elevator;
 import elevatorsystem.ElevatorSubsystem;
+import elevatorsystem.Fault;
 import floorsystem.FloorSubsystem;
 import org.junit.jupiter.api.Test;
+import requests.ElevatorMonitor;
 import systemwide.Structure;
 
+import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -27,10 +32,17 @@ public class SimulationTest {
     private Structure structure;
     private int elevatorTime = 100;
     private int doorsTime = 100;
+    private boolean pushDeliveryEnabled = false;
+    private int batchLingerTime = -1;
+    private int monitorKeyframeInterval = 1;
+    private boolean virtualThreadsEnabled = false;
     private static final int NUMBER_OF_TESTS = 30;
 
     void setup() {
         structure = new Structure(20, 4, elevatorTime, doorsTime);
+        structure.setPushDeliveryEnabled(pushDeliveryEnabled);
+        structure.setBatchLingerTime(batchLingerTime);
+        structure.setMonitorKeyframeInterval(monitorKeyframeInterval);
         schedulerFloorsToElevators = new Scheduler(Port.CLIENT_TO_SERVER.getNumber());
         schedulerElevatorsToFloors = new Scheduler(Port.SERVER_TO_CLIENT.getNumber());
 
@@ -46,6 +58,7 @@ public class SimulationTest {
             e.printStackTrace();
         }
         elevatorSubsystem.initializeElevators(elevatorSubsystem.receiveStructure());
+        elevatorSubsystem.setVirtualThreadsEnabled(virtualThreadsEnabled);
         Thread elevatorSubsystemThread = new Thread(elevatorSubsystem, elevatorSubsystem.getClass().getSimpleName());
         elevatorSubsystemThread.start();
         System.out.println("ElevatorSubsystem initialized");
@@ -89,6 +102,153 @@ public class SimulationTest {
         assertTrue(schedulerFloorsToElevators.getIntermediateHost().queueIsEmpty());
     }
 
+    /**
+     * Tests that all requests are served when the Scheduler pushes events to the subsystems.
+     */
+    @Test
+    void testSimulationWithPushDeliveryRunsToCompletion() {
+        pushDeliveryEnabled = true;
+        testSimulationRunsToCompletion();
+    }
+
+    /**
+     * Tests that all requests are served when the systems send their events in batches.
+     */
+    @Test
+    void testSimulationWithEventBatchingRunsToCompletion() {
+        pushDeliveryEnabled = true;
+        batchLingerTime = 2;
+        testSimulationRunsToCompletion();
+    }
+
+    /**
+     * Tests that all requests are served when ElevatorMonitors are sent as deltas between keyframes.
+     */
+    @Test
+    void testSimulationWithMonitorDeltasRunsToCompletion() {
+        pushDeliveryEnabled = true;
+        monitorKeyframeInterval = 16;
+        testSimulationRunsToCompletion();
+    }
+
+    /**
+     * Tests that all requests are served when the Elevators run on virtual threads.
+     */
+    @Test
+    void testSimulationWithVirtualThreadsRunsToCompletion() {
+        virtualThreadsEnabled = true;
+        testSimulationRunsToCompletion();
+        for (Thread elevatorThread : elevatorSubsystem.getElevatorThreads()) {
+            assertTrue(elevatorThread.isVirtual());
+        }
+    }
+
+    /**
+     * Tests that all requests of two banks of elevators are served when
+     * a single SchedulerSelector thread serves all of the Schedulers.
+     */
+    @Test
+    void testSchedulerSelectorServesTwoBanks() throws IOException {
+        SchedulerSelector schedulerSelector = new SchedulerSelector();
+        ArrayList<ElevatorSubsystem> elevatorSubsystems = new ArrayList<>();
+        ArrayList<FloorSubsystem> floorSubsystems = new ArrayList<>();
+        // ports of the floor subsystem, elevator subsystem, and the schedulers of each bank
+        int[][] bankPorts = {{31, 71, 24, 26}, {32, 72, 27, 28}};
+
+        for (int[] ports : bankPorts) {
+            int floorPort = ports[0];
+            int elevatorPort = ports[1];
+            int floorsToElevatorsPort = ports[2];
+            int elevatorsToFloorsPort = ports[3];
+            Structure bankStructure = new Structure(20, 4, elevatorTime, doorsTime);
+            bankStructure.setPushDeliveryEnabled(true);
+
+            ArrayList<ElevatorMonitor> monitorList = new ArrayList<>();
+            Scheduler floorsToElevators = new Scheduler(floorsToElevatorsPort, elevatorPort, monitorList);
+            Scheduler elevatorsToFloors = new Scheduler(elevatorsToFloorsPort, floorPort, monitorList);
+            for (int i = 1; i <= bankStructure.getNumberOfElevators(); i++) {
+                floorsToElevators.addElevatorMonitor(i);
+            }
+
+            ElevatorSubsystem bankElevatorSubsystem = new ElevatorSubsystem(
+                    new Client(elevatorPort, elevatorsToFloorsPort, floorsToElevatorsPort));
+            floorsToElevators.enableSystem(bankStructure, InetAddress.getLocalHost(), elevatorPort);
+            bankElevatorSubsystem.initializeElevators(bankElevatorSubsystem.receiveStructure());
+            new Thread(bankElevatorSubsystem, bankElevatorSubsystem.getClass().getSimpleName()).start();
+            bankElevatorSubsystem.initializeElevatorThreads();
+            elevatorSubsystems.add(bankElevatorSubsystem);
+
+            FloorSubsystem bankFloorSubsystem = new FloorSubsystem(
+                    new Client(floorPort, floorsToElevatorsPort, elevatorsToFloorsPort));
+            elevatorsToFloors.enableSystem(bankStructure, InetAddress.getLocalHost(), floorPort);
+            bankFloorSubsystem.initializeFloors(bankFloorSubsystem.receiveStructure());
+            new Thread(bankFloorSubsystem, bankFloorSubsystem.getClass().getSimpleName()).start();
+            floorSubsystems.add(bankFloorSubsystem);
+
+            schedulerSelector.addScheduler(floorsToElevators);
+            schedulerSelector.addScheduler(elevatorsToFloors);
+        }
+        Thread selectorThread = new Thread(schedulerSelector, schedulerSelector.getClass().getSimpleName());
+        selectorThread.start();
+
+        try {
+            selectorThread.join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+        for (ElevatorSubsystem bankElevatorSubsystem : elevatorSubsystems) {
+            for (Elevator elevator : bankElevatorSubsystem.getElevatorList()) {
+                assertTrue(elevator.hasNoRequests());
+            }
+        }
+        for (FloorSubsystem bankFloorSubsystem : floorSubsystems) {
+            assertEquals(0, bankFloorSubsystem.getEventListSize());
+        }
+        for (Scheduler scheduler : schedulerSelector.getSchedulerList()) {
+            assertTrue(scheduler.getIntermediateHost().queueIsEmpty());
+        }
+    }
+
+    /**
+     * Tests that all requests are served when every system runs in one process
+     * and the systems pass events to each other in memory.
+     */
+    @Test
+    void testSimulationWithInMemoryTransportRunsToCompletion() throws InterruptedException {
+        Structure launcherStructure = new Structure(20, 4, elevatorTime, doorsTime);
+        launcherStructure.setPushDeliveryEnabled(true);
+        SystemLauncher systemLauncher = new SystemLauncher(launcherStructure);
+        systemLauncher.start();
+        systemLauncher.awaitTermination();
+
+        for (Elevator elevator : systemLauncher.getElevatorSubsystem().getElevatorList()) {
+            assertTrue(elevator.hasNoRequests());
+        }
+        assertEquals(0, systemLauncher.getFloorSubsystem().getEventListSize());
+        assertTrue(systemLauncher.getSchedulerFloorsToElevators().getIntermediateHost().queueIsEmpty());
+        assertTrue(systemLauncher.getSchedulerElevatorsToFloors().getIntermediateHost().queueIsEmpty());
+    }
+
+    /**
+     * Tests that all requests are served when the elevators decide where to stop
+     * without waiting for their ApproachEvents to return.
+     */
+    @Test
+    void testSimulationWithLocalStopDecisionsRunsToCompletion() throws InterruptedException {
+        Structure launcherStructure = new Structure(20, 4, elevatorTime, doorsTime);
+        launcherStructure.setPushDeliveryEnabled(true);
+        launcherStructure.setLocalStopDecisionsEnabled(true);
+        SystemLauncher systemLauncher = new SystemLauncher(launcherStructure);
+        systemLauncher.start();
+        systemLauncher.awaitTermination();
+
+        for (Elevator elevator : systemLauncher.getElevatorSubsystem().getElevatorList()) {
+            assertTrue(elevator.hasNoRequests());
+            assertEquals(Fault.NONE, elevator.getFault());
+        }
+        assertEquals(0, systemLauncher.getFloorSubsystem().getEventListSize());
+    }
+
     @Test
     void testSystemRunsToCompletionMultipleTimes() {
         elevatorTime = 50;
@@ -0,0 +1,152 @@
+package simulation;
+
+import org.junit.jupiter.api.Test;
+import requests.ElevatorRequest;
+import scheduler.DispatchAlgorithm;
+import systemwide.Direction;
+import systemwide.InputFileReader;
+import systemwide.Origin;
+import systemwide.Structure;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BuildingSimulationTest ensures that simulations on a virtual clock
+ * serve all of their requests without waiting in real time.
+ *
+ * @author Liam Tripp, Ryan Dash
+ */
+public class BuildingSimulationTest {
+
+    private static final long MILLISECONDS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    /**
+     * Tests that actions run in order of their virtual time, and in the order
+     * they were scheduled when their times are equal.
+     */
+    @Test
+    void testActionsRunInVirtualTimeOrder() {
+        DiscreteEventSimulator simulator = new DiscreteEventSimulator();
+        List<String> actionsRun = new ArrayList<>();
+        simulator.schedule(30, () -> actionsRun.add("third"));
+        simulator.schedule(10, () -> actionsRun.add("first"));
+        simulator.schedule(10, () -> {
+            actionsRun.add("second");
+            // actions may schedule further actions
+            simulator.schedule(MILLISECONDS_PER_DAY, () -> actionsRun.add("fourth"));
+        });
+
+        simulator.runUntil(30);
+        assertEquals(List.of("first", "second", "third"), actionsRun);
+        assertEquals(30, simulator.getClock().now());
+
+        simulator.run();
+        assertEquals(List.of("first", "second", "third", "fourth"), actionsRun);
+        assertEquals(10 + MILLISECONDS_PER_DAY, simulator.getClock().now());
+        assertTrue(simulator.isIdle());
+    }
+
+    /**
+     * Tests that passengers waiting at the same floor to travel in opposite directions
+     * are picked up on the passes that serve their directions.
+     */
+    @Test
+    void testPassengersPickedUpInTheirDirection() {
+        DiscreteEventSimulator simulator = new DiscreteEventSimulator();
+        SimulatedElevator elevator = new SimulatedElevator(1, simulator, 10, 1000, 1000);
+        elevator.addRequest(new ElevatorRequest(LocalTime.now(), 5, Direction.UP, 8, Origin.FLOOR_SYSTEM));
+        elevator.addRequest(new ElevatorRequest(LocalTime.now(), 5, Direction.DOWN, 2, Origin.FLOOR_SYSTEM));
+        simulator.run();
+
+        assertEquals(2, elevator.getPassengersPickedUp());
+        // up from floor 1 to floor 5, then up to floor 8 and back down to floor 5, with a stop at each
+        long upWaitTime = 4 * 1000;
+        long downWaitTime = upWaitTime + 2 * 1000 + 3 * 1000 + 2 * 1000 + 3 * 1000;
+        assertEquals(upWaitTime + downWaitTime, elevator.getTotalWaitTime());
+    }
+
+    /**
+     * Tests that the requests in the input file are all served.
+     */
+    @Test
+    void testInputFileRequestsAreServed() {
+        Structure structure = new Structure(20, 4, 1000, 1000);
+        BuildingSimulation buildingSimulation = new BuildingSimulation(structure);
+        buildingSimulation.addRequests(new InputFileReader().readInputFile(InputFileReader.INPUTS_FILENAME), 500);
+        buildingSimulation.run();
+
+        assertTrue(buildingSimulation.getRequestsDispatched() > 0);
+        assertTrue(buildingSimulation.allRequestsServed());
+        assertTrue(buildingSimulation.getSimulator().getClock().now() > 0);
+    }
+
+    /**
+     * Tests that the requests in the input file are all served with every dispatch
+     * algorithm and that the time passengers waited is measured.
+     */
+    @Test
+    void testEveryDispatchAlgorithmServesRequests() {
+        Structure structure = new Structure(20, 4, 1000, 1000);
+        for (DispatchAlgorithm dispatchAlgorithm : DispatchAlgorithm.values()) {
+            BuildingSimulation buildingSimulation = new BuildingSimulation(structure, dispatchAlgorithm.createStrategy(structure));
+            buildingSimulation.addRequests(new InputFileReader().readInputFile(InputFileReader.INPUTS_FILENAME), 500);
+            buildingSimulation.run();
+
+            assertTrue(buildingSimulation.allRequestsServed(), dispatchAlgorithm + " did not serve every request");
+            assertTrue(buildingSimulation.getAverageWaitTime() > 0);
+        }
+    }
+
+    /**
+     * Tests that the requests in the input file are all served when they are
+     * assigned together at the end of each dispatch window.
+     */
+    @Test
+    void testDispatchWindowServesRequests() {
+        Structure structure = new Structure(20, 4, 1000, 1000);
+        BuildingSimulation buildingSimulation = new BuildingSimulation(structure);
+        buildingSimulation.setDispatchWindow(1000);
+        buildingSimulation.addRequests(new InputFileReader().readInputFile(InputFileReader.INPUTS_FILENAME), 500);
+        buildingSimulation.run();
+
+        assertTrue(buildingSimulation.getRequestsDispatched() > 0);
+        assertTrue(buildingSimulation.allRequestsServed());
+        assertTrue(buildingSimulation.getAverageWaitTime() > 0);
+    }
+
+    /**
+     * Tests that a day of traffic across 50 elevators is served.
+     */
+    @Test
+    void testDayOfTrafficIsServed() {
+        int numberOfFloors = 100;
+        int numberOfRequests = 100000;
+        Structure structure = new Structure(numberOfFloors, 50, 1500, 2000);
+        BuildingSimulation buildingSimulation = new BuildingSimulation(structure);
+        Random random = new Random(42);
+        long lastArrivalTime = 0;
+        for (int i = 0; i < numberOfRequests; i++) {
+            long arrivalTime = (long) (random.nextDouble() * MILLISECONDS_PER_DAY);
+            int floor = 1 + random.nextInt(numberOfFloors);
+            int desiredFloor = 1 + random.nextInt(numberOfFloors);
+            if (desiredFloor == floor) {
+                desiredFloor = floor == numberOfFloors ? 1 : floor + 1;
+            }
+            Direction direction = desiredFloor > floor ? Direction.UP : Direction.DOWN;
+            buildingSimulation.addRequest(arrivalTime, new ElevatorRequest(LocalTime.ofNanoOfDay(arrivalTime * 1000000),
+                    floor, direction, desiredFloor, Origin.FLOOR_SYSTEM));
+            lastArrivalTime = Math.max(lastArrivalTime, arrivalTime);
+        }
+        buildingSimulation.run();
+
+        assertEquals(numberOfRequests, buildingSimulation.getRequestsDispatched());
+        assertTrue(buildingSimulation.allRequestsServed());
+        assertTrue(buildingSimulation.getSimulator().getClock().now() >= lastArrivalTime);
+    }
+}
@@ -0,0 +1,118 @@
+package systemwide;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BoundedMpscQueueTest ensures that BoundedMpscQueue keeps its elements in order,
+ * applies backpressure when full, and hands every element from many producers
+ * to the consumer exactly once.
+ *
+ * @author Liam Tripp, Julian
+ */
+public class BoundedMpscQueueTest {
+
+    @Test
+    void testElementsRemovedInOrderAcrossWrapAround() {
+        BoundedMpscQueue<Integer> queue = new BoundedMpscQueue<>(3);
+        assertEquals(4, queue.getCapacity());
+        assertNull(queue.poll());
+
+        int nextToAdd = 0;
+        for (int nextToRemove = 0; nextToRemove < 100; nextToRemove++) {
+            while (queue.offer(nextToAdd)) {
+                nextToAdd++;
+            }
+            assertEquals(4, queue.size());
+            assertEquals(nextToRemove, queue.poll());
+        }
+        List<Integer> remaining = new ArrayList<>();
+        assertEquals(3, queue.drainTo(remaining));
+        assertEquals(List.of(100, 101, 102), remaining);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void testFullQueueAppliesBackpressure() throws InterruptedException {
+        BoundedMpscQueue<String> queue = new BoundedMpscQueue<>(1);
+        assertTrue(queue.offer("first"));
+        assertFalse(queue.offer("second"));
+        assertFalse(queue.offer("second", 20, TimeUnit.MILLISECONDS));
+
+        // the producer waits until the consumer makes space
+        Thread consumer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            queue.poll();
+        });
+        consumer.start();
+        assertTrue(queue.offer("second", 5, TimeUnit.SECONDS));
+        consumer.join();
+        assertEquals("second", queue.poll());
+    }
+
+    @Test
+    void testConsumerWakesWhenElementAdded() throws InterruptedException {
+        BoundedMpscQueue<String> queue = new BoundedMpscQueue<>(8);
+        assertNull(queue.poll(20, TimeUnit.MILLISECONDS));
+
+        Thread producer = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            queue.offer("event");
+        });
+        producer.start();
+        long startTime = System.nanoTime();
+        assertEquals("event", queue.poll(5, TimeUnit.SECONDS));
+        // woken by the element rather than the timeout
+        assertTrue(System.nanoTime() - startTime < TimeUnit.SECONDS.toNanos(4));
+        producer.join();
+    }
+
+    @Test
+    void testEveryElementFromManyProducersIsReceivedOnce() throws InterruptedException {
+        int numberOfProducers = 8;
+        int elementsPerProducer = 20000;
+        BoundedMpscQueue<Integer> queue = new BoundedMpscQueue<>(64);
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < numberOfProducers; i++) {
+            int producerNumber = i;
+            Thread producer = new Thread(() -> {
+                for (int j = 0; j < elementsPerProducer; j++) {
+                    assertTrue(queue.offer(producerNumber * elementsPerProducer + j, 10, TimeUnit.SECONDS));
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+
+        // each producer's elements are received in the order that it added them
+        int[] lastReceived = new int[numberOfProducers];
+        Arrays.fill(lastReceived, -1);
+        for (int received = 0; received < numberOfProducers * elementsPerProducer; received++) {
+            Integer element = queue.poll(10, TimeUnit.SECONDS);
+            int producerNumber = element / elementsPerProducer;
+            assertEquals(lastReceived[producerNumber] + 1, element % elementsPerProducer);
+            lastReceived[producerNumber]++;
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertTrue(queue.isEmpty());
+    }
+}